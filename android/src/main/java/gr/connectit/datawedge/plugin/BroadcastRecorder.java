@@ -0,0 +1,145 @@
+package gr.connectit.datawedge.plugin;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Records every broadcast seen by the scan, result and notification receivers to an NDJSON
+ * trace for {@link BroadcastReplayer}.
+ *
+ * Trace layout, one JSON object per line:
+ *   {"format":"dwtrace","version":1,"startedAt":wallClockMs}
+ *   {"us":microsSinceStart,"src":"scan"|"result"|"notification","action":...,"extras":{typed}}
+ * Extras use the {@link BundleCodec} encoding. Lines are built on the receiving thread and
+ * written on the IO executor.
+ */
+class BroadcastRecorder {
+    static final String FORMAT = "dwtrace";
+    static final int VERSION = 1;
+
+    private static final String TAG = "BroadcastRecorder";
+
+    private final File file;
+    private final ExecutorService ioExecutor;
+    private final long startNanos = SystemClock.elapsedRealtimeNanos();
+    private final long startedAt = System.currentTimeMillis();
+
+    private long events = 0;
+    private long bytesWritten = 0;
+    private String lastError;
+
+    // Only touched on the IO executor
+    private BufferedWriter writer;
+
+    BroadcastRecorder(File file, ExecutorService ioExecutor) {
+        this.file = file;
+        this.ioExecutor = ioExecutor;
+    }
+
+    void start() {
+        String header = "{\"format\":\"" + FORMAT + "\",\"version\":" + VERSION + ",\"startedAt\":" + startedAt + "}\n";
+        ioExecutor.execute(() -> {
+            try {
+                File parent = file.getParentFile();
+                if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+                    throw new IOException("Cannot create directory " + parent.getAbsolutePath());
+                }
+                writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8));
+                writer.write(header);
+            } catch (IOException e) {
+                Log.e(TAG, "Error opening trace file", e);
+                synchronized (this) {
+                    lastError = e.getMessage();
+                }
+            }
+        });
+    }
+
+    /**
+     * Append one received broadcast
+     */
+    void record(String source, Intent intent) {
+        long micros = (SystemClock.elapsedRealtimeNanos() - startNanos) / 1000;
+        String line;
+        try {
+            JSONObject entry = new JSONObject();
+            entry.put("us", micros);
+            entry.put("src", source);
+            entry.put("action", intent.getAction());
+            Bundle extras = intent.getExtras();
+            entry.put("extras", extras != null ? BundleCodec.encode(extras) : new JSONObject());
+            line = entry.toString() + "\n";
+        } catch (JSONException e) {
+            Log.e(TAG, "Error encoding broadcast", e);
+            return;
+        }
+
+        ioExecutor.execute(() -> {
+            if (writer == null) {
+                return;
+            }
+            try {
+                writer.write(line);
+                synchronized (this) {
+                    events++;
+                    bytesWritten += line.getBytes(StandardCharsets.UTF_8).length;
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Error writing trace", e);
+                synchronized (this) {
+                    lastError = e.getMessage();
+                }
+            }
+        });
+    }
+
+    /**
+     * Close the trace once everything queued so far is written. call may be null on destroy.
+     */
+    void stop(PluginCall call) {
+        ioExecutor.execute(() -> {
+            try {
+                if (writer != null) {
+                    writer.close();
+                    writer = null;
+                }
+                if (call != null) {
+                    call.resolve(getStats());
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Error closing trace", e);
+                if (call != null) {
+                    call.reject("Error closing trace: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    synchronized JSObject getStats() {
+        JSObject stats = new JSObject();
+        stats.put("path", file.getAbsolutePath());
+        stats.put("events", events);
+        stats.put("bytes", bytesWritten);
+        stats.put("durationMs", (SystemClock.elapsedRealtimeNanos() - startNanos) / 1_000_000);
+        if (lastError != null) {
+            stats.put("lastError", lastError);
+        }
+        return stats;
+    }
+}
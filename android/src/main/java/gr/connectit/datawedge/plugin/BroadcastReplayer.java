@@ -0,0 +1,210 @@
+package gr.connectit.datawedge.plugin;
+
+import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Feeds a {@link BroadcastRecorder} trace back into the plugin's receivers on the main thread,
+ * either on the recorded schedule (scaled by speed) or as fast as possible (speed 0).
+ *
+ * The whole trace is decoded into intents before replay starts, so only the plugin's own
+ * handling is timed. Handling cost is kept per receiver in {@link LatencyHistogram}s.
+ *
+ * Recorded results carry the COMMAND_IDENTIFIERs of the recording session, which may equal
+ * identifiers of live commands; they are stripped on load, and replayed results are marked
+ * so that they never settle live commands or pending calls.
+ */
+class BroadcastReplayer {
+    static final String TRANSPORT = "replay";
+
+    private static final int MAX_SPEED_BATCH = 64;
+    private static final String[] SOURCES = { "scan", "result", "notification" };
+
+    interface Dispatcher {
+        /**
+         * Deliver to the receiver for source; false if that receiver is not registered
+         */
+        boolean dispatch(String source, Intent intent);
+    }
+
+    interface Listener {
+        void onFinished(JSObject report);
+    }
+
+    static final class Event {
+        final long micros;
+        final String source;
+        final Intent intent;
+
+        Event(long micros, String source, Intent intent) {
+            this.micros = micros;
+            this.source = source;
+            this.intent = intent;
+        }
+    }
+
+    private final List<Event> events;
+    private final double speed;
+    private final Dispatcher dispatcher;
+    private final Listener listener;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable stepRunnable = this::step;
+    private final LatencyHistogram handlingAll = new LatencyHistogram();
+    private final LatencyHistogram[] handlingBySource = new LatencyHistogram[SOURCES.length];
+
+    private long startUptimeMs;
+    private long startNanos;
+    private long endNanos;
+    private int index = 0;
+    private int skipped = 0;
+    private long maxLagMs = 0;
+    private boolean finished = false;
+
+    BroadcastReplayer(List<Event> events, double speed, Dispatcher dispatcher, Listener listener) {
+        this.events = events;
+        this.speed = speed;
+        this.dispatcher = dispatcher;
+        this.listener = listener;
+        for (int i = 0; i < SOURCES.length; i++) {
+            handlingBySource[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Read and decode a trace file
+     */
+    static List<Event> load(File file) throws IOException {
+        List<Event> events = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8))) {
+            String line = reader.readLine();
+            JSONObject header = line != null ? new JSONObject(line) : null;
+            if (header == null || !BroadcastRecorder.FORMAT.equals(header.optString("format"))) {
+                throw new IOException("Not a broadcast trace: " + file.getName());
+            }
+            if (header.optInt("version") != BroadcastRecorder.VERSION) {
+                throw new IOException("Unsupported trace version " + header.optInt("version"));
+            }
+
+            while ((line = reader.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                JSONObject entry = new JSONObject(line);
+                Intent intent = new Intent(entry.getString("action"));
+                intent.putExtras(BundleCodec.decode(entry.getJSONObject("extras")));
+                intent.removeExtra(DataWedgeCommandQueue.EXTRA_COMMAND_IDENTIFIER);
+                events.add(new Event(entry.getLong("us"), entry.getString("src"), intent));
+            }
+        } catch (JSONException e) {
+            throw new IOException("Corrupt broadcast trace: " + e.getMessage());
+        }
+        return events;
+    }
+
+    void start() {
+        handler.post(() -> {
+            startUptimeMs = SystemClock.uptimeMillis();
+            startNanos = SystemClock.elapsedRealtimeNanos();
+            step();
+        });
+    }
+
+    private void step() {
+        int batch = 0;
+        while (index < events.size()) {
+            Event event = events.get(index);
+            if (speed > 0) {
+                long dueUptimeMs = startUptimeMs + (long) (event.micros / 1000.0 / speed);
+                long now = SystemClock.uptimeMillis();
+                if (dueUptimeMs > now) {
+                    handler.postAtTime(stepRunnable, dueUptimeMs);
+                    return;
+                }
+                maxLagMs = Math.max(maxLagMs, now - dueUptimeMs);
+            } else if (batch++ == MAX_SPEED_BATCH) {
+                // Yield to the looper so the bridge and other messages keep flowing
+                handler.post(stepRunnable);
+                return;
+            }
+            dispatch(event);
+            index++;
+        }
+        finish();
+    }
+
+    private void dispatch(Event event) {
+        long before = SystemClock.elapsedRealtimeNanos();
+        if (!dispatcher.dispatch(event.source, event.intent)) {
+            skipped++;
+            return;
+        }
+        long elapsed = SystemClock.elapsedRealtimeNanos() - before;
+        handlingAll.record(elapsed);
+        for (int i = 0; i < SOURCES.length; i++) {
+            if (SOURCES[i].equals(event.source)) {
+                handlingBySource[i].record(elapsed);
+            }
+        }
+    }
+
+    /**
+     * Stop early and report. Must be called on the main thread.
+     */
+    void stop() {
+        finish();
+    }
+
+    private void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        endNanos = SystemClock.elapsedRealtimeNanos();
+        handler.removeCallbacks(stepRunnable);
+        listener.onFinished(getReport());
+    }
+
+    JSObject getReport() {
+        long elapsedNanos = (finished ? endNanos : SystemClock.elapsedRealtimeNanos()) - startNanos;
+        double elapsedSec = Math.max(1, elapsedNanos) / 1_000_000_000.0;
+        int dispatched = index - skipped;
+
+        JSObject handling = new JSObject();
+        handling.put("all", handlingAll.toJSObject());
+        for (int i = 0; i < SOURCES.length; i++) {
+            handling.put(SOURCES[i], handlingBySource[i].toJSObject());
+        }
+
+        JSObject report = new JSObject();
+        report.put("running", !finished);
+        report.put("speed", speed);
+        report.put("events", events.size());
+        report.put("dispatched", dispatched);
+        report.put("skipped", skipped);
+        report.put("traceDurationMs", events.isEmpty() ? 0 : events.get(events.size() - 1).micros / 1000);
+        report.put("durationMs", elapsedNanos / 1_000_000);
+        report.put("eventsPerSecond", dispatched / elapsedSec);
+        if (speed > 0) {
+            report.put("maxLagMs", maxLagMs);
+        }
+        report.put("handling", handling);
+        return report;
+    }
+}
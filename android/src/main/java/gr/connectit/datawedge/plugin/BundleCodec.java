@@ -0,0 +1,244 @@
+package gr.connectit.datawedge.plugin;
+
+import android.os.Bundle;
+import android.os.Parcelable;
+import android.util.Base64;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Type-preserving Bundle <-> JSON encoding, so a recorded broadcast can be rebuilt exactly.
+ *
+ * Unlike {@link BundleJsonWriter}, every value is written as a [type, value] pair:
+ *   s String, i int, l long, h short, y byte, b boolean, d double, f float, B Bundle,
+ *   x byte[] (base64), S String[], I int[], J long[], P Parcelable[] of Bundles,
+ *   L ArrayList (elements are [type, value] pairs themselves)
+ * Values of any other type are dropped.
+ */
+final class BundleCodec {
+
+    private BundleCodec() {
+    }
+
+    static JSONObject encode(Bundle bundle) throws JSONException {
+        JSONObject json = new JSONObject();
+        for (String key : bundle.keySet()) {
+            JSONArray value = encodeValue(bundle.get(key));
+            if (value != null) {
+                json.put(key, value);
+            }
+        }
+        return json;
+    }
+
+    private static JSONArray encodeValue(Object value) throws JSONException {
+        JSONArray pair = new JSONArray();
+        if (value instanceof String) {
+            return pair.put("s").put(value);
+        } else if (value instanceof Integer) {
+            return pair.put("i").put(value);
+        } else if (value instanceof Long) {
+            return pair.put("l").put(value);
+        } else if (value instanceof Short) {
+            return pair.put("h").put(((Short) value).intValue());
+        } else if (value instanceof Byte) {
+            return pair.put("y").put(((Byte) value).intValue());
+        } else if (value instanceof Boolean) {
+            return pair.put("b").put(value);
+        } else if (value instanceof Double) {
+            return pair.put("d").put(String.valueOf(value));
+        } else if (value instanceof Float) {
+            return pair.put("f").put(String.valueOf(value));
+        } else if (value instanceof Bundle) {
+            return pair.put("B").put(encode((Bundle) value));
+        } else if (value instanceof byte[]) {
+            return pair.put("x").put(Base64.encodeToString((byte[]) value, Base64.NO_WRAP));
+        } else if (value instanceof String[]) {
+            JSONArray items = new JSONArray();
+            for (String item : (String[]) value) {
+                items.put(item != null ? item : JSONObject.NULL);
+            }
+            return pair.put("S").put(items);
+        } else if (value instanceof int[]) {
+            JSONArray items = new JSONArray();
+            for (int item : (int[]) value) {
+                items.put(item);
+            }
+            return pair.put("I").put(items);
+        } else if (value instanceof long[]) {
+            JSONArray items = new JSONArray();
+            for (long item : (long[]) value) {
+                items.put(item);
+            }
+            return pair.put("J").put(items);
+        } else if (value instanceof Parcelable[]) {
+            JSONArray items = new JSONArray();
+            for (Parcelable item : (Parcelable[]) value) {
+                if (item instanceof Bundle) {
+                    items.put(encode((Bundle) item));
+                }
+            }
+            return pair.put("P").put(items);
+        } else if (value instanceof Collection) {
+            JSONArray items = new JSONArray();
+            for (Object item : (Collection<?>) value) {
+                JSONArray encoded = encodeValue(item);
+                if (encoded != null) {
+                    items.put(encoded);
+                }
+            }
+            return pair.put("L").put(items);
+        }
+        return null;
+    }
+
+    static Bundle decode(JSONObject json) throws JSONException {
+        Bundle bundle = new Bundle();
+        JSONArray names = json.names();
+        if (names == null) {
+            return bundle;
+        }
+        for (int n = 0; n < names.length(); n++) {
+            String key = names.getString(n);
+            JSONArray pair = json.getJSONArray(key);
+            String type = pair.getString(0);
+            switch (type) {
+                case "s":
+                    bundle.putString(key, pair.getString(1));
+                    break;
+                case "i":
+                    bundle.putInt(key, pair.getInt(1));
+                    break;
+                case "l":
+                    bundle.putLong(key, pair.getLong(1));
+                    break;
+                case "h":
+                    bundle.putShort(key, (short) pair.getInt(1));
+                    break;
+                case "y":
+                    bundle.putByte(key, (byte) pair.getInt(1));
+                    break;
+                case "b":
+                    bundle.putBoolean(key, pair.getBoolean(1));
+                    break;
+                case "d":
+                    bundle.putDouble(key, Double.parseDouble(pair.getString(1)));
+                    break;
+                case "f":
+                    bundle.putFloat(key, Float.parseFloat(pair.getString(1)));
+                    break;
+                case "B":
+                    bundle.putBundle(key, decode(pair.getJSONObject(1)));
+                    break;
+                case "x":
+                    bundle.putByteArray(key, Base64.decode(pair.getString(1), Base64.NO_WRAP));
+                    break;
+                case "S": {
+                    JSONArray items = pair.getJSONArray(1);
+                    String[] values = new String[items.length()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = items.isNull(i) ? null : items.getString(i);
+                    }
+                    bundle.putStringArray(key, values);
+                    break;
+                }
+                case "I": {
+                    JSONArray items = pair.getJSONArray(1);
+                    int[] values = new int[items.length()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = items.getInt(i);
+                    }
+                    bundle.putIntArray(key, values);
+                    break;
+                }
+                case "J": {
+                    JSONArray items = pair.getJSONArray(1);
+                    long[] values = new long[items.length()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = items.getLong(i);
+                    }
+                    bundle.putLongArray(key, values);
+                    break;
+                }
+                case "P": {
+                    JSONArray items = pair.getJSONArray(1);
+                    Bundle[] values = new Bundle[items.length()];
+                    for (int i = 0; i < values.length; i++) {
+                        values[i] = decode(items.getJSONObject(i));
+                    }
+                    bundle.putParcelableArray(key, values);
+                    break;
+                }
+                case "L":
+                    putList(bundle, key, pair.getJSONArray(1));
+                    break;
+                default:
+                    break;
+            }
+        }
+        return bundle;
+    }
+
+    /**
+     * Lists go back in with the typed putter DataWedge itself would have used
+     */
+    private static void putList(Bundle bundle, String key, JSONArray items) throws JSONException {
+        ArrayList<Object> values = new ArrayList<>();
+        String elementType = null;
+        boolean mixed = false;
+        for (int i = 0; i < items.length(); i++) {
+            JSONArray item = items.getJSONArray(i);
+            String type = item.getString(0);
+            if (elementType == null) {
+                elementType = type;
+            } else if (!elementType.equals(type)) {
+                mixed = true;
+            }
+            switch (type) {
+                case "s":
+                    values.add(item.getString(1));
+                    break;
+                case "i":
+                    values.add(item.getInt(1));
+                    break;
+                case "B":
+                    values.add(decode(item.getJSONObject(1)));
+                    break;
+                case "x":
+                    values.add(Base64.decode(item.getString(1), Base64.NO_WRAP));
+                    break;
+                default:
+                    values.add(item.get(1));
+                    break;
+            }
+        }
+
+        if (!mixed && "s".equals(elementType)) {
+            ArrayList<String> strings = new ArrayList<>();
+            for (Object value : values) {
+                strings.add((String) value);
+            }
+            bundle.putStringArrayList(key, strings);
+        } else if (!mixed && "i".equals(elementType)) {
+            ArrayList<Integer> ints = new ArrayList<>();
+            for (Object value : values) {
+                ints.add((Integer) value);
+            }
+            bundle.putIntegerArrayList(key, ints);
+        } else if (!mixed && "B".equals(elementType)) {
+            ArrayList<Bundle> bundles = new ArrayList<>();
+            for (Object value : values) {
+                bundles.add((Bundle) value);
+            }
+            bundle.putParcelableArrayList(key, bundles);
+        } else {
+            // e.g. decode_data, a serialized ArrayList<byte[]>
+            bundle.putSerializable(key, values);
+        }
+    }
+}
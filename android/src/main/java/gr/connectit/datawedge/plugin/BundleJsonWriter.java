@@ -0,0 +1,94 @@
+package gr.connectit.datawedge.plugin;
+
+import android.os.Bundle;
+import android.util.Base64;
+import android.util.JsonWriter;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Collection;
+
+/**
+ * Streams a Bundle as JSON in a single pass, without building an intermediate object tree
+ */
+final class BundleJsonWriter {
+
+    private BundleJsonWriter() {
+    }
+
+    /**
+     * Serialize a Bundle to a compact JSON string
+     */
+    static String toJson(Bundle bundle) throws IOException {
+        StringWriter out = new StringWriter();
+        JsonWriter writer = new JsonWriter(out);
+        writeBundle(writer, bundle);
+        writer.flush();
+        return out.toString();
+    }
+
+    static void writeBundle(JsonWriter writer, Bundle bundle) throws IOException {
+        writer.beginObject();
+        for (String key : bundle.keySet()) {
+            writer.name(key);
+            writeValue(writer, bundle.get(key));
+        }
+        writer.endObject();
+    }
+
+    static void writeValue(JsonWriter writer, Object value) throws IOException {
+        if (value == null) {
+            writer.nullValue();
+        } else if (value instanceof String) {
+            writer.value((String) value);
+        } else if (value instanceof Boolean) {
+            writer.value((Boolean) value);
+        } else if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            writer.value(((Number) value).longValue());
+        } else if (value instanceof Float || value instanceof Double) {
+            double d = ((Number) value).doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                writer.value(String.valueOf(d));
+            } else {
+                writer.value(d);
+            }
+        } else if (value instanceof Bundle) {
+            writeBundle(writer, (Bundle) value);
+        } else if (value instanceof byte[]) {
+            writer.value(Base64.encodeToString((byte[]) value, Base64.NO_WRAP));
+        } else if (value instanceof Object[]) {
+            // Covers Parcelable[] (e.g. APP_LIST, PLUGIN_CONFIG lists) and String[]
+            writer.beginArray();
+            for (Object item : (Object[]) value) {
+                writeValue(writer, item);
+            }
+            writer.endArray();
+        } else if (value instanceof Collection) {
+            writer.beginArray();
+            for (Object item : (Collection<?>) value) {
+                writeValue(writer, item);
+            }
+            writer.endArray();
+        } else if (value instanceof int[]) {
+            writer.beginArray();
+            for (int item : (int[]) value) {
+                writer.value(item);
+            }
+            writer.endArray();
+        } else if (value instanceof long[]) {
+            writer.beginArray();
+            for (long item : (long[]) value) {
+                writer.value(item);
+            }
+            writer.endArray();
+        } else if (value instanceof boolean[]) {
+            writer.beginArray();
+            for (boolean item : (boolean[]) value) {
+                writer.value(item);
+            }
+            writer.endArray();
+        } else {
+            writer.value(value.toString());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package gr.connectit.datawedge.plugin;
+
+import android.os.Bundle;
+import android.os.Parcelable;
+
+import com.getcapacitor.PluginCall;
+
+import org.json.JSONArray;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Selects a subtree of a GET_CONFIG result: top-level keys ("fields") and/or
+ * PLUGIN_CONFIG entries by PLUGIN_NAME ("plugins"). An empty projection keeps everything.
+ */
+class ConfigProjection {
+    private final Set<String> fields;
+    private final Set<String> plugins;
+
+    ConfigProjection(Set<String> fields, Set<String> plugins) {
+        this.fields = fields;
+        this.plugins = plugins;
+    }
+
+    static ConfigProjection fromCall(PluginCall call) {
+        return new ConfigProjection(toSet(call.getArray("fields")), toSet(call.getArray("plugins")));
+    }
+
+    private static Set<String> toSet(JSONArray array) {
+        if (array == null || array.length() == 0) {
+            return null;
+        }
+        Set<String> values = new HashSet<>();
+        for (int i = 0; i < array.length(); i++) {
+            String value = array.optString(i);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+
+    boolean isEmpty() {
+        return fields == null && plugins == null;
+    }
+
+    Set<String> getPlugins() {
+        return plugins;
+    }
+
+    /**
+     * Shallow copy of the config with only the selected keys and plugins. Values are shared, not copied.
+     */
+    Bundle apply(Bundle config) {
+        if (isEmpty()) {
+            return config;
+        }
+
+        Bundle projected = new Bundle();
+        for (String key : config.keySet()) {
+            boolean isPluginConfig = "PLUGIN_CONFIG".equals(key);
+            if (fields != null && !fields.contains(key) && !(isPluginConfig && plugins != null)) {
+                continue;
+            }
+
+            Object value = config.get(key);
+            if (isPluginConfig && plugins != null) {
+                projected.putParcelableArrayList(key, filterPlugins(value));
+            } else {
+                putValue(projected, key, value);
+            }
+        }
+        return projected;
+    }
+
+    private ArrayList<Bundle> filterPlugins(Object pluginConfig) {
+        ArrayList<Bundle> selected = new ArrayList<>();
+        if (pluginConfig instanceof Bundle) {
+            addIfSelected(selected, pluginConfig);
+        } else if (pluginConfig instanceof Parcelable[]) {
+            for (Parcelable entry : (Parcelable[]) pluginConfig) {
+                addIfSelected(selected, entry);
+            }
+        } else if (pluginConfig instanceof Collection) {
+            for (Object entry : (Collection<?>) pluginConfig) {
+                addIfSelected(selected, entry);
+            }
+        }
+        return selected;
+    }
+
+    private void addIfSelected(ArrayList<Bundle> selected, Object entry) {
+        if (entry instanceof Bundle && plugins.contains(((Bundle) entry).getString("PLUGIN_NAME"))) {
+            selected.add((Bundle) entry);
+        }
+    }
+
+    private static void putValue(Bundle bundle, String key, Object value) {
+        if (value instanceof String) {
+            bundle.putString(key, (String) value);
+        } else if (value instanceof Boolean) {
+            bundle.putBoolean(key, (Boolean) value);
+        } else if (value instanceof Integer) {
+            bundle.putInt(key, (Integer) value);
+        } else if (value instanceof Long) {
+            bundle.putLong(key, (Long) value);
+        } else if (value instanceof Double) {
+            bundle.putDouble(key, (Double) value);
+        } else if (value instanceof Bundle) {
+            bundle.putBundle(key, (Bundle) value);
+        } else if (value instanceof String[]) {
+            bundle.putStringArray(key, (String[]) value);
+        } else if (value instanceof Parcelable[]) {
+            bundle.putParcelableArray(key, (Parcelable[]) value);
+        } else if (value instanceof ArrayList) {
+            ArrayList<?> list = (ArrayList<?>) value;
+            if (!list.isEmpty() && list.get(0) instanceof String) {
+                ArrayList<String> strings = new ArrayList<>();
+                for (Object item : list) {
+                    strings.add(String.valueOf(item));
+                }
+                bundle.putStringArrayList(key, strings);
+            } else {
+                ArrayList<Parcelable> parcelables = new ArrayList<>();
+                for (Object item : list) {
+                    if (item instanceof Parcelable) {
+                        parcelables.add((Parcelable) item);
+                    }
+                }
+                bundle.putParcelableArrayList(key, parcelables);
+            }
+        } else if (value != null) {
+            bundle.putString(key, value.toString());
+        }
+    }
+}
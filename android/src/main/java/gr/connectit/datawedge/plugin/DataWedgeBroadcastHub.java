@@ -0,0 +1,486 @@
+package gr.connectit.datawedge.plugin;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.content.pm.PackageManager;
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Process-wide owner of the DataWedge broadcast receivers.
+ *
+ * Every plugin instance (one per WebView) subscribes here instead of registering its own
+ * receivers, so each channel has exactly one receiver registered on the application context
+ * no matter how many instances exist. Each broadcast is unpacked once into a {@link Broadcast}
+ * (extras copied once, notifications decoded on first use) and that same object is handed to
+ * every subscriber. A channel's receiver is registered with its first subscriber and
+ * unregistered with its last.
+ *
+ * Besides the fixed channels, listeners can subscribe to any other action (and optional
+ * category), e.g. for named scan channels. These follow the same one-receiver-per-process rule.
+ */
+final class DataWedgeBroadcastHub {
+    private static final String TAG = "DataWedgeBroadcastHub";
+
+    static final String SCAN_INTENT_ACTION = "gr.connectit.datawedge.SCAN";
+    static final String RESULT_ACTION = "com.symbol.datawedge.api.RESULT_ACTION";
+    static final String NOTIFICATION_ACTION = "com.symbol.datawedge.api.NOTIFICATION_ACTION";
+    static final String API_ACTION = "com.symbol.datawedge.api.ACTION";
+    static final String DATAWEDGE_PACKAGE = "com.symbol.datawedge";
+    static final String[] DATAWEDGE_PACKAGES = {
+        "com.symbol.datawedge",
+        "com.motorolasolutions.datawedge",
+        "com.zebra.datawedge"
+    };
+
+    private static DataWedgeBroadcastHub instance;
+
+    enum Channel {
+        SCAN, RESULT, NOTIFICATION, PACKAGE
+    }
+
+    interface Listener {
+        void onBroadcast(Broadcast broadcast);
+    }
+
+    /**
+     * One received broadcast, shared read-only by all subscribers
+     */
+    static final class Broadcast {
+        private static final JSObject NOT_MULTI_BARCODE = new JSObject();
+
+        final Intent intent;
+        final Bundle extras;
+        final long receivedNanos;
+        final long receivedWallMs;
+        // ScanDeliveryStats.BROADCAST, ACTIVITY for scans handed over through onNewIntent,
+        // BroadcastReplayer.TRANSPORT for replayed traffic, or the load generator's direct transport
+        final String transport;
+        private List<DataWedgeNotification> notifications;
+        private DataWedgeScan scan;
+        // multiBarcodeReceived events without and with GS1 parsing, decoded on first use
+        private final JSObject[] multiBarcodes = new JSObject[2];
+
+        Broadcast(Intent intent, long receivedNanos, long receivedWallMs, String transport) {
+            this.intent = intent;
+            this.transport = transport;
+            // Intent.getExtras() copies the bundle on every call
+            this.extras = intent.getExtras();
+            this.receivedNanos = receivedNanos;
+            this.receivedWallMs = receivedWallMs;
+        }
+
+        /**
+         * A broadcast replayed from a trace rather than received from DataWedge
+         */
+        static Broadcast replayed(Intent intent) {
+            return new Broadcast(intent, SystemClock.elapsedRealtimeNanos(), System.currentTimeMillis(),
+                BroadcastReplayer.TRANSPORT);
+        }
+
+        boolean isReplayed() {
+            return BroadcastReplayer.TRANSPORT.equals(transport);
+        }
+
+        /**
+         * Notifications in a NOTIFICATION_ACTION broadcast, decoded by the first subscriber that asks
+         */
+        synchronized List<DataWedgeNotification> getNotifications() {
+            if (notifications == null) {
+                notifications = extras != null ? DataWedgeNotification.decode(extras) : Collections.emptyList();
+            }
+            return notifications;
+        }
+
+        /**
+         * Typed view of a scan broadcast for native listeners, built once
+         */
+        synchronized DataWedgeScan getScan() {
+            if (scan == null) {
+                scan = new DataWedgeScan(intent, receivedNanos, receivedWallMs);
+            }
+            return scan;
+        }
+
+        /**
+         * The multiBarcodeReceived event for this broadcast, or null if it is not a multi-barcode
+         * capture. Decoded once per GS1 setting and shared, so callers must not modify it.
+         */
+        synchronized JSObject getMultiBarcode(boolean parseGs1) {
+            int slot = parseGs1 ? 1 : 0;
+            if (multiBarcodes[slot] == null) {
+                JSObject decoded = MultiBarcodeDecoder.decode(intent, parseGs1);
+                multiBarcodes[slot] = decoded != null ? decoded : NOT_MULTI_BARCODE;
+            }
+            return multiBarcodes[slot] != NOT_MULTI_BARCODE ? multiBarcodes[slot] : null;
+        }
+    }
+
+    private final Context context;
+    private final Map<Channel, CopyOnWriteArrayList<Listener>> listeners = new EnumMap<>(Channel.class);
+    private final Map<Channel, BroadcastReceiver> receivers = new EnumMap<>(Channel.class);
+    private final Map<Channel, long[]> counters = new EnumMap<>(Channel.class);
+    // Receivers for arbitrary actions, keyed by actionKey()
+    private final Map<String, CopyOnWriteArrayList<Listener>> actionListeners = new HashMap<>();
+    private final Map<String, BroadcastReceiver> actionReceivers = new HashMap<>();
+    private final Map<String, long[]> actionCounters = new HashMap<>();
+    // Listeners for every named scan channel's scans, whichever channels are registered
+    private final CopyOnWriteArrayList<Listener> channelScanListeners = new CopyOnWriteArrayList<>();
+    // Installed DataWedge package that owns the API receiver, resolved on first send
+    private volatile String dataWedgePackage;
+    // Every API intent of the process goes out through this queue, created on first use
+    private DataWedgeCommandQueue commandQueue;
+    // Last intent handed over by the activity; every WebView's plugin passes on the same one
+    private Intent lastActivityIntent;
+    // Notification registrations of every plugin instance; DataWedge registers per application
+    private final NotificationSubscriptions notificationSubscriptions = new NotificationSubscriptions();
+
+    private DataWedgeBroadcastHub(Context context) {
+        this.context = context;
+        for (Channel channel : Channel.values()) {
+            listeners.put(channel, new CopyOnWriteArrayList<>());
+            // [broadcasts received, deliveries to listeners]
+            counters.put(channel, new long[2]);
+        }
+    }
+
+    static synchronized DataWedgeBroadcastHub getInstance(Context context) {
+        if (instance == null) {
+            instance = new DataWedgeBroadcastHub(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    synchronized void subscribe(Channel channel, Listener listener) {
+        List<Listener> channelListeners = listeners.get(channel);
+        if (channelListeners.contains(listener)) {
+            return;
+        }
+        channelListeners.add(listener);
+        if (!receivers.containsKey(channel)) {
+            register(channel);
+        }
+    }
+
+    synchronized void unsubscribe(Channel channel, Listener listener) {
+        List<Listener> channelListeners = listeners.get(channel);
+        if (!channelListeners.remove(listener) || !channelListeners.isEmpty()) {
+            return;
+        }
+        BroadcastReceiver receiver = receivers.remove(channel);
+        if (receiver != null) {
+            try {
+                context.unregisterReceiver(receiver);
+                Log.d(TAG, channel + " receiver unregistered");
+            } catch (Exception e) {
+                Log.e(TAG, "Error unregistering " + channel + " receiver", e);
+            }
+        }
+    }
+
+    /**
+     * Subscribe to broadcasts for an action outside the fixed channels. With a category the
+     * receiver only matches intents carrying that category (and at most DEFAULT besides).
+     */
+    synchronized void subscribeAction(String action, String category, Listener listener) {
+        String key = actionKey(action, category);
+        CopyOnWriteArrayList<Listener> keyListeners = actionListeners.get(key);
+        if (keyListeners == null) {
+            keyListeners = new CopyOnWriteArrayList<>();
+            actionListeners.put(key, keyListeners);
+            actionCounters.put(key, new long[2]);
+        }
+        if (!keyListeners.addIfAbsent(listener) || actionReceivers.containsKey(key)) {
+            return;
+        }
+
+        IntentFilter filter = new IntentFilter();
+        filter.addAction(action);
+        filter.addCategory(Intent.CATEGORY_DEFAULT);
+        if (category != null) {
+            filter.addCategory(category);
+        }
+        BroadcastReceiver receiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                dispatchAction(key, new Broadcast(intent, SystemClock.elapsedRealtimeNanos(), System.currentTimeMillis(),
+                    ScanDeliveryStats.BROADCAST));
+            }
+        };
+        context.registerReceiver(receiver, filter);
+        actionReceivers.put(key, receiver);
+        Log.d(TAG, key + " receiver registered");
+    }
+
+    /**
+     * Receive the scans of every action subscribed with subscribeAction (named scan channels),
+     * without holding receivers of its own
+     */
+    void subscribeChannelScans(Listener listener) {
+        channelScanListeners.addIfAbsent(listener);
+    }
+
+    void unsubscribeChannelScans(Listener listener) {
+        channelScanListeners.remove(listener);
+    }
+
+    synchronized void unsubscribeAction(String action, String category, Listener listener) {
+        String key = actionKey(action, category);
+        CopyOnWriteArrayList<Listener> keyListeners = actionListeners.get(key);
+        if (keyListeners == null || !keyListeners.remove(listener) || !keyListeners.isEmpty()) {
+            return;
+        }
+        actionListeners.remove(key);
+        actionCounters.remove(key);
+        BroadcastReceiver receiver = actionReceivers.remove(key);
+        if (receiver != null) {
+            try {
+                context.unregisterReceiver(receiver);
+                Log.d(TAG, key + " receiver unregistered");
+            } catch (Exception e) {
+                Log.e(TAG, "Error unregistering " + key + " receiver", e);
+            }
+        }
+    }
+
+    /**
+     * Fan out a scan that DataWedge delivered to the activity, by onNewIntent or as the launch
+     * intent, to whoever would have received it as a broadcast: named scan channel subscribers,
+     * otherwise the SCAN channel. Each plugin instance of the activity hands over the same Intent,
+     * so it is delivered once however many instances do. Returns false if nobody received it.
+     */
+    boolean deliverActivityIntent(Intent intent) {
+        synchronized (this) {
+            if (intent == lastActivityIntent) {
+                return true;
+            }
+        }
+        boolean delivered = deliverAction(intent, ScanDeliveryStats.ACTIVITY);
+        if (!delivered && SCAN_INTENT_ACTION.equals(intent.getAction()) && !listeners.get(Channel.SCAN).isEmpty()) {
+            deliver(Channel.SCAN, intent, ScanDeliveryStats.ACTIVITY);
+            delivered = true;
+        }
+        if (delivered) {
+            synchronized (this) {
+                lastActivityIntent = intent;
+            }
+        }
+        return delivered;
+    }
+
+    /**
+     * Fan out an activity-delivered intent to the action subscribers it would have matched as a
+     * broadcast. Returns false if nobody subscribes to its action.
+     */
+    boolean deliverAction(Intent intent, String transport) {
+        Broadcast broadcast = null;
+        for (String key : actionKeys()) {
+            String category = categoryOf(key);
+            if (!key.equals(actionKey(intent.getAction(), category))
+                    || (category != null && !intent.hasCategory(category))) {
+                continue;
+            }
+            if (broadcast == null) {
+                broadcast = new Broadcast(intent, SystemClock.elapsedRealtimeNanos(), System.currentTimeMillis(), transport);
+            }
+            dispatchAction(key, broadcast);
+        }
+        return broadcast != null;
+    }
+
+    private synchronized List<String> actionKeys() {
+        return new ArrayList<>(actionListeners.keySet());
+    }
+
+    private void dispatchAction(String key, Broadcast broadcast) {
+        List<Listener> keyListeners;
+        synchronized (this) {
+            keyListeners = actionListeners.get(key);
+            if (keyListeners == null) {
+                return;
+            }
+            long[] counter = actionCounters.get(key);
+            counter[0]++;
+            counter[1] += keyListeners.size();
+        }
+        for (Listener listener : keyListeners) {
+            listener.onBroadcast(broadcast);
+        }
+        for (Listener listener : channelScanListeners) {
+            listener.onBroadcast(broadcast);
+        }
+    }
+
+    private static String actionKey(String action, String category) {
+        return category != null ? action + "#" + category : action;
+    }
+
+    private static String categoryOf(String key) {
+        int hash = key.indexOf('#');
+        return hash >= 0 ? key.substring(hash + 1) : null;
+    }
+
+    private void register(Channel channel) {
+        BroadcastReceiver receiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                dispatch(channel, new Broadcast(intent, SystemClock.elapsedRealtimeNanos(), System.currentTimeMillis(),
+                    ScanDeliveryStats.BROADCAST));
+            }
+        };
+        context.registerReceiver(receiver, createFilter(channel));
+        receivers.put(channel, receiver);
+        Log.d(TAG, channel + " receiver registered");
+    }
+
+    /**
+     * Fan out an intent that arrived some other way than this hub's receivers, e.g. a scan
+     * delivered to the activity by startActivity
+     */
+    void deliver(Channel channel, Intent intent, String transport) {
+        dispatch(channel, new Broadcast(intent, SystemClock.elapsedRealtimeNanos(), System.currentTimeMillis(), transport));
+    }
+
+    private void dispatch(Channel channel, Broadcast broadcast) {
+        List<Listener> channelListeners = listeners.get(channel);
+        synchronized (this) {
+            long[] counter = counters.get(channel);
+            counter[0]++;
+            counter[1] += channelListeners.size();
+        }
+        for (Listener listener : channelListeners) {
+            listener.onBroadcast(broadcast);
+        }
+    }
+
+    private static IntentFilter createFilter(Channel channel) {
+        IntentFilter filter = new IntentFilter();
+        switch (channel) {
+            case SCAN:
+                filter.addAction(SCAN_INTENT_ACTION);
+                filter.addCategory(Intent.CATEGORY_DEFAULT);
+                break;
+            case RESULT:
+                filter.addAction(RESULT_ACTION);
+                filter.addCategory(Intent.CATEGORY_DEFAULT);
+                break;
+            case NOTIFICATION:
+                filter.addAction(NOTIFICATION_ACTION);
+                filter.addCategory(Intent.CATEGORY_DEFAULT);
+                break;
+            case PACKAGE:
+                // Not ACTION_PACKAGE_RESTARTED: that is sent on force-stop, when DataWedge is not back yet
+                filter.addAction(Intent.ACTION_PACKAGE_REPLACED);
+                filter.addDataScheme("package");
+                break;
+        }
+        return filter;
+    }
+
+    /**
+     * Process-wide notification reference counts. Lock it around compound updates.
+     */
+    NotificationSubscriptions getNotificationSubscriptions() {
+        return notificationSubscriptions;
+    }
+
+    /**
+     * The process-wide outbound queue, shared by every plugin instance and DataWedgeNative so
+     * that DataWedge sees one ordered, rate-limited stream. It takes its acknowledgements from
+     * the RESULT channel itself.
+     */
+    synchronized DataWedgeCommandQueue getCommandQueue() {
+        if (commandQueue == null) {
+            DataWedgeCommandQueue queue = new DataWedgeCommandQueue(context::sendBroadcast);
+            subscribe(Channel.RESULT, broadcast -> {
+                if (broadcast.extras != null && !broadcast.isReplayed()) {
+                    queue.onResult(broadcast.extras);
+                }
+            });
+            commandQueue = queue;
+        }
+        return commandQueue;
+    }
+
+    /**
+     * New API intent addressed to the installed DataWedge package, or the stock package if none
+     * is resolved yet, so it never goes out as an implicit broadcast
+     */
+    Intent createApiIntent() {
+        Intent intent = new Intent(API_ACTION);
+        String packageName = resolveDataWedgePackage();
+        intent.setPackage(packageName != null ? packageName : DATAWEDGE_PACKAGE);
+        return intent;
+    }
+
+    /**
+     * First entry of DATAWEDGE_PACKAGES that has a receiver for the API action. Cached once found;
+     * a miss is not cached so DataWedge installed later is still picked up.
+     */
+    String resolveDataWedgePackage() {
+        String cached = dataWedgePackage;
+        if (cached != null) {
+            return cached;
+        }
+
+        PackageManager pm = context.getPackageManager();
+        for (String packageName : DATAWEDGE_PACKAGES) {
+            try {
+                Intent probe = new Intent(API_ACTION);
+                probe.setPackage(packageName);
+                if (!pm.queryBroadcastReceivers(probe, 0).isEmpty()) {
+                    Log.d(TAG, "Resolved DataWedge package: " + packageName);
+                    dataWedgePackage = packageName;
+                    return packageName;
+                }
+            } catch (Exception e) {
+                Log.d(TAG, "Error probing DataWedge package " + packageName + ": " + e.getMessage());
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Forget the resolved package, e.g. after DataWedge was updated
+     */
+    void invalidateDataWedgePackage() {
+        dataWedgePackage = null;
+    }
+
+    synchronized JSObject getStats() {
+        JSObject stats = new JSObject();
+        for (Channel channel : Channel.values()) {
+            long[] counter = counters.get(channel);
+            JSObject channelStats = new JSObject();
+            channelStats.put("registered", receivers.containsKey(channel));
+            channelStats.put("subscribers", listeners.get(channel).size());
+            channelStats.put("broadcasts", counter[0]);
+            channelStats.put("deliveries", counter[1]);
+            stats.put(channel.name().toLowerCase(), channelStats);
+        }
+        JSObject actions = new JSObject();
+        for (Map.Entry<String, long[]> entry : actionCounters.entrySet()) {
+            JSObject actionStats = new JSObject();
+            actionStats.put("registered", actionReceivers.containsKey(entry.getKey()));
+            actionStats.put("subscribers", actionListeners.get(entry.getKey()).size());
+            actionStats.put("broadcasts", entry.getValue()[0]);
+            actionStats.put("deliveries", entry.getValue()[1]);
+            actions.put(entry.getKey(), actionStats);
+        }
+        stats.put("actions", actions);
+        return stats;
+    }
+}
@@ -0,0 +1,145 @@
+package gr.connectit.datawedge.plugin;
+
+import android.content.Intent;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Debounces idempotent runtime commands (SWITCH_TO_PROFILE, SWITCH_SCANNER_PARAMS)
+ * so that only the last command of each kind within the window reaches DataWedge
+ */
+class DataWedgeCommandCoalescer {
+    private static final String TAG = "DataWedgeCoalescer";
+
+    static final String KIND_SWITCH_TO_PROFILE = "SWITCH_TO_PROFILE";
+    static final String KIND_SWITCH_SCANNER_PARAMS = "SWITCH_SCANNER_PARAMS";
+
+    /**
+     * Sends the surviving command of a burst and settles its call
+     */
+    interface Dispatcher {
+        void dispatch(Intent intent, PluginCall call);
+    }
+
+    private static class PendingCommand {
+        final Intent intent;
+        final PluginCall call;
+
+        PendingCommand(Intent intent, PluginCall call) {
+            this.intent = intent;
+            this.call = call;
+        }
+    }
+
+    private final Dispatcher dispatcher;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+
+    // Insertion order is dispatch order; a newer command of the same kind moves to the end
+    private final LinkedHashMap<String, PendingCommand> pending = new LinkedHashMap<>();
+    private long debounceMs = 0;
+    private long submittedCount = 0;
+    private long coalescedCount = 0;
+
+    DataWedgeCommandCoalescer(Dispatcher dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    /**
+     * Set the debounce window in milliseconds. 0 disables coalescing.
+     */
+    void setDebounceMs(long debounceMs) {
+        synchronized (this) {
+            this.debounceMs = Math.max(0, debounceMs);
+        }
+        if (debounceMs <= 0) {
+            flush();
+        }
+    }
+
+    synchronized long getDebounceMs() {
+        return debounceMs;
+    }
+
+    /**
+     * Queue a command of the given kind, superseding any pending command it makes obsolete
+     */
+    void submit(String kind, Intent intent, PluginCall call) {
+        List<PluginCall> superseded = new ArrayList<>();
+        boolean dispatchNow;
+
+        synchronized (this) {
+            submittedCount++;
+            dispatchNow = debounceMs <= 0;
+
+            if (!dispatchNow) {
+                if (KIND_SWITCH_TO_PROFILE.equals(kind)) {
+                    // Switching profile discards temporary scanner params, so it supersedes everything pending
+                    for (PendingCommand command : pending.values()) {
+                        superseded.add(command.call);
+                    }
+                    pending.clear();
+                } else {
+                    PendingCommand previous = pending.remove(kind);
+                    if (previous != null) {
+                        superseded.add(previous.call);
+                    }
+                }
+                coalescedCount += superseded.size();
+                pending.put(kind, new PendingCommand(intent, call));
+
+                handler.removeCallbacks(flushRunnable);
+                handler.postDelayed(flushRunnable, debounceMs);
+            }
+        }
+
+        if (dispatchNow) {
+            dispatcher.dispatch(intent, call);
+            return;
+        }
+
+        for (PluginCall supersededCall : superseded) {
+            JSObject result = new JSObject();
+            result.put("coalesced", true);
+            supersededCall.resolve(result);
+        }
+
+        Log.d(TAG, "Queued " + kind + " (" + superseded.size() + " superseded)");
+    }
+
+    /**
+     * Dispatch every pending command immediately, in submission order
+     */
+    void flush() {
+        List<PendingCommand> ready;
+        synchronized (this) {
+            handler.removeCallbacks(flushRunnable);
+            if (pending.isEmpty()) {
+                return;
+            }
+            ready = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+
+        for (PendingCommand command : ready) {
+            dispatcher.dispatch(command.intent, command.call);
+        }
+    }
+
+    synchronized JSObject getStats() {
+        JSObject stats = new JSObject();
+        stats.put("debounceMs", debounceMs);
+        stats.put("submitted", submittedCount);
+        stats.put("coalesced", coalescedCount);
+        stats.put("pending", pending.size());
+        return stats;
+    }
+}
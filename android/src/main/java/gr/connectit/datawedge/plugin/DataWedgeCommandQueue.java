@@ -0,0 +1,331 @@
+package gr.connectit.datawedge.plugin;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Single outbound queue for com.symbol.datawedge.api.ACTION intents, one per process
+ * (see {@link DataWedgeBroadcastHub#getCommandQueue()}).
+ *
+ * Commands are sent in FIFO order. Commands that change DataWedge state request a
+ * SEND_RESULT acknowledgement and occupy one of up to maxInFlight slots until it
+ * arrives (or the ack timeout passes). Read-only queries keep their place in line but
+ * do not hold a slot. High priority commands (soft trigger, notify) jump ahead of
+ * everything queued and are never held behind in-flight config writes.
+ *
+ * The ack timeout only bounds how long a command holds its slot. A command may ask to wait
+ * longer for its result (e.g. importConfig); it then keeps listening after its slot is freed.
+ */
+class DataWedgeCommandQueue {
+    private static final String TAG = "DataWedgeCommandQueue";
+
+    static final String EXTRA_SEND_RESULT = "SEND_RESULT";
+    static final String EXTRA_COMMAND_IDENTIFIER = "COMMAND_IDENTIFIER";
+
+    // Every RESULT_ACTION listener of the app sees every result; the prefix lets them tell the
+    // queue's acknowledgements apart, and the random part keeps them apart from a previous process
+    private static final String IDENTIFIER_PREFIX = "DWQ-" + Integer.toHexString(new Random().nextInt()) + "-";
+    private static final AtomicLong NEXT_IDENTIFIER = new AtomicLong(1);
+
+    enum Priority {
+        HIGH,
+        NORMAL
+    }
+
+    /**
+     * Sends a prepared intent to DataWedge
+     */
+    interface Sender {
+        void send(Intent intent);
+    }
+
+    /**
+     * Called once a command is settled. result is the RESULT_ACTION extras, or null
+     * if the command did not wait for an acknowledgement or its result timed out.
+     */
+    interface CompletionListener {
+        void onComplete(Bundle result);
+    }
+
+    private class Command {
+        final Intent intent;
+        final Priority priority;
+        final boolean awaitAck;
+        final boolean barrier;
+        final long resultTimeoutMs;
+        final CompletionListener listener;
+        final long enqueuedAt = SystemClock.elapsedRealtime();
+        String identifier;
+        Runnable timeout;
+        Runnable onDispatched;
+
+        Command(Intent intent, Priority priority, boolean awaitAck, boolean barrier, long resultTimeoutMs,
+                CompletionListener listener) {
+            this.intent = intent;
+            this.priority = priority;
+            this.awaitAck = awaitAck;
+            this.barrier = barrier;
+            this.resultTimeoutMs = resultTimeoutMs;
+            this.listener = listener;
+        }
+    }
+
+    private final Sender sender;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    private final ArrayDeque<Command> highLane = new ArrayDeque<>();
+    private final ArrayDeque<Command> normalLane = new ArrayDeque<>();
+    private final LinkedHashMap<String, Command> inFlight = new LinkedHashMap<>();
+    // Past the ack timeout (slot released) but still waiting for their result
+    private final LinkedHashMap<String, Command> awaitingResult = new LinkedHashMap<>();
+
+    private int maxInFlight = 2;
+    private long ackTimeoutMs = 1500;
+
+    private long dispatchedCount = 0;
+    private long acknowledgedCount = 0;
+    private long failedCount = 0;
+    private long timedOutCount = 0;
+    private long totalQueueWaitMs = 0;
+
+    DataWedgeCommandQueue(Sender sender) {
+        this.sender = sender;
+    }
+
+    synchronized void configure(int maxInFlight, long ackTimeoutMs) {
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.ackTimeoutMs = Math.max(100, ackTimeoutMs);
+    }
+
+    /**
+     * Queue a read-only query. Its reply is handled by the result receiver.
+     */
+    void enqueueQuery(Intent intent) {
+        enqueue(new Command(intent, Priority.NORMAL, false, false, 0, null));
+    }
+
+    /**
+     * Queue a state-changing command that waits for its SEND_RESULT acknowledgement
+     */
+    void enqueueCommand(Intent intent, Priority priority, CompletionListener listener) {
+        enqueueCommand(intent, priority, 0, listener);
+    }
+
+    /**
+     * Queue a command whose listener waits up to resultTimeoutMs for the result, which may be
+     * longer than the ack timeout. 0 waits for the ack timeout only.
+     */
+    void enqueueCommand(Intent intent, Priority priority, long resultTimeoutMs, CompletionListener listener) {
+        enqueue(new Command(intent, priority, true, false, resultTimeoutMs, listener));
+    }
+
+    /**
+     * Queue a command and run onDispatched right after it has been sent, e.g. to start accepting
+     * what the command triggers. onDispatched runs under the queue lock and must not block.
+     */
+    void enqueueCommand(Intent intent, Priority priority, Runnable onDispatched, CompletionListener listener) {
+        Command command = new Command(intent, priority, true, false, 0, listener);
+        command.onDispatched = onDispatched;
+        enqueue(command);
+    }
+
+    /**
+     * Queue a command that must not be sent until every earlier command is acknowledged,
+     * e.g. a SET_CONFIG that targets a profile created by the previous command
+     */
+    void enqueueAfterPrevious(Intent intent, long resultTimeoutMs, CompletionListener listener) {
+        enqueue(new Command(intent, Priority.NORMAL, true, true, resultTimeoutMs, listener));
+    }
+
+    /**
+     * Whether a COMMAND_IDENTIFIER was assigned by this queue, i.e. its result settles a queued command
+     */
+    static boolean isQueueIdentifier(String identifier) {
+        return identifier != null && identifier.startsWith(IDENTIFIER_PREFIX);
+    }
+
+    private void enqueue(Command command) {
+        List<Command> settled;
+        synchronized (this) {
+            if (command.priority == Priority.HIGH) {
+                highLane.add(command);
+            } else {
+                normalLane.add(command);
+            }
+            settled = pumpLocked();
+        }
+        notifySettled(settled);
+    }
+
+    /**
+     * Offer a RESULT_ACTION bundle to the queue. Returns true if it acknowledged a queued command.
+     */
+    boolean onResult(Bundle result) {
+        String identifier = result.getString(EXTRA_COMMAND_IDENTIFIER);
+        if (identifier == null) {
+            return false;
+        }
+
+        Command command;
+        List<Command> settled;
+        synchronized (this) {
+            command = inFlight.remove(identifier);
+            if (command == null) {
+                command = awaitingResult.remove(identifier);
+            }
+            if (command == null) {
+                return false;
+            }
+            handler.removeCallbacks(command.timeout);
+            acknowledgedCount++;
+            if ("FAILURE".equals(result.getString("RESULT"))) {
+                failedCount++;
+                Log.w(TAG, "DataWedge reported FAILURE for " + result.getString("COMMAND") + " (" + identifier + ")");
+            }
+            settled = pumpLocked();
+        }
+
+        if (command.listener != null) {
+            command.listener.onComplete(result);
+        }
+        notifySettled(settled);
+        return true;
+    }
+
+    private void onAckTimeout(String identifier) {
+        Command command;
+        List<Command> settled;
+        boolean keepWaiting;
+        synchronized (this) {
+            command = inFlight.remove(identifier);
+            if (command == null) {
+                return;
+            }
+            timedOutCount++;
+            // Free the slot, but keep listening if the caller asked for a longer result wait
+            long remainingMs = command.resultTimeoutMs - ackTimeoutMs;
+            keepWaiting = remainingMs > 0;
+            if (keepWaiting) {
+                command.timeout = () -> onResultTimeout(identifier);
+                awaitingResult.put(identifier, command);
+                handler.postDelayed(command.timeout, remainingMs);
+            }
+            settled = pumpLocked();
+        }
+
+        Log.w(TAG, "No acknowledgement for command " + identifier + " within " + ackTimeoutMs + " ms");
+        if (!keepWaiting && command.listener != null) {
+            command.listener.onComplete(null);
+        }
+        notifySettled(settled);
+    }
+
+    private void onResultTimeout(String identifier) {
+        Command command;
+        synchronized (this) {
+            command = awaitingResult.remove(identifier);
+        }
+        if (command == null) {
+            return;
+        }
+        Log.w(TAG, "No result for command " + identifier + " within " + command.resultTimeoutMs + " ms");
+        if (command.listener != null) {
+            command.listener.onComplete(null);
+        }
+    }
+
+    /**
+     * Send everything that may go out now. Sending happens under the lock so that
+     * concurrent callers can never reorder broadcasts. Returns commands that settled
+     * on dispatch, whose listeners must be called outside the lock.
+     */
+    private List<Command> pumpLocked() {
+        List<Command> settled = new ArrayList<>();
+
+        while (!highLane.isEmpty()) {
+            dispatchLocked(highLane.poll(), settled);
+        }
+
+        while (!normalLane.isEmpty()) {
+            Command next = normalLane.peek();
+            if (next.barrier && !inFlight.isEmpty()) {
+                break;
+            }
+            if (next.awaitAck && inFlight.size() >= maxInFlight) {
+                break;
+            }
+            dispatchLocked(normalLane.poll(), settled);
+        }
+
+        return settled;
+    }
+
+    private void dispatchLocked(Command command, List<Command> settled) {
+        if (command.awaitAck) {
+            String identifier = IDENTIFIER_PREFIX + NEXT_IDENTIFIER.getAndIncrement();
+            command.identifier = identifier;
+            if (!command.intent.hasExtra(EXTRA_SEND_RESULT)) {
+                command.intent.putExtra(EXTRA_SEND_RESULT, "true");
+            }
+            command.intent.putExtra(EXTRA_COMMAND_IDENTIFIER, identifier);
+            command.timeout = () -> onAckTimeout(identifier);
+            inFlight.put(identifier, command);
+            handler.postDelayed(command.timeout, ackTimeoutMs);
+        } else {
+            settled.add(command);
+        }
+
+        totalQueueWaitMs += SystemClock.elapsedRealtime() - command.enqueuedAt;
+        dispatchedCount++;
+
+        send(command);
+    }
+
+    private void send(Command command) {
+        try {
+            sender.send(command.intent);
+        } catch (Exception e) {
+            Log.e(TAG, "Error sending DataWedge command", e);
+        }
+        if (command.onDispatched != null) {
+            command.onDispatched.run();
+        }
+    }
+
+    private void notifySettled(List<Command> settled) {
+        for (Command command : settled) {
+            if (command.listener != null) {
+                command.listener.onComplete(null);
+            }
+        }
+    }
+
+    synchronized JSObject getStats() {
+        JSObject stats = new JSObject();
+        stats.put("maxInFlight", maxInFlight);
+        stats.put("ackTimeoutMs", ackTimeoutMs);
+        stats.put("queuedHigh", highLane.size());
+        stats.put("queuedNormal", normalLane.size());
+        stats.put("inFlight", inFlight.size());
+        stats.put("awaitingResult", awaitingResult.size());
+        stats.put("dispatched", dispatchedCount);
+        stats.put("acknowledged", acknowledgedCount);
+        stats.put("failed", failedCount);
+        stats.put("timedOut", timedOutCount);
+        stats.put("averageQueueWaitMs", dispatchedCount > 0 ? (double) totalQueueWaitMs / dispatchedCount : 0);
+        return stats;
+    }
+}
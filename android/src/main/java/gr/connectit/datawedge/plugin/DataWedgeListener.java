@@ -0,0 +1,33 @@
+package gr.connectit.datawedge.plugin;
+
+import android.os.Bundle;
+
+/**
+ * Native, in-process consumer of DataWedge traffic. Register with
+ * {@link DataWedgeNative#addListener(DataWedgeListener)}; callbacks arrive on the main thread
+ * with typed objects, without JSON encoding or a bridge crossing.
+ *
+ * Override only the callbacks you need.
+ */
+public interface DataWedgeListener {
+
+    /**
+     * A scan intent was received on the plugin's scan action, or on a named scan channel that a
+     * plugin instance has registered (see {@link DataWedgeScan#getAction()})
+     */
+    default void onScan(DataWedgeScan scan) {
+    }
+
+    /**
+     * A DataWedge notification was received. DataWedge only sends notifications that some
+     * party has registered for (e.g. through registerForNotification in JS).
+     */
+    default void onNotification(DataWedgeNotification notification) {
+    }
+
+    /**
+     * A RESULT_ACTION broadcast was received; result holds its extras
+     */
+    default void onResult(Bundle result) {
+    }
+}
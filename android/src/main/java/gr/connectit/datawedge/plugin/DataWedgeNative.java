@@ -0,0 +1,306 @@
+package gr.connectit.datawedge.plugin;
+
+import android.content.Context;
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.RequiresApi;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Public entry point for other native code in the app (e.g. printing or telemetry plugins).
+ *
+ * Listeners receive typed scans, notifications and results straight from the shared
+ * {@link DataWedgeBroadcastHub}, with no JSON encoding and no trip through the WebView.
+ * Queries and commands go through the same process-wide command queue as the plugin's own,
+ * so they are ordered with them and count against the same in-flight limit. They return a
+ * CompletableFuture, which needs API 24; listeners work on every supported API level.
+ *
+ * <pre>
+ * DataWedgeNative dw = DataWedgeNative.getInstance(context);
+ * dw.addListener(new DataWedgeListener() {
+ *     public void onScan(DataWedgeScan scan) { print(scan.getData()); }
+ * });
+ * dw.query("GET_ACTIVE_PROFILE", 5000).thenAccept(result -&gt; ...);
+ * </pre>
+ */
+public final class DataWedgeNative {
+    private static final String API_PREFIX = "com.symbol.datawedge.api.";
+    private static final String EXTRA_COMMAND_IDENTIFIER = DataWedgeCommandQueue.EXTRA_COMMAND_IDENTIFIER;
+    // Query identifiers; plugin instances leave results carrying one to their native caller. The random
+    // part keeps another app's or an earlier process's "native-" identifiers from matching ours.
+    private static final String IDENTIFIER_PREFIX = "native-" + Integer.toHexString(new Random().nextInt()) + "-";
+
+    private static DataWedgeNative instance;
+
+    /**
+     * Completion of one outstanding query or command; result is null on error
+     */
+    private interface Completion {
+        void complete(Bundle result, Exception error);
+    }
+
+    private static final class Pending {
+        final String resultKey;
+        final String commandId;
+        final String profileName;
+        final Completion completion;
+
+        Pending(String resultKey, String commandId, String profileName, Completion completion) {
+            this.resultKey = resultKey;
+            this.commandId = commandId;
+            this.profileName = profileName;
+            this.completion = completion;
+        }
+
+        /**
+         * Match on the echoed COMMAND_IDENTIFIER. DataWedge versions that do not echo it on query
+         * results are matched on the result extra, and for profile queries also on PROFILE_NAME.
+         */
+        boolean matches(Bundle extras) {
+            String identifier = extras.getString(EXTRA_COMMAND_IDENTIFIER);
+            if (identifier != null) {
+                return identifier.equals(commandId);
+            }
+            if (!extras.containsKey(resultKey)) {
+                return false;
+            }
+            if (profileName == null) {
+                return true;
+            }
+            Bundle result = extras.getBundle(resultKey);
+            return result != null && profileName.equals(result.getString("PROFILE_NAME"));
+        }
+    }
+
+    private final DataWedgeBroadcastHub hub;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final CopyOnWriteArrayList<DataWedgeListener> listeners = new CopyOnWriteArrayList<>();
+    private final List<Pending> pending = new ArrayList<>();
+    private final AtomicInteger nextCommandId = new AtomicInteger();
+
+    private final DataWedgeBroadcastHub.Listener scanListener = broadcast -> {
+        DataWedgeScan scan = broadcast.getScan();
+        // Load generator runs measure the plugin's pipeline; native consumers only see real scans
+        if (scan.isSynthetic()) {
+            return;
+        }
+        for (DataWedgeListener listener : listeners) {
+            listener.onScan(scan);
+        }
+    };
+
+    private final DataWedgeBroadcastHub.Listener notificationListener = broadcast -> {
+        for (DataWedgeNotification notification : broadcast.getNotifications()) {
+            for (DataWedgeListener listener : listeners) {
+                listener.onNotification(notification);
+            }
+        }
+    };
+
+    private final DataWedgeBroadcastHub.Listener resultListener = this::onResult;
+
+    private DataWedgeNative(Context context) {
+        this.hub = DataWedgeBroadcastHub.getInstance(context);
+    }
+
+    /**
+     * Whether a RESULT_ACTION bundle answers a query sent from here
+     */
+    static boolean isNativeResult(Bundle extras) {
+        String identifier = extras.getString(EXTRA_COMMAND_IDENTIFIER);
+        return identifier != null && identifier.startsWith(IDENTIFIER_PREFIX);
+    }
+
+    public static synchronized DataWedgeNative getInstance(Context context) {
+        if (instance == null) {
+            instance = new DataWedgeNative(context);
+        }
+        return instance;
+    }
+
+    /**
+     * Callbacks are delivered on the main thread
+     */
+    public synchronized void addListener(DataWedgeListener listener) {
+        listeners.addIfAbsent(listener);
+        updateSubscriptions();
+    }
+
+    public synchronized void removeListener(DataWedgeListener listener) {
+        listeners.remove(listener);
+        updateSubscriptions();
+    }
+
+    /**
+     * Send a DataWedge query such as GET_ACTIVE_PROFILE or GET_VERSION_INFO (with or without the
+     * com.symbol.datawedge.api. prefix) and complete with the RESULT_ACTION extras that answer it.
+     * Fails with a TimeoutException if no answer arrives within timeoutMs.
+     */
+    @RequiresApi(24)
+    public CompletableFuture<Bundle> query(String apiExtra, long timeoutMs) {
+        String name = stripPrefix(apiExtra);
+        Intent intent = hub.createApiIntent();
+        intent.putExtra(API_PREFIX + name, "");
+        return sendQuery(intent, API_PREFIX + resultName(name), null, timeoutMs);
+    }
+
+    /**
+     * Query that takes a bundle argument, e.g. GET_CONFIG
+     */
+    @RequiresApi(24)
+    public CompletableFuture<Bundle> query(String apiExtra, Bundle value, long timeoutMs) {
+        String name = stripPrefix(apiExtra);
+        Intent intent = hub.createApiIntent();
+        intent.putExtra(API_PREFIX + name, value);
+        return sendQuery(intent, API_PREFIX + resultName(name), value != null ? value.getString("PROFILE_NAME") : null,
+            timeoutMs);
+    }
+
+    /**
+     * Send a DataWedge command (e.g. SWITCH_TO_PROFILE) with SEND_RESULT and complete with its
+     * result extras. Check RESULT in the bundle for SUCCESS or FAILURE.
+     */
+    @RequiresApi(24)
+    public CompletableFuture<Bundle> sendCommand(String apiExtra, String value, long timeoutMs) {
+        Intent intent = hub.createApiIntent();
+        intent.putExtra(API_PREFIX + stripPrefix(apiExtra), value);
+        return sendWithResult(intent, timeoutMs);
+    }
+
+    /**
+     * Command that takes a bundle argument, e.g. SET_CONFIG
+     */
+    @RequiresApi(24)
+    public CompletableFuture<Bundle> sendCommand(String apiExtra, Bundle value, long timeoutMs) {
+        Intent intent = hub.createApiIntent();
+        intent.putExtra(API_PREFIX + stripPrefix(apiExtra), value);
+        return sendWithResult(intent, timeoutMs);
+    }
+
+    /**
+     * The queue assigns the COMMAND_IDENTIFIER and settles the command with its result
+     */
+    @RequiresApi(24)
+    private CompletableFuture<Bundle> sendWithResult(Intent intent, long timeoutMs) {
+        CompletableFuture<Bundle> future = new CompletableFuture<>();
+        intent.putExtra(DataWedgeCommandQueue.EXTRA_SEND_RESULT, "COMPLETE_RESULT");
+        hub.getCommandQueue().enqueueCommand(intent, DataWedgeCommandQueue.Priority.NORMAL, timeoutMs, result -> {
+            if (result != null) {
+                future.complete(result);
+            } else {
+                future.completeExceptionally(new TimeoutException("No DataWedge result within " + timeoutMs + "ms"));
+            }
+        });
+        return future;
+    }
+
+    @RequiresApi(24)
+    private CompletableFuture<Bundle> sendQuery(Intent intent, String resultKey, String profileName, long timeoutMs) {
+        String commandId = IDENTIFIER_PREFIX + nextCommandId.incrementAndGet();
+        intent.putExtra(EXTRA_COMMAND_IDENTIFIER, commandId);
+        CompletableFuture<Bundle> future = new CompletableFuture<>();
+        Pending entry = new Pending(resultKey, commandId, profileName, (result, error) -> {
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        });
+        synchronized (this) {
+            pending.add(entry);
+            updateSubscriptions();
+        }
+
+        mainHandler.postDelayed(() -> {
+            if (removePending(entry)) {
+                entry.completion.complete(null, new TimeoutException("No DataWedge result within " + timeoutMs + "ms"));
+            }
+        }, timeoutMs);
+
+        hub.getCommandQueue().enqueueQuery(intent);
+        return future;
+    }
+
+    private void onResult(DataWedgeBroadcastHub.Broadcast broadcast) {
+        Bundle extras = broadcast.extras;
+        if (extras == null) {
+            return;
+        }
+        for (DataWedgeListener listener : listeners) {
+            listener.onResult(extras);
+        }
+
+        List<Pending> matched = new ArrayList<>();
+        synchronized (this) {
+            Iterator<Pending> iterator = pending.iterator();
+            while (iterator.hasNext()) {
+                Pending entry = iterator.next();
+                if (entry.matches(extras)) {
+                    iterator.remove();
+                    matched.add(entry);
+                }
+            }
+            if (!matched.isEmpty()) {
+                updateSubscriptions();
+            }
+        }
+        // Complete outside the lock; callers may chain further queries
+        for (Pending entry : matched) {
+            entry.completion.complete(extras, null);
+        }
+    }
+
+    private synchronized boolean removePending(Pending entry) {
+        boolean removed = pending.remove(entry);
+        if (removed) {
+            updateSubscriptions();
+        }
+        return removed;
+    }
+
+    /**
+     * Hold hub subscriptions only while something needs them
+     */
+    private void updateSubscriptions() {
+        if (listeners.isEmpty()) {
+            hub.unsubscribe(DataWedgeBroadcastHub.Channel.SCAN, scanListener);
+            hub.unsubscribeChannelScans(scanListener);
+            hub.unsubscribe(DataWedgeBroadcastHub.Channel.NOTIFICATION, notificationListener);
+        } else {
+            hub.subscribe(DataWedgeBroadcastHub.Channel.SCAN, scanListener);
+            // Scans on named scan channels too, for as long as a plugin instance has them registered
+            hub.subscribeChannelScans(scanListener);
+            hub.subscribe(DataWedgeBroadcastHub.Channel.NOTIFICATION, notificationListener);
+        }
+        if (listeners.isEmpty() && pending.isEmpty()) {
+            hub.unsubscribe(DataWedgeBroadcastHub.Channel.RESULT, resultListener);
+        } else {
+            hub.subscribe(DataWedgeBroadcastHub.Channel.RESULT, resultListener);
+        }
+    }
+
+    private static String stripPrefix(String apiExtra) {
+        return apiExtra.startsWith(API_PREFIX) ? apiExtra.substring(API_PREFIX.length()) : apiExtra;
+    }
+
+    /**
+     * Result extra answering a query; DataWedge drops the GET_ prefix for the scanner status
+     */
+    private static String resultName(String queryName) {
+        if ("GET_SCANNER_STATUS".equals(queryName)) {
+            return "RESULT_SCANNER_STATUS";
+        }
+        return "RESULT_" + queryName;
+    }
+}
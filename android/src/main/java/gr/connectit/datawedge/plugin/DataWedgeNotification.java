@@ -0,0 +1,155 @@
+package gr.connectit.datawedge.plugin;
+
+import android.os.Bundle;
+
+import com.getcapacitor.JSObject;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A NOTIFICATION_ACTION payload decoded once into typed fields.
+ *
+ * DataWedge reports notifications either as a com.symbol.datawedge.api.NOTIFICATION bundle
+ * or as top-level extras (SCANNER_STATUS, PROFILE_SWITCH, ...), and sometimes both for the
+ * same event. decode() returns one notification per type so nothing is emitted twice.
+ *
+ * Public so native consumers can receive it through {@link DataWedgeListener}.
+ */
+public final class DataWedgeNotification {
+    static final String EXTRA_NOTIFICATION = "com.symbol.datawedge.api.NOTIFICATION";
+
+    private static final String[] TOP_LEVEL_TYPES = {
+        "SCANNER_STATUS", "PROFILE_SWITCH", "CONFIGURATION_UPDATE", "WORKFLOW_STATUS"
+    };
+
+    final String type;
+    final String status;
+    final String profileName;
+    final String previousProfile;
+    final String workflowName;
+    final long receivedAt;
+
+    // Raw keys of the NOTIFICATION bundle, forwarded as-is for backwards compatibility
+    private final Map<String, Object> raw;
+    private String signature;
+
+    private DataWedgeNotification(String type, String status, String profileName, String previousProfile,
+                                  String workflowName, Map<String, Object> raw) {
+        this.type = type;
+        this.status = status;
+        this.profileName = profileName;
+        this.previousProfile = previousProfile;
+        this.workflowName = workflowName;
+        this.raw = raw;
+        this.receivedAt = System.currentTimeMillis();
+    }
+
+    /**
+     * Decode all notifications carried by a NOTIFICATION_ACTION intent's extras
+     */
+    static List<DataWedgeNotification> decode(Bundle extras) {
+        List<DataWedgeNotification> notifications = new ArrayList<>();
+
+        Bundle notificationBundle = extras.getBundle(EXTRA_NOTIFICATION);
+        if (notificationBundle != null) {
+            notifications.add(fromNotificationBundle(notificationBundle));
+        }
+
+        for (String type : TOP_LEVEL_TYPES) {
+            if (!extras.containsKey(type) || containsType(notifications, type)) {
+                continue;
+            }
+            String status = "SCANNER_STATUS".equals(type) ? extras.getString("SCANNER_STATUS") : extras.getString("STATUS");
+            notifications.add(new DataWedgeNotification(type, status, extras.getString("PROFILE_NAME"),
+                extras.getString("PREVIOUS_PROFILE"), extras.getString("WORKFLOW_NAME"), null));
+        }
+        return notifications;
+    }
+
+    private static DataWedgeNotification fromNotificationBundle(Bundle bundle) {
+        Map<String, Object> raw = new LinkedHashMap<>();
+        for (String key : bundle.keySet()) {
+            Object value = bundle.get(key);
+            if (value instanceof String || value instanceof Boolean || value instanceof Integer) {
+                raw.put(key, value);
+            } else if (value != null) {
+                raw.put(key, value.toString());
+            }
+        }
+        return new DataWedgeNotification(bundle.getString("NOTIFICATION_TYPE"), bundle.getString("STATUS"),
+            bundle.getString("PROFILE_NAME"), bundle.getString("PREVIOUS_PROFILE"), bundle.getString("WORKFLOW_NAME"), raw);
+    }
+
+    private static boolean containsType(List<DataWedgeNotification> notifications, String type) {
+        for (DataWedgeNotification notification : notifications) {
+            if (type.equals(notification.type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * SCANNER_STATUS, PROFILE_SWITCH, CONFIGURATION_UPDATE or WORKFLOW_STATUS
+     */
+    public String getType() {
+        return type;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getProfileName() {
+        return profileName;
+    }
+
+    public String getPreviousProfile() {
+        return previousProfile;
+    }
+
+    public String getWorkflowName() {
+        return workflowName;
+    }
+
+    public long getReceivedAt() {
+        return receivedAt;
+    }
+
+    /**
+     * Identity of the payload, ignoring arrival time. Equal signatures are exact duplicates.
+     */
+    String getSignature() {
+        if (signature == null) {
+            signature = type + "|" + status + "|" + profileName + "|" + previousProfile + "|" + workflowName
+                + "|" + (raw != null ? raw.toString() : "");
+        }
+        return signature;
+    }
+
+    JSObject toJSObject() {
+        JSObject notification = new JSObject();
+        notification.put("notificationType", type);
+        if (raw != null) {
+            for (Map.Entry<String, Object> entry : raw.entrySet()) {
+                notification.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (status != null) {
+            notification.put("status", status);
+        }
+        if (profileName != null) {
+            notification.put("profileName", profileName);
+        }
+        if (previousProfile != null) {
+            notification.put("previousProfile", previousProfile);
+        }
+        if (workflowName != null) {
+            notification.put("workflowName", workflowName);
+        }
+        return notification;
+    }
+}
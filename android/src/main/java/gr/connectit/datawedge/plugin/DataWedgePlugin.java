@@ -1,12 +1,13 @@
 package gr.connectit.datawedge.plugin;
 
-import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
-import android.content.IntentFilter;
 import android.content.pm.PackageManager;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.os.Parcelable;
+import android.os.SystemClock;
 import android.util.Log;
 
 import com.getcapacitor.JSObject;
@@ -14,35 +15,149 @@ import com.getcapacitor.Plugin;
 import com.getcapacitor.PluginCall;
 import com.getcapacitor.PluginMethod;
 import com.getcapacitor.annotation.CapacitorPlugin;
+import gr.connectit.datawedge.plugin.DataWedgeCommandQueue.Priority;
 import gr.connectit.datawedge.plugin.DataWedgeVersion.DataWedgeFeature;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 
 @CapacitorPlugin(name = "DataWedge")
 public class DataWedgePlugin extends Plugin {
 
     private static final String TAG = "DataWedgePlugin";
-    private static final String DATAWEDGE_PACKAGE = "com.symbol.datawedge";
-    private static final String[] DATAWEDGE_PACKAGES = {
-        "com.symbol.datawedge",
-        "com.motorolasolutions.datawedge",
-        "com.zebra.datawedge"
+    private static final String DATAWEDGE_PACKAGE = DataWedgeBroadcastHub.DATAWEDGE_PACKAGE;
+    private static final String[] DATAWEDGE_PACKAGES = DataWedgeBroadcastHub.DATAWEDGE_PACKAGES;
+    private static final String DATAWEDGE_API_ACTION = DataWedgeBroadcastHub.API_ACTION;
+    private static final long DATAWEDGE_RESTART_DELAY_MS = 1000;
+    private static final long DEFAULT_AWAIT_RESULT_TIMEOUT_MS = 10000;
+    private static final String SCAN_INTENT_ACTION = DataWedgeBroadcastHub.SCAN_INTENT_ACTION;
+    private static final String[] CONFIG_PLUGIN_NAMES = {
+        "BARCODE", "MSR", "RFID", "SERIAL", "VOICE", "INTENT", "KEYSTROKE",
+        "IP", "BDF", "ADF", "TOKEN", "DCP", "EKB"
     };
-    private static final String SCAN_INTENT_ACTION = "gr.connectit.datawedge.SCAN";
     
-    private BroadcastReceiver scanReceiver;
-    private BroadcastReceiver versionReceiver;
-    private BroadcastReceiver resultReceiver;
-    private BroadcastReceiver notificationReceiver;
+    // Receivers are owned by the process-wide hub; these are this instance's subscriptions
+    private DataWedgeBroadcastHub broadcastHub;
+    private DataWedgeBroadcastHub.Listener scanListener;
+    private DataWedgeBroadcastHub.Listener versionListener;
+    private DataWedgeBroadcastHub.Listener resultListener;
+    private DataWedgeBroadcastHub.Listener notificationListener;
+    private DataWedgeBroadcastHub.Listener packageListener;
     private boolean isListenerRegistered = false;
+    // Launch intent of the activity, held until a scan listener can receive it
+    private Intent launchScanIntent;
     private boolean isNotificationListenerRegistered = false;
     private DataWedgeVersion detectedVersion = null;
     private boolean versionDetectionAttempted = false;
     
+    // Every com.symbol.datawedge.api.ACTION intent goes out through this queue. It is the hub's
+    // process-wide queue, shared with other WebViews and DataWedgeNative.
+    private DataWedgeCommandQueue commandQueue;
+    
+    // Collapses bursts of SWITCH_TO_PROFILE / SWITCH_SCANNER_PARAMS into their final state
+    private final DataWedgeCommandCoalescer commandCoalescer = new DataWedgeCommandCoalescer((intent, call) -> {
+        if (call.getBoolean("awaitResult", false)) {
+            commandQueue.enqueueCommand(intent, Priority.NORMAL, getAwaitResultTimeout(call),
+                result -> resolveCommandResult(call, result));
+            return;
+        }
+        sendCommand(intent);
+        JSObject result = new JSObject();
+        result.put("coalesced", false);
+        call.resolve(result);
+    });
+    
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    
+    // Background thread for file output, created on first use
+    private ScheduledExecutorService ioExecutor;
+    
+    // Scanner state and active profile as last reported by notifications or queries
+    private final ScannerStateTracker scannerState = new ScannerStateTracker();
+    
+    // Notification registrations held by this instance. What DataWedge is told follows the
+    // process-wide counts in the hub, since registrations are per application package.
+    private final NotificationSubscriptions notificationSubscriptions = new NotificationSubscriptions();
+    
+    // Latest-wins throttling and duplicate dropping for notificationReceived
+    private final NotificationCoalescer notificationCoalescer = new NotificationCoalescer(
+        notification -> notifyListeners("notificationReceived", notification.toJSObject()));
+    
+    // Provisioned per-screen profile sets, by set name
+    private final Map<String, ProfileSet> profileSets = new HashMap<>();
+    
+    // Attach parsed GS1 AIs to scan events
+    private volatile boolean gs1ParsingEnabled = false;
+    
+    // Active scan file sink and whether scans are still forwarded to JS while it runs
+    private volatile ScanFileSink scanFileSink;
+    private volatile boolean scanFileEmitEvents = true;
+    
+    // Memory-mapped scan enrichment index; replaced wholesale by loadLookupIndex
+    private volatile LookupIndex lookupIndex;
+    
+    // Active RFID streaming session, null when RFID reads go through scanReceived
+    private volatile RfidTagStream rfidStream;
+    
+    // Broadcast trace being recorded, and the replay in progress (main thread only)
+    private volatile BroadcastRecorder broadcastRecorder;
+    private BroadcastReplayer broadcastReplayer;
+    
+    // Running synthetic scan load, if any
+    private volatile ScanLoadGenerator scanLoad;
+    
+    // Per-stage scan latency, off until configureLatencyTracing enables it
+    private final ScanLatencyTracer latencyTracer = new ScanLatencyTracer();
+    
+    // Named scan channels by name; scans on their actions go to their own events
+    private final Map<String, ScanChannel> scanChannels = new ConcurrentHashMap<>();
+    
+    // How scans reach the app: INTENT plugin delivery last configured, and per-transport latency
+    private volatile String scanDeliveryMode = ScanDeliveryStats.BROADCAST;
+    private final ScanDeliveryStats deliveryStats = new ScanDeliveryStats();
+    
+    // Scan rate, symbology mix and gap analytics, always on
+    private final ScanSessionStats scanStats = new ScanSessionStats();
+    
+    /**
+     * Receives RESULT_ACTION extras that contain a given result key.
+     * Returns true once satisfied so it can be removed.
+     */
+    private interface ResultWaiter {
+        boolean onResult(Bundle bundle);
+        
+        /**
+         * Whether this reply answers a query the waiter sent itself, so it must not also reach the
+         * pending-call handlers. Checked before onResult.
+         */
+        default boolean consumes(Bundle bundle) {
+            return false;
+        }
+    }
+    
+    private interface ResultConverter {
+        Object convert(Bundle bundle) throws Exception;
+    }
+    
+    // Additional consumers of query results, for requests that run concurrently with the pending calls below
+    private final Map<String, List<ResultWaiter>> resultWaiters = new HashMap<>();
+    
     // Store pending calls for async responses
     private PluginCall pendingEnumerateCall;
     private PluginCall pendingProfileCall;
@@ -55,6 +170,14 @@ public class DataWedgePlugin extends Plugin {
     private PluginCall pendingTriggersCall;
     private PluginCall pendingSoftScanCall;
     private PluginCall pendingSoftRfidCall;
+    
+    // scanOnce state, only touched on the main thread
+    private PluginCall pendingScanOnceCall;
+    // Set once START_SCANNING has actually been sent; scans before that are not ours
+    private boolean scanOnceArmed;
+    private long scanOnceTriggeredAt;
+    private long scanOnceTriggeredWallMs;
+    private Runnable scanOnceTimeout;
 
     @Override
     public void load() {
@@ -62,8 +185,19 @@ public class DataWedgePlugin extends Plugin {
         Log.d(TAG, "DataWedge plugin loaded");
         
         // Register result receiver
+        broadcastHub = DataWedgeBroadcastHub.getInstance(getContext());
+        commandQueue = broadcastHub.getCommandQueue();
         registerResultReceiver();
         
+        // Activity delivery mode: a scan that cold-starts the activity is its launch intent and never
+        // reaches handleOnNewIntent. Keep it until a scan listener or channel can take it.
+        Intent launchIntent = getActivity() != null ? getActivity().getIntent() : null;
+        if (launchIntent != null && launchIntent.getAction() != null
+                && !Intent.ACTION_MAIN.equals(launchIntent.getAction())
+                && (launchIntent.getFlags() & Intent.FLAG_ACTIVITY_LAUNCHED_FROM_HISTORY) == 0) {
+            launchScanIntent = launchIntent;
+        }
+        
         // Detect DataWedge version on load
         if (isDataWedgeInstalled()) {
             detectDataWedgeVersion();
@@ -99,10 +233,10 @@ public class DataWedgePlugin extends Plugin {
         try {
             Intent dwIntent = new Intent();
             dwIntent.setAction(action);
-            dwIntent.setPackage("com.symbol.datawedge");
+            dwIntent.setPackage(getDataWedgePackage());
 
             Log.d(TAG, "📤 Created intent with action: " + action);
-            Log.d(TAG, "📦 Target package: com.symbol.datawedge");
+            Log.d(TAG, "📦 Target package: " + dwIntent.getPackage());
 
             // Convert JSObject extras to Bundle
             if (extrasObject != null) {
@@ -119,9 +253,13 @@ public class DataWedgePlugin extends Plugin {
                 Log.d(TAG, "ℹ️ No extras to add");
             }
 
-            // Send the intent
+            // Send the intent; DataWedge API commands share the outbound command queue
             Log.d(TAG, "🚀 Sending broadcast intent...");
-            getContext().sendBroadcast(dwIntent);
+            if (DATAWEDGE_API_ACTION.equals(action)) {
+                sendQuery(dwIntent);
+            } else {
+                getContext().sendBroadcast(dwIntent);
+            }
             Log.d(TAG, "✅ DataWedge intent sent successfully: " + action);
             call.resolve();
 
@@ -151,11 +289,10 @@ public class DataWedgePlugin extends Plugin {
         
         // Check for DataWedge API receivers using official action
         try {
-            Intent dwIntent = new Intent();
-            dwIntent.setAction("com.symbol.datawedge.api.ACTION");
-            dwIntent.setPackage("com.symbol.datawedge");
+            Intent dwIntent = createDataWedgeIntent();
             int receivers = pm.queryBroadcastReceivers(dwIntent, 0).size();
             result.put("officialApiReceiversFound", receivers);
+            result.put("resolvedPackage", resolveDataWedgePackage());
         } catch (Exception e) {
             result.put("officialApiReceiversError", e.getMessage());
         }
@@ -170,6 +307,9 @@ public class DataWedgePlugin extends Plugin {
             result.put("versionApiReceiversError", e.getMessage());
         }
         
+        // Receivers shared by every plugin instance in the process
+        result.put("broadcastHub", broadcastHub.getStats());
+        
         result.put("isAvailable", isDataWedgeInstalled());
         call.resolve(result);
     }
@@ -186,13 +326,11 @@ public class DataWedgePlugin extends Plugin {
         
         try {
             // Use the official DataWedge API to get version info (2024 approach)
-            Intent i = new Intent();
-            i.setAction("com.symbol.datawedge.api.ACTION");
-            i.setPackage("com.symbol.datawedge");
+            Intent i = createDataWedgeIntent();
             i.putExtra("com.symbol.datawedge.api.GET_VERSION_INFO", "");
             
             // Send the intent
-            getContext().sendBroadcast(i);
+            sendQuery(i);
             
             // For now, just return that query was sent
             // In a real implementation, you'd set up a receiver for the response
@@ -225,25 +363,27 @@ public class DataWedgePlugin extends Plugin {
             registerScanBroadcastReceiver();
             isListenerRegistered = true;
         }
+        deliverLaunchScan();
         call.resolve();
     }
+    
+    /**
+     * Hand the activity's launch scan to the hub once something subscribes to it
+     */
+    private void deliverLaunchScan() {
+        Intent intent = launchScanIntent;
+        if (intent != null && broadcastHub.deliverActivityIntent(intent)) {
+            launchScanIntent = null;
+        }
+    }
 
     private boolean isDataWedgeInstalled() {
         PackageManager pm = getContext().getPackageManager();
         
         // First, try the official DataWedge API approach (2024 method)
-        try {
-            Intent dwIntent = new Intent();
-            dwIntent.setAction("com.symbol.datawedge.api.ACTION");
-            dwIntent.setPackage("com.symbol.datawedge");
-            
-            // Check if DataWedge can receive this intent
-            if (pm.queryBroadcastReceivers(dwIntent, 0).size() > 0) {
-                Log.d(TAG, "DataWedge API receivers found via official intent query");
-                return true;
-            }
-        } catch (Exception e) {
-            Log.d(TAG, "Error querying official DataWedge API: " + e.getMessage());
+        if (resolveDataWedgePackage() != null) {
+            Log.d(TAG, "DataWedge API receivers found via official intent query");
+            return true;
         }
         
         // Fallback: Check package manager for each possible DataWedge package name
@@ -253,8 +393,7 @@ public class DataWedgePlugin extends Plugin {
                 Log.d(TAG, "DataWedge found with package name: " + packageName);
                 
                 // Double-check that this package can handle DataWedge APIs
-                Intent testIntent = new Intent();
-                testIntent.setAction("com.symbol.datawedge.api.ACTION");
+                Intent testIntent = createDataWedgeIntent();
                 testIntent.setPackage(packageName);
                 
                 if (pm.queryBroadcastReceivers(testIntent, 0).size() > 0) {
@@ -286,51 +425,225 @@ public class DataWedgePlugin extends Plugin {
     }
 
     private void registerScanBroadcastReceiver() {
-        if (scanReceiver != null) {
+        if (scanListener != null) {
             return; // Already registered
         }
 
-        scanReceiver = new BroadcastReceiver() {
+        scanListener = new DataWedgeBroadcastHub.Listener() {
             @Override
-            public void onReceive(Context context, Intent intent) {
+            public void onBroadcast(DataWedgeBroadcastHub.Broadcast broadcast) {
+                Intent intent = broadcast.intent;
                 String action = intent.getAction();
                 Log.d(TAG, "Received broadcast: " + action);
 
                 if (SCAN_INTENT_ACTION.equals(action)) {
-                    handleScanIntent(intent);
+                    if (!ScanLoadGenerator.isSynthetic(intent)) {
+                        deliveryStats.record(broadcast.transport, intent, broadcast.receivedWallMs);
+                    }
+                    recordBroadcast("scan", intent);
+                    handleScanIntent(broadcast, null);
                 }
             }
         };
 
-        IntentFilter filter = new IntentFilter();
-        filter.addAction(SCAN_INTENT_ACTION);
-        filter.addCategory(Intent.CATEGORY_DEFAULT);
-
-        getContext().registerReceiver(scanReceiver, filter);
-        Log.d(TAG, "Scan broadcast receiver registered");
+        // One receiver per process, shared with every other plugin instance
+        broadcastHub.subscribe(DataWedgeBroadcastHub.Channel.SCAN, scanListener);
+        Log.d(TAG, "Scan listener subscribed");
     }
 
-    private void handleScanIntent(Intent intent) {
+    /**
+     * Parsing that does not depend on this instance's configuration (scan fields, GS1, multi-barcode
+     * decoding) is done once on the shared broadcast; only the event itself is built per instance.
+     * Whether anyone listens is decided first: scans nobody will receive are counted, written to the
+     * scan file and handed to a pending scanOnce from the raw strings, without building an event.
+     *
+     * @param channel named channel the scan arrived on, or null for the default scanReceived stream
+     */
+    private void handleScanIntent(DataWedgeBroadcastHub.Broadcast broadcast, ScanChannel channel) {
+        Intent intent = broadcast.intent;
+        // Synthetic intents from the load generator are timed on arrival and once handled, and
+        // kept out of scan analytics, scan files and scanOnce
+        boolean synthetic = ScanLoadGenerator.isSynthetic(intent);
+        ScanLoadGenerator load = synthetic ? scanLoad : null;
+        if (load != null) {
+            load.onReceived(intent, broadcast.receivedNanos);
+        }
+        
         try {
-            String scanData = intent.getStringExtra("com.symbol.datawedge.data_string");
-            String labelType = intent.getStringExtra("com.symbol.datawedge.label_type");
+            // In RFID streaming mode tag reads are aggregated and emitted in batches instead. Reads on
+            // a named channel stay on that channel.
+            RfidTagStream stream = rfidStream;
+            if (channel == null && stream != null && RfidTagStream.isRfidRead(intent)) {
+                if (!synthetic) {
+                    recordRfidRead(intent);
+                    if (pendingScanOnceCall != null) {
+                        completeScanOnce(toScanOnceResult(intent), intent);
+                    }
+                }
+                stream.onRead(intent);
+                return;
+            }
             
-            if (scanData != null) {
-                JSObject scanResult = new JSObject();
-                scanResult.put("data", scanData);
-                scanResult.put("labelType", labelType != null ? labelType : "UNKNOWN");
-                scanResult.put("timestamp", System.currentTimeMillis());
-
-                Log.d(TAG, "Scan received: " + scanData + " (" + labelType + ")");
-                notifyListeners("scanReceived", scanResult);
-            } else {
+            // Decide whether anything will be emitted before building any payload: scans nobody
+            // listens to are only counted and stored, straight from the raw intent strings
+            boolean multi = MultiBarcodeDecoder.isMultiBarcode(intent);
+            String event = channel == null
+                ? (multi ? "multiBarcodeReceived" : "scanReceived")
+                : (multi ? channel.multiBarcodeEvent : channel.event);
+            boolean listened = hasListeners(event);
+            ScanFileSink sink = scanFileSink;
+            // With a scan file and emitEvents off, scans are written to disk only and kept off the bridge
+            boolean emit = listened && (sink == null || scanFileEmitEvents);
+            boolean resolvesScanOnce = !synthetic && pendingScanOnceCall != null;
+            
+            // A multi-barcode capture carries every barcode in one intent; forward it as one event
+            if (multi) {
+                int count = synthetic ? 0 : recordMultiBarcode(intent, sink);
+                Log.d(TAG, "Multi-barcode capture received" + (synthetic ? "" : ": " + count + " barcodes"));
+                if (channel != null && !listened) {
+                    channel.skipped.incrementAndGet();
+                }
+                if (!emit && !resolvesScanOnce) {
+                    return;
+                }
+                JSObject multiBarcode = broadcast.getMultiBarcode(gs1ParsingEnabled);
+                if (resolvesScanOnce) {
+                    completeScanOnce(toScanOnceResult(multiBarcode), intent);
+                }
+                if (emit) {
+                    if (channel != null) {
+                        channel.delivered.incrementAndGet();
+                    }
+                    notifyListeners(event, multiBarcode);
+                }
+                return;
+            }
+            
+            DataWedgeScan scan = broadcast.getScan();
+            String scanData = scan.getData();
+            String labelType = scan.getLabelType();
+            if (scanData == null) {
                 Log.w(TAG, "Received scan intent but no data found");
+                return;
+            }
+            long timestamp = System.currentTimeMillis();
+            if (!synthetic) {
+                scanStats.record(labelType);
+                if (sink != null) {
+                    sink.append(scanData, labelType, timestamp);
+                }
+            }
+            
+            Log.d(TAG, "Scan received: " + scanData + " (" + labelType + ")");
+            
+            if (channel != null && !listened) {
+                channel.skipped.incrementAndGet();
+            }
+            if (!emit && !resolvesScanOnce) {
+                return;
+            }
+            
+            // The load generator reports its own latencies; keep its scans out of the stage histograms
+            ScanLatencyTracer.Trace trace = emit && !synthetic
+                ? latencyTracer.begin(intent, broadcast.receivedNanos, broadcast.receivedWallMs) : null;
+            JSObject scanResult = new JSObject();
+            scanResult.put("data", scanData);
+            scanResult.put("labelType", labelType);
+            scanResult.put("timestamp", timestamp);
+            JSObject gs1 = gs1ParsingEnabled ? scan.getGs1() : null;
+            if (gs1 != null) {
+                scanResult.put("gs1", gs1);
+            }
+            
+            // Enrich from the local lookup index, if one is loaded. A bad index must never cost the scan.
+            LookupIndex index = lookupIndex;
+            if (index != null) {
+                try {
+                    String record = index.get(scanData);
+                    if (record != null) {
+                        scanResult.put("record", toRecordValue(record));
+                    }
+                } catch (Exception e) {
+                    Log.e(TAG, "Lookup index enrichment failed", e);
+                }
+            }
+            if (synthetic) {
+                scanResult.put("synthetic", true);
+            }
+            
+            if (resolvesScanOnce) {
+                completeScanOnce(scanResult, intent);
+            }
+            if (!emit) {
+                return;
+            }
+            
+            if (trace != null) {
+                trace.markBeforeNotify();
+                if (latencyTracer.isIncludeInEvents()) {
+                    scanResult.put("latency", trace.toJSObject());
+                }
+            }
+            if (channel != null) {
+                scanResult.put("channel", channel.name);
+                channel.delivered.incrementAndGet();
+            }
+            notifyListeners(event, scanResult);
+            if (trace != null) {
+                latencyTracer.record(trace, SystemClock.elapsedRealtimeNanos());
             }
         } catch (Exception e) {
             Log.e(TAG, "Error handling scan intent", e);
+        } finally {
+            if (load != null) {
+                load.onHandled(intent);
+            }
         }
     }
 
+    /**
+     * Count every EPC of an RFID read in the scan stats and write it to the scan file, if one is open
+     */
+    private void recordRfidRead(Intent intent) {
+        String data = intent.getStringExtra("com.symbol.datawedge.data_string");
+        if (data == null) {
+            return;
+        }
+        String labelType = intent.getStringExtra("com.symbol.datawedge.label_type");
+        if (labelType == null) {
+            labelType = "RFID";
+        }
+        ScanFileSink sink = scanFileSink;
+        long timestamp = System.currentTimeMillis();
+        for (String epc : data.split("\n")) {
+            epc = epc.trim();
+            if (epc.isEmpty()) {
+                continue;
+            }
+            scanStats.record(labelType);
+            if (sink != null) {
+                sink.append(epc, labelType, timestamp);
+            }
+        }
+    }
+    
+    /**
+     * Count every barcode of a multi-barcode capture in the scan stats and write it to the scan file,
+     * from the raw barcode bundles. Returns the number of barcodes.
+     */
+    private int recordMultiBarcode(Intent intent, ScanFileSink sink) {
+        long timestamp = System.currentTimeMillis();
+        return MultiBarcodeDecoder.forEachBarcode(intent, (data, labelType) -> {
+            if (data == null) {
+                return;
+            }
+            scanStats.record(labelType);
+            if (sink != null) {
+                sink.append(data, labelType, timestamp);
+            }
+        });
+    }
+    
     private Bundle convertJSObjectToBundle(JSObject jsObject) {
         Bundle bundle = new Bundle();
         
@@ -364,6 +677,96 @@ public class DataWedgePlugin extends Plugin {
         return bundle;
     }
 
+    /**
+     * New com.symbol.datawedge.api.ACTION intent addressed directly to the installed
+     * DataWedge package, so the broadcast skips implicit receiver resolution
+     */
+    private Intent createDataWedgeIntent() {
+        return broadcastHub.createApiIntent();
+    }
+    
+    /**
+     * Package to target outgoing intents at; falls back to the stock name if none is resolved yet
+     */
+    private String getDataWedgePackage() {
+        String packageName = resolveDataWedgePackage();
+        return packageName != null ? packageName : DATAWEDGE_PACKAGE;
+    }
+    
+    /**
+     * Installed DataWedge package, resolved once per process by the hub; null if none is found
+     */
+    private String resolveDataWedgePackage() {
+        return broadcastHub.resolveDataWedgePackage();
+    }
+    
+    /**
+     * Queue a read-only DataWedge query; the reply arrives through the result receiver
+     */
+    private void sendQuery(Intent intent) {
+        commandQueue.enqueueQuery(intent);
+    }
+    
+    /**
+     * Queue a state-changing DataWedge command that waits for its acknowledgement
+     */
+    private void sendCommand(Intent intent) {
+        commandQueue.enqueueCommand(intent, Priority.NORMAL, null);
+    }
+
+    /**
+     * Queue a state-changing command for a plugin call. With awaitResult the call settles
+     * on DataWedge's SUCCESS/FAILURE result, otherwise it resolves as soon as it is queued.
+     */
+    private void sendCommand(Intent intent, PluginCall call) {
+        if (call.getBoolean("awaitResult", false)) {
+            commandQueue.enqueueCommand(intent, Priority.NORMAL, getAwaitResultTimeout(call),
+                result -> resolveCommandResult(call, result));
+        } else {
+            sendCommand(intent);
+            call.resolve();
+        }
+    }
+    
+    /**
+     * How long an awaitResult call waits for DataWedge's result. Independent of the queue's
+     * ackTimeoutMs, which only bounds how long a command holds its pipelining slot.
+     */
+    private long getAwaitResultTimeout(PluginCall call) {
+        return Math.max(100, call.getLong("timeoutMs", DEFAULT_AWAIT_RESULT_TIMEOUT_MS));
+    }
+    
+    private void resolveCommandResult(PluginCall call, Bundle result) {
+        if (result == null) {
+            call.reject("No result received from DataWedge within " + getAwaitResultTimeout(call) + " ms", "TIMEOUT");
+            return;
+        }
+        
+        JSObject response = new JSObject();
+        response.put("result", result.getString("RESULT", "UNKNOWN"));
+        response.put("command", result.getString("COMMAND"));
+        response.put("commandIdentifier", result.getString(DataWedgeCommandQueue.EXTRA_COMMAND_IDENTIFIER));
+        
+        Bundle resultInfo = result.getBundle("RESULT_INFO");
+        if (resultInfo != null) {
+            response.put("resultInfo", bundleToJSObject(resultInfo));
+        }
+        
+        // COMPLETE_RESULT reports one entry per plugin in a SET_CONFIG bundle
+        ArrayList<Parcelable> resultList = result.getParcelableArrayList("RESULT_LIST");
+        if (resultList != null) {
+            JSONArray resultArray = new JSONArray();
+            for (Parcelable entry : resultList) {
+                if (entry instanceof Bundle) {
+                    resultArray.put(bundleToJSObject((Bundle) entry));
+                }
+            }
+            response.put("resultList", resultArray);
+        }
+        
+        call.resolve(response);
+    }
+
     @PluginMethod
     public void enumerateScanners(PluginCall call) {
         // Check version compatibility
@@ -376,24 +779,28 @@ public class DataWedgePlugin extends Plugin {
         pendingEnumerateCall = call;
         
         // Send enumerate scanners intent
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.ENUMERATE_SCANNERS", "");
-        getContext().sendBroadcast(i);
+        sendQuery(i);
         
         Log.d(TAG, "Requested scanner enumeration");
     }
 
     @PluginMethod
     public void getActiveProfile(PluginCall call) {
+        // Answer from memory while PROFILE_SWITCH notifications keep the tracker current
+        if (!call.getBoolean("forceRefresh", false) && scannerState.hasLiveProfile()) {
+            call.resolve(scannerState.toProfileResult());
+            return;
+        }
+        
         // Store pending call
         pendingProfileCall = call;
         
         // Send get active profile intent
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.GET_ACTIVE_PROFILE", "");
-        getContext().sendBroadcast(i);
+        sendQuery(i);
         
         Log.d(TAG, "Requested active profile");
     }
@@ -404,28 +811,37 @@ public class DataWedgePlugin extends Plugin {
         pendingProfilesListCall = call;
         
         // Send get profiles list intent
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.GET_PROFILES_LIST", "");
-        getContext().sendBroadcast(i);
+        sendQuery(i);
         
         Log.d(TAG, "Requested profiles list");
     }
 
     @PluginMethod
     public void getScannerStatus(PluginCall call) {
+        // Answer from memory while SCANNER_STATUS notifications keep the tracker current
+        if (!call.getBoolean("forceRefresh", false) && scannerState.hasLiveStatus()) {
+            call.resolve(scannerState.toStatusResult());
+            return;
+        }
+        
         // Store pending call
         pendingScannerStatusCall = call;
         
         // Send get scanner status intent
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.GET_SCANNER_STATUS", "");
-        getContext().sendBroadcast(i);
+        sendQuery(i);
         
         Log.d(TAG, "Requested scanner status");
     }
 
+    @PluginMethod
+    public void getScannerState(PluginCall call) {
+        call.resolve(scannerState.toJSObject());
+    }
+
     @PluginMethod
     public void getAssociatedApps(PluginCall call) {
         String profileName = call.getString("profileName");
@@ -444,15 +860,14 @@ public class DataWedgePlugin extends Plugin {
         pendingAssociatedAppsCall = call;
         
         // Create the intent
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         
         Bundle bConfig = new Bundle();
         bConfig.putString("PROFILE_NAME", profileName);
         bConfig.putStringArray("APP_LIST", new String[]{});
         
         i.putExtra("com.symbol.datawedge.api.GET_CONFIG", bConfig);
-        getContext().sendBroadcast(i);
+        sendQuery(i);
         
         Log.d(TAG, "Requested associated apps for profile: " + profileName);
     }
@@ -475,8 +890,7 @@ public class DataWedgePlugin extends Plugin {
         pendingConfigCall = call;
         
         // Create the intent
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         
         Bundle bConfig = new Bundle();
         bConfig.putString("PROFILE_NAME", profileName);
@@ -487,12 +901,130 @@ public class DataWedgePlugin extends Plugin {
             bConfig.putString("CONFIG_MODE", configType);
         }
         
+        // Only ask DataWedge for the plugins the caller projected on
+        Set<String> plugins = ConfigProjection.fromCall(call).getPlugins();
+        if (plugins != null) {
+            Bundle pluginConfig = new Bundle();
+            pluginConfig.putStringArrayList("PLUGIN_NAME", new ArrayList<>(plugins));
+            bConfig.putBundle("PLUGIN_CONFIG", pluginConfig);
+        }
+        
         i.putExtra("com.symbol.datawedge.api.GET_CONFIG", bConfig);
-        getContext().sendBroadcast(i);
+        sendQuery(i);
         
         Log.d(TAG, "Requested config for profile: " + profileName);
     }
 
+    @PluginMethod
+    public void exportAllProfiles(PluginCall call) {
+        String path = call.getString("path");
+        if (path == null) {
+            call.reject("Export file path is required");
+            return;
+        }
+        
+        // Check version compatibility
+        if (detectedVersion != null && !detectedVersion.isAtLeast(6, 6)) {
+            call.reject("exportAllProfiles requires DataWedge 6.6 or higher");
+            return;
+        }
+        
+        int timeoutMs = call.getInt("timeoutMs", 15000);
+        File file = resolveAppFile(path);
+        
+        ProfileExport export = new ProfileExport(call, file, getIoExecutor());
+        String versionString = detectedVersion != null ? detectedVersion.getOriginalString() : null;
+        
+        Runnable[] timeout = new Runnable[1];
+        
+        // Each GET_CONFIG reply is streamed to the file as soon as it arrives. Replies the export
+        // asked for are its own; a concurrent getConfig or getAssociatedApps must not take them.
+        ResultWaiter configWaiter = new ResultWaiter() {
+            @Override
+            public boolean onResult(Bundle bundle) {
+                Bundle config = bundle.getBundle("com.symbol.datawedge.api.RESULT_GET_CONFIG");
+                if (config != null) {
+                    export.onConfig(config.getString("PROFILE_NAME"), config);
+                }
+                if (export.isFinished()) {
+                    mainHandler.removeCallbacks(timeout[0]);
+                    return true;
+                }
+                return false;
+            }
+            
+            @Override
+            public boolean consumes(Bundle bundle) {
+                Bundle config = bundle.getBundle("com.symbol.datawedge.api.RESULT_GET_CONFIG");
+                return config != null && export.isOutstanding(config.getString("PROFILE_NAME"));
+            }
+        };
+        
+        ResultWaiter profilesWaiter = bundle -> {
+            String[] profiles = bundle.getStringArray("com.symbol.datawedge.api.RESULT_GET_PROFILES_LIST");
+            List<String> profileNames = profiles != null ? Arrays.asList(profiles) : Collections.emptyList();
+            
+            export.start(profileNames, versionString);
+            if (profileNames.isEmpty()) {
+                mainHandler.removeCallbacks(timeout[0]);
+            } else {
+                addResultWaiter("com.symbol.datawedge.api.RESULT_GET_CONFIG", configWaiter);
+                for (String profileName : profileNames) {
+                    Intent i = createDataWedgeIntent();
+                    i.putExtra("com.symbol.datawedge.api.GET_CONFIG", buildFullConfigRequest(profileName));
+                    sendQuery(i);
+                }
+            }
+            return true;
+        };
+        addResultWaiter("com.symbol.datawedge.api.RESULT_GET_PROFILES_LIST", profilesWaiter);
+        
+        Intent i = createDataWedgeIntent();
+        i.putExtra("com.symbol.datawedge.api.GET_PROFILES_LIST", "");
+        sendQuery(i);
+        
+        timeout[0] = () -> {
+            removeResultWaiter("com.symbol.datawedge.api.RESULT_GET_PROFILES_LIST", profilesWaiter);
+            removeResultWaiter("com.symbol.datawedge.api.RESULT_GET_CONFIG", configWaiter);
+            export.finish();
+        };
+        mainHandler.postDelayed(timeout[0], timeoutMs);
+        
+        Log.d(TAG, "Exporting all profiles to: " + file.getAbsolutePath());
+    }
+    
+    /**
+     * GET_CONFIG request for a profile's settings, every plugin and its app associations
+     */
+    private Bundle buildFullConfigRequest(String profileName) {
+        Bundle pluginConfig = new Bundle();
+        pluginConfig.putStringArrayList("PLUGIN_NAME", new ArrayList<>(Arrays.asList(CONFIG_PLUGIN_NAMES)));
+        
+        Bundle bConfig = new Bundle();
+        bConfig.putString("PROFILE_NAME", profileName);
+        bConfig.putBundle("PLUGIN_CONFIG", pluginConfig);
+        bConfig.putString("APP_LIST", "");
+        return bConfig;
+    }
+    
+    /**
+     * Relative paths are resolved against the app's files directory
+     */
+    private File resolveAppFile(String path) {
+        File file = new File(path);
+        if (!file.isAbsolute()) {
+            file = new File(getContext().getFilesDir(), path);
+        }
+        return file;
+    }
+    
+    private synchronized ScheduledExecutorService getIoExecutor() {
+        if (ioExecutor == null) {
+            ioExecutor = Executors.newSingleThreadScheduledExecutor();
+        }
+        return ioExecutor;
+    }
+
     @PluginMethod
     public void getDisabledAppList(PluginCall call) {
         // Check version compatibility
@@ -505,10 +1037,9 @@ public class DataWedgePlugin extends Plugin {
         pendingDisabledAppListCall = call;
         
         // Send get disabled app list intent
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.GET_DISABLED_APP_LIST", "");
-        getContext().sendBroadcast(i);
+        sendQuery(i);
         
         Log.d(TAG, "Requested disabled app list");
     }
@@ -525,10 +1056,9 @@ public class DataWedgePlugin extends Plugin {
         pendingIgnoreDisabledProfilesCall = call;
         
         // Send get ignore disabled profiles intent
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.GET_IGNORE_DISABLED_PROFILES", "");
-        getContext().sendBroadcast(i);
+        sendQuery(i);
         
         Log.d(TAG, "Requested ignore disabled profiles status");
     }
@@ -536,36 +1066,20 @@ public class DataWedgePlugin extends Plugin {
     @PluginMethod
     public void getDatawedgeStatus(PluginCall call) {
         // Send get DataWedge status intent and wait for response
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.GET_DATAWEDGE_STATUS", "");
         
-        // Register one-time receiver for this specific response
-        BroadcastReceiver statusReceiver = new BroadcastReceiver() {
-            @Override
-            public void onReceive(Context context, Intent intent) {
-                String action = intent.getAction();
-                if ("com.symbol.datawedge.api.RESULT_ACTION".equals(action)) {
-                    Bundle bundle = intent.getExtras();
-                    if (bundle != null && bundle.containsKey("com.symbol.datawedge.api.RESULT_GET_DATAWEDGE_STATUS")) {
-                        String status = bundle.getString("com.symbol.datawedge.api.RESULT_GET_DATAWEDGE_STATUS");
-                        
-                        JSObject result = new JSObject();
-                        result.put("isEnabled", "ENABLED".equals(status));
-                        call.resolve(result);
-                        
-                        // Unregister this receiver
-                        getContext().unregisterReceiver(this);
-                    }
-                }
-            }
-        };
-        
-        IntentFilter filter = new IntentFilter();
-        filter.addAction("com.symbol.datawedge.api.RESULT_ACTION");
-        getContext().registerReceiver(statusReceiver, filter);
+        // Answered through the shared result listener rather than a receiver of its own
+        addResultWaiter("com.symbol.datawedge.api.RESULT_GET_DATAWEDGE_STATUS", bundle -> {
+            String status = bundle.getString("com.symbol.datawedge.api.RESULT_GET_DATAWEDGE_STATUS");
+            
+            JSObject result = new JSObject();
+            result.put("isEnabled", "ENABLED".equals(status));
+            call.resolve(result);
+            return true;
+        });
         
-        getContext().sendBroadcast(i);
+        sendQuery(i);
         Log.d(TAG, "Requested DataWedge status");
     }
 
@@ -587,14 +1101,12 @@ public class DataWedgePlugin extends Plugin {
             return;
         }
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.CLONE_PROFILE", sourceProfileName);
         i.putExtra("com.symbol.datawedge.api.DESTINATION_PROFILE_NAME", destinationProfileName);
-        getContext().sendBroadcast(i);
+        sendCommand(i, call);
         
         Log.d(TAG, "Cloning profile: " + sourceProfileName + " to " + destinationProfileName);
-        call.resolve();
     }
     
     @PluginMethod
@@ -613,28 +1125,44 @@ public class DataWedgePlugin extends Plugin {
         
         Boolean profileEnabled = call.getBoolean("profileEnabled", true);
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.CREATE_PROFILE", profileName);
         
         // If we want to set enabled state, we need to use SET_CONFIG after creation
-        if (!profileEnabled) {
+        if (profileEnabled) {
+            sendCommand(i, call);
+        } else {
+            boolean awaitResult = call.getBoolean("awaitResult", false);
+            Bundle[] createResult = new Bundle[1];
+            commandQueue.enqueueCommand(i, Priority.NORMAL, result -> createResult[0] = result);
+            
             // Send a follow-up SET_CONFIG to disable the profile
             Bundle profileConfig = new Bundle();
             profileConfig.putString("PROFILE_NAME", profileName);
             profileConfig.putString("PROFILE_ENABLED", "false");
             profileConfig.putString("CONFIG_MODE", "UPDATE");
             
-            Intent configIntent = new Intent();
-            configIntent.setAction("com.symbol.datawedge.api.ACTION");
+            Intent configIntent = createDataWedgeIntent();
             configIntent.putExtra("com.symbol.datawedge.api.SET_CONFIG", profileConfig);
-            getContext().sendBroadcast(configIntent);
+            
+            // Must not reach DataWedge before CREATE_PROFILE has been acknowledged
+            commandQueue.enqueueAfterPrevious(configIntent, awaitResult ? getAwaitResultTimeout(call) : 0, result -> {
+                if (!awaitResult) {
+                    return;
+                }
+                // A failed CREATE_PROFILE is the more useful error to report
+                if (createResult[0] != null && "FAILURE".equals(createResult[0].getString("RESULT"))) {
+                    resolveCommandResult(call, createResult[0]);
+                } else {
+                    resolveCommandResult(call, result);
+                }
+            });
+            if (!awaitResult) {
+                call.resolve();
+            }
         }
         
-        getContext().sendBroadcast(i);
-        
         Log.d(TAG, "Created profile: " + profileName);
-        call.resolve();
     }
     
     @PluginMethod
@@ -651,13 +1179,11 @@ public class DataWedgePlugin extends Plugin {
             return;
         }
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.DELETE_PROFILE", profileName);
-        getContext().sendBroadcast(i);
+        sendCommand(i, call);
         
         Log.d(TAG, "Deleted profile: " + profileName);
-        call.resolve();
     }
     
     @PluginMethod
@@ -680,13 +1206,11 @@ public class DataWedgePlugin extends Plugin {
         bConfig.putString("FOLDER_PATH", configFile);
         bConfig.putString("CONFIG_MODE", importMode);
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.IMPORT_CONFIG", bConfig);
-        getContext().sendBroadcast(i);
+        sendCommand(i, call);
         
         Log.d(TAG, "Importing config from: " + configFile);
-        call.resolve();
     }
     
     @PluginMethod
@@ -705,14 +1229,12 @@ public class DataWedgePlugin extends Plugin {
             return;
         }
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.RENAME_PROFILE", currentProfileName);
         i.putExtra("com.symbol.datawedge.api.DESTINATION_PROFILE_NAME", newProfileName);
-        getContext().sendBroadcast(i);
+        sendCommand(i, call);
         
         Log.d(TAG, "Renaming profile: " + currentProfileName + " to " + newProfileName);
-        call.resolve();
     }
     
     @PluginMethod
@@ -723,10 +1245,9 @@ public class DataWedgePlugin extends Plugin {
             return;
         }
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.RESTORE_CONFIG", "");
-        getContext().sendBroadcast(i);
+        sendCommand(i);
         
         Log.d(TAG, "Restoring DataWedge to factory defaults");
         call.resolve();
@@ -760,7 +1281,23 @@ public class DataWedgePlugin extends Plugin {
         profileConfig.putString("CONFIG_MODE", configMode);
         
         // Add additional config if provided
-        JSObject config = call.getObject("config");
+        putProfileConfig(profileConfig, call.getObject("config"));
+        
+        Intent i = createDataWedgeIntent();
+        i.putExtra("com.symbol.datawedge.api.SET_CONFIG", profileConfig);
+        if (call.getBoolean("awaitResult", false)) {
+            // Report the outcome of every plugin in the bundle, not just the last one
+            i.putExtra(DataWedgeCommandQueue.EXTRA_SEND_RESULT, "COMPLETE_RESULT");
+        }
+        sendCommand(i, call);
+        
+        Log.d(TAG, "Set config for profile: " + profileName);
+    }
+    
+    /**
+     * Copy PLUGIN_CONFIG and APP_LIST from a JS config object into a SET_CONFIG profile bundle
+     */
+    private void putProfileConfig(Bundle profileConfig, JSObject config) {
         if (config != null) {
             // Add plugin configurations
             if (config.has("PLUGIN_CONFIG")) {
@@ -802,14 +1339,6 @@ public class DataWedgePlugin extends Plugin {
                 }
             }
         }
-        
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
-        i.putExtra("com.symbol.datawedge.api.SET_CONFIG", profileConfig);
-        getContext().sendBroadcast(i);
-        
-        Log.d(TAG, "Set config for profile: " + profileName);
-        call.resolve();
     }
     
     @PluginMethod
@@ -854,10 +1383,9 @@ public class DataWedgePlugin extends Plugin {
         }
         disabledAppList.putParcelableArray("APP_LIST", appArray);
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.SET_DISABLED_APP_LIST", disabledAppList);
-        getContext().sendBroadcast(i);
+        sendCommand(i);
         
         Log.d(TAG, "Set disabled app list with mode: " + mode);
         call.resolve();
@@ -877,10 +1405,9 @@ public class DataWedgePlugin extends Plugin {
             return;
         }
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.SET_IGNORE_DISABLED_PROFILES", ignoreDisabledProfiles ? "true" : "false");
-        getContext().sendBroadcast(i);
+        sendCommand(i);
         
         Log.d(TAG, "Set ignore disabled profiles: " + ignoreDisabledProfiles);
         call.resolve();
@@ -892,10 +1419,9 @@ public class DataWedgePlugin extends Plugin {
     
     @PluginMethod
     public void disableDatawedge(PluginCall call) {
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.ENABLE_DATAWEDGE", false);
-        getContext().sendBroadcast(i);
+        sendCommand(i);
         
         Log.d(TAG, "Disabled DataWedge");
         call.resolve();
@@ -903,10 +1429,15 @@ public class DataWedgePlugin extends Plugin {
     
     @PluginMethod
     public void enableDatawedge(PluginCall call) {
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.ENABLE_DATAWEDGE", true);
-        getContext().sendBroadcast(i);
+        sendCommand(i);
+        
+        // Registrations do not survive DataWedge being disabled; queued behind the enable
+        NotificationSubscriptions shared = broadcastHub.getNotificationSubscriptions();
+        if (!shared.isEmpty()) {
+            reregisterNotifications(shared);
+        }
         
         Log.d(TAG, "Enabled DataWedge");
         call.resolve();
@@ -920,10 +1451,9 @@ public class DataWedgePlugin extends Plugin {
             return;
         }
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.SCANNER_INPUT_PLUGIN", "DISABLE_PLUGIN");
-        getContext().sendBroadcast(i);
+        sendCommand(i);
         
         Log.d(TAG, "Disabled scanner input plugin");
         call.resolve();
@@ -937,10 +1467,9 @@ public class DataWedgePlugin extends Plugin {
             return;
         }
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.SCANNER_INPUT_PLUGIN", "ENABLE_PLUGIN");
-        getContext().sendBroadcast(i);
+        sendCommand(i);
         
         Log.d(TAG, "Enabled scanner input plugin");
         call.resolve();
@@ -957,10 +1486,9 @@ public class DataWedgePlugin extends Plugin {
         // Store pending call
         pendingTriggersCall = call;
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.ENUMERATE_TRIGGERS", "");
-        getContext().sendBroadcast(i);
+        sendQuery(i);
         
         Log.d(TAG, "Requested trigger enumeration");
     }
@@ -994,10 +1522,9 @@ public class DataWedgePlugin extends Plugin {
             notifyBundle.putInt("VIBRATE_DURATION", vibrateDuration);
         }
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.NOTIFY", notifyBundle);
-        getContext().sendBroadcast(i);
+        commandQueue.enqueueCommand(i, Priority.HIGH, null);
         
         Log.d(TAG, "Sent notification: " + notificationType);
         call.resolve();
@@ -1011,10 +1538,9 @@ public class DataWedgePlugin extends Plugin {
             return;
         }
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.RESET_DEFAULT_PROFILE", "");
-        getContext().sendBroadcast(i);
+        sendCommand(i);
         
         Log.d(TAG, "Reset default profile to Profile0");
         call.resolve();
@@ -1034,10 +1560,9 @@ public class DataWedgePlugin extends Plugin {
             return;
         }
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.SET_DEFAULT_PROFILE", profileName);
-        getContext().sendBroadcast(i);
+        sendCommand(i);
         
         Log.d(TAG, "Set default profile to: " + profileName);
         call.resolve();
@@ -1068,10 +1593,9 @@ public class DataWedgePlugin extends Plugin {
             reportingBundle.putString("REPORT_FILE_PATH", reportFilePath);
         }
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.SET_REPORTING_OPTIONS", reportingBundle);
-        getContext().sendBroadcast(i);
+        sendCommand(i);
         
         Log.d(TAG, "Set reporting options");
         call.resolve();
@@ -1088,10 +1612,9 @@ public class DataWedgePlugin extends Plugin {
         // Store pending call
         pendingSoftRfidCall = call;
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.SOFT_RFID_TRIGGER", "TOGGLE");
-        getContext().sendBroadcast(i);
+        commandQueue.enqueueCommand(i, Priority.HIGH, result -> handleSoftRfidResult());
         
         Log.d(TAG, "Triggered RFID scan");
     }
@@ -1101,94 +1624,1042 @@ public class DataWedgePlugin extends Plugin {
         // Store pending call
         pendingSoftScanCall = call;
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.SOFT_SCAN_TRIGGER", "TOGGLE_SCANNING");
-        getContext().sendBroadcast(i);
+        commandQueue.enqueueCommand(i, Priority.HIGH, result -> handleSoftScanResult());
         
         Log.d(TAG, "Triggered soft scan");
     }
     
     @PluginMethod
-    public void switchScanner(PluginCall call) {
-        String scannerIndex = call.getString("scannerIndex");
-        if (scannerIndex == null) {
-            call.reject("Scanner index is required");
-            return;
-        }
+    public void scanOnce(PluginCall call) {
+        int timeoutMs = call.getInt("timeoutMs", 5000);
         
-        // Check version compatibility
-        if (detectedVersion != null && !detectedVersion.isAtLeast(6, 3)) {
-            call.reject("switchScanner requires DataWedge 6.3 or higher");
-            return;
+        // Scan intents are only seen while the scan receiver is registered
+        if (!isListenerRegistered) {
+            registerScanBroadcastReceiver();
+            isListenerRegistered = true;
         }
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
-        i.putExtra("com.symbol.datawedge.api.SWITCH_SCANNER", scannerIndex);
-        getContext().sendBroadcast(i);
-        
-        Log.d(TAG, "Switched to scanner: " + scannerIndex);
-        call.resolve();
+        mainHandler.post(() -> {
+            if (pendingScanOnceCall != null) {
+                call.reject("A scanOnce request is already in progress");
+                return;
+            }
+            pendingScanOnceCall = call;
+            scanOnceArmed = false;
+            scanOnceTimeout = () -> {
+                if (pendingScanOnceCall != call) {
+                    return;
+                }
+                pendingScanOnceCall = null;
+                scanOnceTimeout = null;
+                
+                Intent stop = createDataWedgeIntent();
+                stop.putExtra("com.symbol.datawedge.api.SOFT_SCAN_TRIGGER", "STOP_SCANNING");
+                commandQueue.enqueueCommand(stop, Priority.HIGH, null);
+                
+                Log.d(TAG, "scanOnce timed out after " + timeoutMs + "ms");
+                call.reject("No scan received within " + timeoutMs + "ms", "TIMEOUT");
+            };
+            mainHandler.postDelayed(scanOnceTimeout, timeoutMs);
+            
+            // START rather than TOGGLE so a beam that is already on is not switched off.
+            // Scans only count once it has been sent; arming is posted so that scan broadcasts
+            // already waiting on the main looper are not taken for the triggered one.
+            Intent i = createDataWedgeIntent();
+            i.putExtra("com.symbol.datawedge.api.SOFT_SCAN_TRIGGER", "START_SCANNING");
+            commandQueue.enqueueCommand(i, Priority.HIGH, () -> {
+                long triggeredAt = SystemClock.elapsedRealtime();
+                long triggeredWallMs = System.currentTimeMillis();
+                mainHandler.post(() -> {
+                    if (pendingScanOnceCall == call) {
+                        scanOnceTriggeredAt = triggeredAt;
+                        scanOnceTriggeredWallMs = triggeredWallMs;
+                        scanOnceArmed = true;
+                    }
+                });
+            }, null);
+            
+            Log.d(TAG, "scanOnce triggered, waiting up to " + timeoutMs + "ms");
+        });
     }
     
-    @PluginMethod
-    public void switchScannerParams(PluginCall call) {
-        // Check version compatibility
-        if (detectedVersion != null && !detectedVersion.isAtLeast(6, 3)) {
-            call.reject("switchScannerParams requires DataWedge 6.3 or higher");
+    /**
+     * Hand the first scan after a scanOnce trigger to the waiting call, with trigger-to-decode latency.
+     * Scans that DataWedge dispatched before the trigger was sent (e.g. a hardware trigger pull
+     * racing the soft trigger) are ignored when it reports its dispatch time.
+     */
+    private void completeScanOnce(JSObject scanResult, Intent intent) {
+        PluginCall call = pendingScanOnceCall;
+        if (call == null || !scanOnceArmed) {
             return;
         }
+        long dispatchTimeMs = ScanLatencyTracer.readDispatchTime(intent);
+        if (dispatchTimeMs > 0 && dispatchTimeMs < scanOnceTriggeredWallMs) {
+            return;
+        }
+        pendingScanOnceCall = null;
+        scanOnceArmed = false;
+        if (scanOnceTimeout != null) {
+            mainHandler.removeCallbacks(scanOnceTimeout);
+            scanOnceTimeout = null;
+        }
+        
+        JSObject result = new JSObject();
+        result.put("data", scanResult.getString("data"));
+        result.put("labelType", scanResult.getString("labelType"));
+        result.put("timestamp", scanResult.optLong("timestamp"));
+        result.put("latencyMs", SystemClock.elapsedRealtime() - scanOnceTriggeredAt);
+        if (scanResult.has("gs1")) {
+            result.put("gs1", scanResult.opt("gs1"));
+        }
+        if (scanResult.has("record")) {
+            result.put("record", scanResult.opt("record"));
+        }
+        if (scanResult.has("barcodes")) {
+            result.put("barcodes", scanResult.opt("barcodes"));
+        }
+        call.resolve(result);
+    }
+    
+    /**
+     * scanOnce result for an RFID read that goes to the RFID stream instead of scanReceived
+     */
+    private JSObject toScanOnceResult(Intent intent) {
+        String labelType = intent.getStringExtra("com.symbol.datawedge.label_type");
+        JSObject scanResult = new JSObject();
+        scanResult.put("data", intent.getStringExtra("com.symbol.datawedge.data_string"));
+        scanResult.put("labelType", labelType != null ? labelType : "UNKNOWN");
+        scanResult.put("timestamp", System.currentTimeMillis());
+        return scanResult;
+    }
+    
+    /**
+     * scanOnce result for a multi-barcode capture: the first barcode, plus all of them in barcodes
+     */
+    private JSObject toScanOnceResult(JSObject multiBarcode) {
+        JSObject scanResult = new JSObject();
+        JSONArray barcodes = multiBarcode.optJSONArray("barcodes");
+        JSONObject first = barcodes != null ? barcodes.optJSONObject(0) : null;
+        scanResult.put("data", first != null ? first.optString("data") : null);
+        scanResult.put("labelType", first != null ? first.optString("labelType", "UNKNOWN") : "UNKNOWN");
+        scanResult.put("timestamp", multiBarcode.optLong("timestamp"));
+        scanResult.put("barcodes", barcodes);
+        return scanResult;
+    }
+    
+    @PluginMethod
+    public void configureGs1Parsing(PluginCall call) {
+        gs1ParsingEnabled = call.getBoolean("enabled", true);
+        
+        Log.d(TAG, "GS1 parsing " + (gs1ParsingEnabled ? "enabled" : "disabled"));
+        JSObject result = new JSObject();
+        result.put("enabled", gs1ParsingEnabled);
+        call.resolve(result);
+    }
+    
+    @PluginMethod
+    public void parseGs1(PluginCall call) {
+        String data = call.getString("data");
+        if (data == null) {
+            call.reject("data is required");
+            return;
+        }
+        call.resolve(Gs1Parser.parse(data));
+    }
+    
+    @PluginMethod
+    public void startScanFile(PluginCall call) {
+        if (scanFileSink != null) {
+            call.reject("A scan file is already being written; call stopScanFile first");
+            return;
+        }
+        String format = call.getString("format", "ndjson");
+        if (!"ndjson".equals(format) && !"csv".equals(format)) {
+            call.reject("format must be 'ndjson' or 'csv'");
+            return;
+        }
+        File directory = resolveAppFile(call.getString("directory", "scans"));
+        String baseName = call.getString("baseName", "scans");
+        long maxBytes = call.getInt("maxBytes", 8 * 1024 * 1024);
+        long maxAgeMs = call.getInt("maxAgeMs", 0);
+        boolean gzip = call.getBoolean("gzip", false);
+        
+        scanFileEmitEvents = call.getBoolean("emitEvents", true);
+        scanFileSink = new ScanFileSink(directory, baseName, format, maxBytes, maxAgeMs, gzip, getIoExecutor());
+        Log.d(TAG, "Writing scans to " + directory.getAbsolutePath() + " (" + format + ")");
+        call.resolve(scanFileSink.getStats());
+    }
+    
+    @PluginMethod
+    public void stopScanFile(PluginCall call) {
+        ScanFileSink sink = scanFileSink;
+        if (sink == null) {
+            call.reject("No scan file is being written");
+            return;
+        }
+        scanFileSink = null;
+        scanFileEmitEvents = true;
+        // Resolves after every queued scan has been written and the segment closed
+        sink.close(call);
+    }
+    
+    @PluginMethod
+    public void flushScanFile(PluginCall call) {
+        ScanFileSink sink = scanFileSink;
+        if (sink == null) {
+            call.reject("No scan file is being written");
+            return;
+        }
+        sink.flush(call);
+    }
+    
+    @PluginMethod
+    public void listScanFiles(PluginCall call) {
+        File directory = resolveAppFile(call.getString("directory", "scans"));
+        String baseName = call.getString("baseName", "scans");
+        
+        getIoExecutor().execute(() -> {
+            JSObject result = new JSObject();
+            result.put("segments", ScanFileSink.listSegments(directory, baseName));
+            result.put("active", scanFileSink != null);
+            call.resolve(result);
+        });
+    }
+    
+    @PluginMethod
+    public void loadLookupIndex(PluginCall call) {
+        String path = call.getString("path");
+        if (path == null) {
+            call.reject("Index file path is required");
+            return;
+        }
+        File file = resolveAppFile(path);
+        int cacheSize = call.getInt("cacheSize", 1024);
+        
+        // Map and validate off the plugin thread; scans keep using the previous index until the swap
+        getIoExecutor().execute(() -> {
+            long startedAt = SystemClock.elapsedRealtime();
+            try {
+                LookupIndex index = LookupIndex.open(file, cacheSize);
+                lookupIndex = index;
+                
+                Log.d(TAG, "Loaded lookup index " + file.getAbsolutePath() + " with " + index.getRecordCount() + " records");
+                JSObject result = index.getStats();
+                result.put("loadMs", SystemClock.elapsedRealtime() - startedAt);
+                call.resolve(result);
+            } catch (Exception e) {
+                Log.e(TAG, "Error loading lookup index", e);
+                call.reject("Error loading lookup index: " + e.getMessage());
+            }
+        });
+    }
+    
+    @PluginMethod
+    public void unloadLookupIndex(PluginCall call) {
+        lookupIndex = null;
+        call.resolve();
+    }
+    
+    @PluginMethod
+    public void lookup(PluginCall call) {
+        String key = call.getString("key");
+        if (key == null) {
+            call.reject("key is required");
+            return;
+        }
+        LookupIndex index = lookupIndex;
+        if (index == null) {
+            call.reject("No lookup index loaded");
+            return;
+        }
+        
+        String record;
+        try {
+            record = index.get(key);
+        } catch (IOException e) {
+            call.reject(e.getMessage());
+            return;
+        }
+        JSObject result = new JSObject();
+        result.put("found", record != null);
+        if (record != null) {
+            result.put("record", toRecordValue(record));
+        }
+        call.resolve(result);
+    }
+    
+    @PluginMethod
+    public void getLookupIndexStats(PluginCall call) {
+        LookupIndex index = lookupIndex;
+        if (index == null) {
+            JSObject result = new JSObject();
+            result.put("loaded", false);
+            call.resolve(result);
+            return;
+        }
+        call.resolve(index.getStats());
+    }
+    
+    /**
+     * Index values holding a JSON object are passed to JS as objects, anything else as a string
+     */
+    private Object toRecordValue(String record) {
+        if (record.startsWith("{")) {
+            try {
+                return new JSObject(record);
+            } catch (JSONException e) {
+                // Not JSON after all
+            }
+        }
+        return record;
+    }
+    
+    @PluginMethod
+    public void startRfidStream(PluginCall call) {
+        // Check version compatibility
+        if (detectedVersion != null && !detectedVersion.isAtLeast(7, 0)) {
+            call.reject("startRfidStream requires DataWedge 7.0 or higher");
+            return;
+        }
+        
+        if (!isListenerRegistered) {
+            registerScanBroadcastReceiver();
+            isListenerRegistered = true;
+        }
+        
+        RfidTagStream previous = rfidStream;
+        if (previous != null) {
+            previous.stop();
+        }
+        rfidStream = new RfidTagStream(batch -> notifyListeners("rfidTagsReceived", batch),
+            call.getInt("intervalMs", 500), call.getInt("maxBatchSize", 500));
+        
+        Log.d(TAG, "RFID streaming started");
+        call.resolve(rfidStream.getStats());
+    }
+    
+    @PluginMethod
+    public void stopRfidStream(PluginCall call) {
+        RfidTagStream stream = rfidStream;
+        if (stream == null) {
+            call.reject("RFID streaming is not active");
+            return;
+        }
+        rfidStream = null;
+        
+        // Emits the final delta batch before resolving
+        stream.stop();
+        
+        Log.d(TAG, "RFID streaming stopped");
+        call.resolve(stream.getStats());
+    }
+    
+    @PluginMethod
+    public void getRfidStreamStats(PluginCall call) {
+        RfidTagStream stream = rfidStream;
+        if (stream == null) {
+            JSObject result = new JSObject();
+            result.put("running", false);
+            call.resolve(result);
+            return;
+        }
+        call.resolve(stream.getStats());
+    }
+    
+    @PluginMethod
+    public void switchScanner(PluginCall call) {
+        String scannerIndex = call.getString("scannerIndex");
+        if (scannerIndex == null) {
+            call.reject("Scanner index is required");
+            return;
+        }
+        
+        // Check version compatibility
+        if (detectedVersion != null && !detectedVersion.isAtLeast(6, 3)) {
+            call.reject("switchScanner requires DataWedge 6.3 or higher");
+            return;
+        }
+        
+        Intent i = createDataWedgeIntent();
+        i.putExtra("com.symbol.datawedge.api.SWITCH_SCANNER", scannerIndex);
+        sendCommand(i);
+        
+        Log.d(TAG, "Switched to scanner: " + scannerIndex);
+        call.resolve();
+    }
+    
+    @PluginMethod
+    public void switchScannerParams(PluginCall call) {
+        // Check version compatibility
+        if (detectedVersion != null && !detectedVersion.isAtLeast(6, 3)) {
+            call.reject("switchScannerParams requires DataWedge 6.3 or higher");
+            return;
+        }
+        
+        Bundle paramsBundle = new Bundle();
         
-        Bundle paramsBundle = new Bundle();
-        
         String scannerType = call.getString("scannerType");
         if (scannerType != null) {
             paramsBundle.putString("SCANNER_TYPE", scannerType);
         }
-        
-        String profileName = call.getString("profileName");
-        if (profileName != null) {
-            paramsBundle.putString("PROFILE_NAME", profileName);
+        
+        String profileName = call.getString("profileName");
+        if (profileName != null) {
+            paramsBundle.putString("PROFILE_NAME", profileName);
+        }
+        
+        // Add custom params if provided
+        JSObject params = call.getObject("params");
+        if (params != null) {
+            Bundle customParams = convertJSObjectToBundle(params);
+            paramsBundle.putAll(customParams);
+        }
+        
+        Intent i = createDataWedgeIntent();
+        i.putExtra("com.symbol.datawedge.api.SWITCH_SCANNER_PARAMS", paramsBundle);
+        commandCoalescer.submit(DataWedgeCommandCoalescer.KIND_SWITCH_SCANNER_PARAMS, i, call);
+        
+        Log.d(TAG, "Switched scanner params");
+    }
+    
+    @PluginMethod
+    public void switchToProfile(PluginCall call) {
+        String profileName = call.getString("profileName");
+        if (profileName == null) {
+            call.reject("Profile name is required");
+            return;
+        }
+        
+        // Check version compatibility
+        if (detectedVersion != null && !detectedVersion.isAtLeast(6, 8)) {
+            call.reject("switchToProfile requires DataWedge 6.8 or higher");
+            return;
+        }
+        
+        Intent i = createDataWedgeIntent();
+        i.putExtra("com.symbol.datawedge.api.SWITCH_TO_PROFILE", profileName);
+        commandCoalescer.submit(DataWedgeCommandCoalescer.KIND_SWITCH_TO_PROFILE, i, call);
+        
+        Log.d(TAG, "Switched to profile: " + profileName);
+    }
+    
+    @PluginMethod
+    public void configureCommandCoalescing(PluginCall call) {
+        Integer debounceMs = call.getInt("debounceMs");
+        if (debounceMs == null || debounceMs < 0) {
+            call.reject("debounceMs must be zero or a positive number of milliseconds");
+            return;
+        }
+        
+        commandCoalescer.setDebounceMs(debounceMs);
+        
+        Log.d(TAG, "Command coalescing window set to " + debounceMs + " ms");
+        call.resolve(commandCoalescer.getStats());
+    }
+    
+    @PluginMethod
+    public void getCommandCoalescingStats(PluginCall call) {
+        call.resolve(commandCoalescer.getStats());
+    }
+    
+    @PluginMethod
+    public void configureCommandQueue(PluginCall call) {
+        Integer maxInFlight = call.getInt("maxInFlight", 2);
+        Integer ackTimeoutMs = call.getInt("ackTimeoutMs", 1500);
+        if (maxInFlight < 1) {
+            call.reject("maxInFlight must be at least 1");
+            return;
+        }
+        
+        // The queue is shared by every WebView and native caller of the app
+        commandQueue.configure(maxInFlight, ackTimeoutMs);
+        
+        Log.d(TAG, "Command queue configured: maxInFlight=" + maxInFlight + ", ackTimeoutMs=" + ackTimeoutMs);
+        call.resolve(commandQueue.getStats());
+    }
+    
+    @PluginMethod
+    public void getCommandQueueStats(PluginCall call) {
+        call.resolve(commandQueue.getStats());
+    }
+    
+    @PluginMethod
+    public void configureLatencyTracing(PluginCall call) {
+        boolean enabled = call.getBoolean("enabled", true);
+        boolean includeInEvents = call.getBoolean("includeInEvents", false);
+        latencyTracer.configure(enabled, includeInEvents);
+        
+        Log.d(TAG, "Scan latency tracing " + (enabled ? "enabled" : "disabled")
+            + (includeInEvents ? " (with per-event breakdown)" : ""));
+        call.resolve(latencyTracer.getStats());
+    }
+    
+    @PluginMethod
+    public void getLatencyStats(PluginCall call) {
+        call.resolve(latencyTracer.getStats());
+    }
+    
+    @PluginMethod
+    public void resetLatencyStats(PluginCall call) {
+        latencyTracer.reset();
+        call.resolve();
+    }
+    
+    @PluginMethod
+    public void startScanLoad(PluginCall call) {
+        if (scanLoad != null) {
+            call.reject("A scan load run is already in progress");
+            return;
+        }
+        double rate = call.getDouble("rate", 30.0);
+        if (rate <= 0) {
+            call.reject("rate must be greater than 0");
+            return;
+        }
+        String transportName = call.getString("transport", "broadcast");
+        if (!"broadcast".equals(transportName) && !"direct".equals(transportName)) {
+            call.reject("transport must be 'broadcast' or 'direct'");
+            return;
+        }
+        if ("broadcast".equals(transportName) && !isListenerRegistered) {
+            call.reject("Call registerScanListener() before generating broadcast scan load");
+            return;
+        }
+        int durationMs = call.getInt("durationMs", 10000);
+        int count = call.getInt("count", (int) Math.max(1, Math.round(rate * durationMs / 1000.0)));
+        int minLength = call.getInt("minLength", 8);
+        int maxLength = call.getInt("maxLength", 20);
+        Integer seed = call.getInt("seed");
+        
+        // Symbology mix as weighted label types
+        String[] labelTypes = { "LABEL-TYPE-EAN13", "LABEL-TYPE-CODE128", "LABEL-TYPE-QRCODE" };
+        double[] weights = { 3, 2, 1 };
+        JSONArray symbologies = call.getArray("symbologies");
+        if (symbologies != null && symbologies.length() > 0) {
+            labelTypes = new String[symbologies.length()];
+            weights = new double[symbologies.length()];
+            for (int i = 0; i < symbologies.length(); i++) {
+                JSONObject symbology = symbologies.optJSONObject(i);
+                if (symbology == null || symbology.optString("labelType", null) == null) {
+                    call.reject("Every symbology needs a labelType");
+                    return;
+                }
+                labelTypes[i] = symbology.optString("labelType", null);
+                weights[i] = symbology.optDouble("weight", 1);
+            }
+        }
+        
+        // Broadcasts go through the registered scan receiver; direct skips the system and posts to the main thread
+        ScanLoadGenerator.Transport transport = "broadcast".equals(transportName)
+            ? intent -> getContext().sendBroadcast(intent.setPackage(getContext().getPackageName()))
+            : intent -> mainHandler.post(() ->
+                handleScanIntent(new DataWedgeBroadcastHub.Broadcast(intent, SystemClock.elapsedRealtimeNanos(),
+                    System.currentTimeMillis(), transportName), null));
+        
+        ScanLoadGenerator generator = new ScanLoadGenerator(transport, transportName, report -> {
+            scanLoad = null;
+            Log.d(TAG, "Scan load finished: " + report.optLong("delivered") + "/" + report.optLong("sent") + " delivered");
+            call.resolve(report);
+        }, SCAN_INTENT_ACTION, rate, count, minLength, maxLength, labelTypes, weights,
+            seed != null ? Long.valueOf(seed) : null);
+        scanLoad = generator;
+        
+        Log.d(TAG, "Starting scan load: " + count + " scans at " + rate + "/s over " + transportName);
+        generator.start();
+    }
+    
+    @PluginMethod
+    public void stopScanLoad(PluginCall call) {
+        ScanLoadGenerator generator = scanLoad;
+        if (generator == null) {
+            call.reject("No scan load run in progress");
+            return;
+        }
+        // startScanLoad resolves with the same report
+        generator.stop();
+        call.resolve(generator.getReport());
+    }
+    
+    @PluginMethod
+    public void getScanLoadStats(PluginCall call) {
+        ScanLoadGenerator generator = scanLoad;
+        if (generator == null) {
+            JSObject result = new JSObject();
+            result.put("running", false);
+            call.resolve(result);
+            return;
+        }
+        call.resolve(generator.getReport());
+    }
+    
+    @PluginMethod
+    public void startBroadcastRecording(PluginCall call) {
+        if (broadcastRecorder != null) {
+            call.reject("A broadcast trace is already being recorded");
+            return;
+        }
+        File file = resolveAppFile(call.getString("path", "traces/broadcasts.ndjson"));
+        
+        mainHandler.post(() -> {
+            // Replayed broadcasts pass through the same receivers and would end up in the trace
+            if (broadcastReplayer != null) {
+                call.reject("Cannot record while a trace is being replayed");
+                return;
+            }
+            BroadcastRecorder recorder = new BroadcastRecorder(file, getIoExecutor());
+            recorder.start();
+            broadcastRecorder = recorder;
+            Log.d(TAG, "Recording broadcasts to " + file.getAbsolutePath());
+            call.resolve(recorder.getStats());
+        });
+    }
+    
+    @PluginMethod
+    public void stopBroadcastRecording(PluginCall call) {
+        BroadcastRecorder recorder = broadcastRecorder;
+        if (recorder == null) {
+            call.reject("No broadcast trace is being recorded");
+            return;
+        }
+        broadcastRecorder = null;
+        recorder.stop(call);
+    }
+    
+    @PluginMethod
+    public void replayBroadcasts(PluginCall call) {
+        String path = call.getString("path");
+        if (path == null) {
+            call.reject("Trace file path is required");
+            return;
+        }
+        if (broadcastRecorder != null) {
+            call.reject("Cannot replay while broadcasts are being recorded");
+            return;
+        }
+        File file = resolveAppFile(path);
+        double speed = call.getDouble("speed", 1.0);
+        
+        // Decode the whole trace up front so decoding is not part of the measured handling cost
+        getIoExecutor().execute(() -> {
+            List<BroadcastReplayer.Event> events;
+            try {
+                events = BroadcastReplayer.load(file);
+            } catch (IOException e) {
+                Log.e(TAG, "Error loading broadcast trace", e);
+                call.reject("Error loading broadcast trace: " + e.getMessage());
+                return;
+            }
+            
+            mainHandler.post(() -> {
+                if (broadcastReplayer != null) {
+                    call.reject("A trace is already being replayed");
+                    return;
+                }
+                BroadcastReplayer replayer = new BroadcastReplayer(events, speed, this::dispatchReplayedBroadcast, report -> {
+                    broadcastReplayer = null;
+                    Log.d(TAG, "Replay finished: " + report.optLong("dispatched") + " broadcasts");
+                    call.resolve(report);
+                });
+                broadcastReplayer = replayer;
+                Log.d(TAG, "Replaying " + events.size() + " broadcasts from " + file.getAbsolutePath()
+                    + (speed > 0 ? " at " + speed + "x" : " at max speed"));
+                replayer.start();
+            });
+        });
+    }
+    
+    @PluginMethod
+    public void stopBroadcastReplay(PluginCall call) {
+        mainHandler.post(() -> {
+            BroadcastReplayer replayer = broadcastReplayer;
+            if (replayer == null) {
+                call.reject("No trace is being replayed");
+                return;
+            }
+            // replayBroadcasts resolves with the same report
+            replayer.stop();
+            call.resolve(replayer.getReport());
+        });
+    }
+    
+    private void recordBroadcast(String source, Intent intent) {
+        BroadcastRecorder recorder = broadcastRecorder;
+        if (recorder != null) {
+            recorder.record(source, intent);
+        }
+    }
+    
+    /**
+     * Hand a replayed broadcast to the receiver that originally saw it
+     */
+    private boolean dispatchReplayedBroadcast(String source, Intent intent) {
+        DataWedgeBroadcastHub.Listener listener;
+        ScanChannel channel = "scan".equals(source) ? findScanChannel(intent) : null;
+        if (channel != null) {
+            listener = channel.listener;
+        } else if ("scan".equals(source)) {
+            listener = scanListener;
+        } else if ("result".equals(source)) {
+            listener = resultListener;
+        } else if ("notification".equals(source)) {
+            listener = notificationListener;
+        } else {
+            listener = null;
+        }
+        if (listener == null) {
+            return false;
+        }
+        // Straight to this instance's listener; other plugin instances do not see replayed traffic
+        listener.onBroadcast(DataWedgeBroadcastHub.Broadcast.replayed(intent));
+        return true;
+    }
+    
+    @PluginMethod
+    public void setScanDeliveryMode(PluginCall call) {
+        String profileName = call.getString("profileName");
+        String mode = call.getString("mode");
+        if (profileName == null || mode == null) {
+            call.reject("profileName and mode are required");
+            return;
+        }
+        if (!ScanDeliveryStats.BROADCAST.equals(mode) && !ScanDeliveryStats.ACTIVITY.equals(mode)) {
+            call.reject("mode must be 'broadcast' or 'activity'");
+            return;
+        }
+        
+        // Check version compatibility
+        if (detectedVersion != null && !detectedVersion.isAtLeast(6, 5)) {
+            call.reject("setScanDeliveryMode requires DataWedge 6.5 or higher");
+            return;
+        }
+        
+        // Optionally route the profile to a named scan channel instead of the default action
+        String channelName = call.getString("channel");
+        ScanChannel channel = channelName != null ? scanChannels.get(channelName) : null;
+        if (channelName != null && channel == null) {
+            call.reject("Scan channel not found: " + channelName);
+            return;
+        }
+        
+        // intent_delivery 0 = startActivity, 2 = broadcast
+        Bundle params = new Bundle();
+        params.putString("intent_output_enabled", "true");
+        params.putString("intent_action", channel != null ? channel.action : SCAN_INTENT_ACTION);
+        params.putString("intent_category", channel != null && channel.category != null
+            ? channel.category : "android.intent.category.DEFAULT");
+        params.putString("intent_delivery", ScanDeliveryStats.ACTIVITY.equals(mode) ? "0" : "2");
+        
+        Bundle intentPlugin = new Bundle();
+        intentPlugin.putString("PLUGIN_NAME", "INTENT");
+        intentPlugin.putString("RESET_CONFIG", "false");
+        intentPlugin.putBundle("PARAM_LIST", params);
+        
+        Bundle profileConfig = new Bundle();
+        profileConfig.putString("PROFILE_NAME", profileName);
+        profileConfig.putString("PROFILE_ENABLED", "true");
+        profileConfig.putString("CONFIG_MODE", "UPDATE");
+        profileConfig.putBundle("PLUGIN_CONFIG", intentPlugin);
+        
+        // Activity-delivered scans come in through handleOnNewIntent and the same scan listener
+        registerScanBroadcastReceiver();
+        isListenerRegistered = true;
+        scanDeliveryMode = mode;
+        
+        Intent i = createDataWedgeIntent();
+        i.putExtra("com.symbol.datawedge.api.SET_CONFIG", profileConfig);
+        sendCommand(i, call);
+        
+        Log.d(TAG, "Scan delivery for profile " + profileName + " set to " + mode);
+    }
+    
+    @PluginMethod
+    public void addScanChannel(PluginCall call) {
+        String name = call.getString("name");
+        String action = call.getString("action");
+        if (name == null || action == null) {
+            call.reject("name and action are required");
+            return;
+        }
+        String category = call.getString("category");
+        if (SCAN_INTENT_ACTION.equals(action) && category == null) {
+            call.reject("The default scan action is delivered as scanReceived; use another action or a category");
+            return;
+        }
+        if (scanChannels.containsKey(name)) {
+            call.reject("Scan channel already exists: " + name);
+            return;
+        }
+        
+        String event = call.getString("event", ScanChannel.defaultEvent(name));
+        String multiBarcodeEvent = call.getString("multiBarcodeEvent", ScanChannel.defaultMultiBarcodeEvent(name));
+        ScanChannel[] holder = new ScanChannel[1];
+        DataWedgeBroadcastHub.Listener listener = broadcast -> {
+            ScanChannel channel = holder[0];
+            if (!channel.matches(broadcast.intent)) {
+                return;
+            }
+            channel.received.incrementAndGet();
+            deliveryStats.record(broadcast.transport, broadcast.intent, broadcast.receivedWallMs);
+            recordBroadcast("scan", broadcast.intent);
+            handleScanIntent(broadcast, channel);
+        };
+        ScanChannel channel = new ScanChannel(name, action, category, event, multiBarcodeEvent, listener);
+        holder[0] = channel;
+        
+        scanChannels.put(name, channel);
+        broadcastHub.subscribeAction(action, category, listener);
+        deliverLaunchScan();
+        
+        Log.d(TAG, "Scan channel " + name + " added: " + action + " -> " + event);
+        call.resolve(channel.toJSObject());
+    }
+    
+    @PluginMethod
+    public void removeScanChannel(PluginCall call) {
+        String name = call.getString("name");
+        ScanChannel channel = name != null ? scanChannels.remove(name) : null;
+        if (channel == null) {
+            call.reject("Scan channel not found: " + name);
+            return;
+        }
+        broadcastHub.unsubscribeAction(channel.action, channel.category, channel.listener);
+        
+        Log.d(TAG, "Scan channel " + name + " removed");
+        call.resolve(channel.toJSObject());
+    }
+    
+    @PluginMethod
+    public void getScanChannels(PluginCall call) {
+        JSONArray channels = new JSONArray();
+        for (ScanChannel channel : scanChannels.values()) {
+            channels.put(channel.toJSObject());
+        }
+        JSObject result = new JSObject();
+        result.put("channels", channels);
+        call.resolve(result);
+    }
+    
+    /**
+     * Named channel a scan intent belongs to, or null for the default stream
+     */
+    private ScanChannel findScanChannel(Intent intent) {
+        for (ScanChannel channel : scanChannels.values()) {
+            if (channel.matches(intent)) {
+                return channel;
+            }
+        }
+        return null;
+    }
+    
+    @PluginMethod
+    public void getScanDeliveryStats(PluginCall call) {
+        JSObject result = deliveryStats.getStats();
+        result.put("mode", scanDeliveryMode);
+        call.resolve(result);
+    }
+    
+    @PluginMethod
+    public void resetScanDeliveryStats(PluginCall call) {
+        deliveryStats.reset();
+        call.resolve();
+    }
+    
+    @PluginMethod
+    public void getScanStats(PluginCall call) {
+        call.resolve(scanStats.getStats());
+    }
+    
+    @PluginMethod
+    public void resetScanStats(PluginCall call) {
+        scanStats.reset();
+        Integer idleThresholdMs = call.getInt("idleThresholdMs");
+        if (idleThresholdMs != null) {
+            scanStats.setIdleThresholdMs(idleThresholdMs);
+        }
+        call.resolve();
+    }
+    
+    @PluginMethod
+    public void provisionProfileSet(PluginCall call) {
+        String setName = call.getString("setName");
+        JSONArray profiles = call.getArray("profiles");
+        if (setName == null || profiles == null || profiles.length() == 0) {
+            call.reject("setName and a non-empty profiles list are required");
+            return;
+        }
+        
+        // Check version compatibility
+        if (detectedVersion != null && !detectedVersion.isAtLeast(6, 5)) {
+            call.reject("provisionProfileSet requires DataWedge 6.5 or higher");
+            return;
+        }
+        
+        ProfileSet set = new ProfileSet(setName,
+            getContext().getSharedPreferences(ProfileSet.PREFS_NAME, Context.MODE_PRIVATE));
+        try {
+            for (int i = 0; i < profiles.length(); i++) {
+                JSONObject profile = profiles.getJSONObject(i);
+                String profileName = profile.optString("profileName", null);
+                if (profileName == null) {
+                    call.reject("Every profile in the set needs a profileName");
+                    return;
+                }
+                JSONObject config = profile.optJSONObject("config");
+                JSONObject scannerParams = profile.optJSONObject("scannerParams");
+                set.addEntry(new ProfileSet.Entry(profileName,
+                    config != null ? JSObject.fromJSONObject(config) : null,
+                    scannerParams != null ? JSObject.fromJSONObject(scannerParams) : null));
+            }
+        } catch (JSONException e) {
+            call.reject("Invalid profile set definition: " + e.getMessage());
+            return;
+        }
+        profileSets.put(setName, set);
+        
+        long startedAt = SystemClock.elapsedRealtime();
+        List<ProfileSet.Entry> stale = set.getStaleEntries(call.getBoolean("force", false));
+        JSONArray written = new JSONArray();
+        JSONArray failed = new JSONArray();
+        JSONArray unchanged = new JSONArray();
+        Set<String> staleNames = new HashSet<>();
+        for (ProfileSet.Entry entry : stale) {
+            staleNames.add(entry.profileName);
+        }
+        for (int i = 0; i < profiles.length(); i++) {
+            String profileName = profiles.optJSONObject(i).optString("profileName");
+            if (!staleNames.contains(profileName)) {
+                unchanged.put(profileName);
+            }
         }
         
-        // Add custom params if provided
-        JSObject params = call.getObject("params");
-        if (params != null) {
-            Bundle customParams = convertJSObjectToBundle(params);
-            paramsBundle.putAll(customParams);
+        Runnable finish = () -> {
+            JSObject result = new JSObject();
+            result.put("setName", setName);
+            result.put("written", written);
+            result.put("unchanged", unchanged);
+            result.put("failed", failed);
+            result.put("durationMs", SystemClock.elapsedRealtime() - startedAt);
+            call.resolve(result);
+        };
+        if (stale.isEmpty()) {
+            finish.run();
+            return;
         }
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
-        i.putExtra("com.symbol.datawedge.api.SWITCH_SCANNER_PARAMS", paramsBundle);
-        getContext().sendBroadcast(i);
+        set.beginProvisioning(stale.size());
+        for (ProfileSet.Entry entry : stale) {
+            Bundle profileConfig = new Bundle();
+            profileConfig.putString("PROFILE_NAME", entry.profileName);
+            profileConfig.putString("PROFILE_ENABLED", "true");
+            profileConfig.putString("CONFIG_MODE", "CREATE_IF_NOT_EXIST");
+            putProfileConfig(profileConfig, entry.config);
+            
+            Intent i = createDataWedgeIntent();
+            i.putExtra("com.symbol.datawedge.api.SET_CONFIG", profileConfig);
+            commandQueue.enqueueCommand(i, Priority.NORMAL, result -> {
+                boolean ok = result != null && !"FAILURE".equals(result.getString("RESULT"));
+                if (ok) {
+                    set.commitFingerprint(entry);
+                }
+                boolean done;
+                synchronized (set) {
+                    (ok ? written : failed).put(entry.profileName);
+                    done = written.length() + failed.length() == stale.size();
+                }
+                set.endProvisioning();
+                if (done) {
+                    finish.run();
+                }
+            });
+        }
         
-        Log.d(TAG, "Switched scanner params");
-        call.resolve();
+        Log.d(TAG, "Provisioning profile set " + setName + ": " + stale.size() + " of " + profiles.length() + " profiles to write");
     }
     
     @PluginMethod
-    public void switchToProfile(PluginCall call) {
+    public void switchProfileSet(PluginCall call) {
+        String setName = call.getString("setName");
         String profileName = call.getString("profileName");
-        if (profileName == null) {
-            call.reject("Profile name is required");
+        ProfileSet set = setName != null ? profileSets.get(setName) : null;
+        if (set == null) {
+            call.reject("Profile set not provisioned: " + setName);
             return;
         }
-        
-        // Check version compatibility
-        if (detectedVersion != null && !detectedVersion.isAtLeast(6, 8)) {
-            call.reject("switchToProfile requires DataWedge 6.8 or higher");
+        ProfileSet.Entry entry = profileName != null ? set.getEntry(profileName) : null;
+        if (entry == null) {
+            call.reject("Profile " + profileName + " is not part of set " + setName);
             return;
         }
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
-        i.putExtra("com.symbol.datawedge.api.SWITCH_TO_PROFILE", profileName);
-        getContext().sendBroadcast(i);
+        // A full profile switch where supported; otherwise apply the entry's scanner params to the active profile.
+        // When the active profile already has the entry's config, the cheaper params switch is enough.
+        boolean canSwitchProfile = detectedVersion == null || detectedVersion.supports(DataWedgeFeature.SWITCH_TO_PROFILE);
+        boolean canSwitchParams = detectedVersion == null || detectedVersion.supports(DataWedgeFeature.SWITCH_SCANNER_PARAMS);
+        String liveProfile = scannerState.hasLiveProfile() ? scannerState.getActiveProfile() : null;
+        String method;
+        Intent i = createDataWedgeIntent();
+        if (!entry.isParamsOnly() && canSwitchProfile) {
+            // A params variant applied on top of the live profile still needs the switch to reset it
+            String setProfile = set.getActiveProfile();
+            if (profileName.equals(liveProfile) && (setProfile == null || profileName.equals(setProfile))) {
+                JSObject result = new JSObject();
+                result.put("profileName", profileName);
+                result.put("method", "NONE");
+                result.put("latencyMs", 0);
+                call.resolve(result);
+                return;
+            }
+            if (canSwitchParams && set.differsOnlyInScannerParams(entry, liveProfile) && set.isScannerParamsCheaper()) {
+                method = ProfileSet.METHOD_SWITCH_SCANNER_PARAMS;
+                i.putExtra("com.symbol.datawedge.api.SWITCH_SCANNER_PARAMS", convertJSObjectToBundle(entry.scannerParams));
+            } else {
+                method = ProfileSet.METHOD_SWITCH_TO_PROFILE;
+                i.putExtra("com.symbol.datawedge.api.SWITCH_TO_PROFILE", profileName);
+            }
+        } else if (entry.scannerParams != null) {
+            method = ProfileSet.METHOD_SWITCH_SCANNER_PARAMS;
+            i.putExtra("com.symbol.datawedge.api.SWITCH_SCANNER_PARAMS", convertJSObjectToBundle(entry.scannerParams));
+        } else {
+            call.reject("Switching to " + profileName + " requires DataWedge 6.8 or higher, or scannerParams for it");
+            return;
+        }
         
-        Log.d(TAG, "Switched to profile: " + profileName);
-        call.resolve();
+        // Screen transitions jump queued config writes, unless those writes are this set's own provisioning
+        Priority priority = set.isProvisioning() ? Priority.NORMAL : Priority.HIGH;
+        long startedAt = SystemClock.elapsedRealtimeNanos();
+        commandQueue.enqueueCommand(i, priority, result -> {
+            long latencyNanos = SystemClock.elapsedRealtimeNanos() - startedAt;
+            if (result == null) {
+                call.reject("Timed out waiting for DataWedge to acknowledge the switch", "TIMEOUT");
+                return;
+            }
+            if ("FAILURE".equals(result.getString("RESULT"))) {
+                call.reject("DataWedge rejected the switch to " + profileName);
+                return;
+            }
+            set.onSwitched(profileName, method, latencyNanos);
+            
+            JSObject switchResult = new JSObject();
+            switchResult.put("profileName", profileName);
+            switchResult.put("method", method);
+            switchResult.put("latencyMs", latencyNanos / 1_000_000.0);
+            call.resolve(switchResult);
+        });
+        
+        Log.d(TAG, "Switching profile set " + setName + " to " + profileName + " via " + method);
+    }
+    
+    @PluginMethod
+    public void getProfileSetStats(PluginCall call) {
+        String setName = call.getString("setName");
+        ProfileSet set = setName != null ? profileSets.get(setName) : null;
+        if (set == null) {
+            call.reject("Profile set not provisioned: " + setName);
+            return;
+        }
+        call.resolve(set.getStats());
     }
     
     // ==================== End Runtime Operations Methods ====================
@@ -1214,24 +2685,29 @@ public class DataWedgePlugin extends Plugin {
             registerNotificationReceiver();
             isNotificationListenerRegistered = true;
         }
+        registerPackageReceiver();
         
-        Bundle bundle = new Bundle();
-        bundle.putString("com.symbol.datawedge.api.APPLICATION_NAME", getContext().getPackageName());
-        bundle.putString("com.symbol.datawedge.api.NOTIFICATION_TYPE", notificationType);
-        
-        // Add profile name if specified
         String profileName = call.getString("profileName");
-        if (profileName != null) {
-            bundle.putString("PROFILE_NAME", profileName);
-        }
-        
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
-        i.putExtra("com.symbol.datawedge.api.REGISTER_FOR_NOTIFICATION", bundle);
-        getContext().sendBroadcast(i);
-        
-        Log.d(TAG, "Registered for notification: " + notificationType);
-        call.resolve();
+        NotificationSubscriptions shared = broadcastHub.getNotificationSubscriptions();
+        int refCount;
+        boolean sent;
+        synchronized (shared) {
+            // DataWedge registers per application and type, for every WebView of the app at once;
+            // only the type's first subscriber in the process is sent
+            sent = !shared.hasType(notificationType);
+            refCount = shared.acquire(notificationType, profileName);
+            notificationSubscriptions.acquire(notificationType, profileName);
+        }
+        if (sent) {
+            sendNotificationRegistration(notificationType, profileName, true);
+        }
+        updateScannerStateLiveness(notificationType, true);
+        
+        Log.d(TAG, "Registered for notification: " + notificationType + " (refCount " + refCount + ")");
+        JSObject result = new JSObject();
+        result.put("refCount", refCount);
+        result.put("sent", sent);
+        call.resolve(result);
     }
     
     @PluginMethod
@@ -1248,164 +2724,190 @@ public class DataWedgePlugin extends Plugin {
             return;
         }
         
+        String profileName = call.getString("profileName");
+        NotificationSubscriptions shared = broadcastHub.getNotificationSubscriptions();
+        int refCount;
+        boolean sent;
+        synchronized (shared) {
+            // Only this instance's own references can be released. UNREGISTER covers the whole type
+            // for the whole app, so it is sent once no profile in any WebView holds the type. An
+            // untracked release (e.g. left over from a previous session) is sent on the same condition.
+            if (notificationSubscriptions.release(notificationType, profileName) >= 0) {
+                refCount = Math.max(shared.release(notificationType, profileName), 0);
+            } else {
+                refCount = shared.getRefCount(notificationType, profileName);
+            }
+            sent = !shared.hasType(notificationType);
+        }
+        if (sent) {
+            sendNotificationRegistration(notificationType, profileName, false);
+            updateScannerStateLiveness(notificationType, false);
+        }
+        
+        Log.d(TAG, "Unregistered from notification: " + notificationType + " (refCount " + refCount + ")");
+        JSObject result = new JSObject();
+        result.put("refCount", refCount);
+        result.put("sent", sent);
+        call.resolve(result);
+    }
+    
+    @PluginMethod
+    public void getNotificationSubscriptions(PluginCall call) {
+        JSObject result = new JSObject();
+        result.put("subscriptions", broadcastHub.getNotificationSubscriptions().toJSONArray());
+        call.resolve(result);
+    }
+    
+    private void sendNotificationRegistration(String notificationType, String profileName, boolean register) {
         Bundle bundle = new Bundle();
         bundle.putString("com.symbol.datawedge.api.APPLICATION_NAME", getContext().getPackageName());
         bundle.putString("com.symbol.datawedge.api.NOTIFICATION_TYPE", notificationType);
         
         // Add profile name if specified
-        String profileName = call.getString("profileName");
         if (profileName != null) {
             bundle.putString("PROFILE_NAME", profileName);
         }
         
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
-        i.putExtra("com.symbol.datawedge.api.UNREGISTER_FOR_NOTIFICATION", bundle);
-        getContext().sendBroadcast(i);
+        Intent i = createDataWedgeIntent();
+        i.putExtra(register ? "com.symbol.datawedge.api.REGISTER_FOR_NOTIFICATION"
+            : "com.symbol.datawedge.api.UNREGISTER_FOR_NOTIFICATION", bundle);
+        sendCommand(i);
+    }
+    
+    /**
+     * DataWedge forgets registrations when it restarts, so replay one registration per active type
+     */
+    private void reregisterNotifications(NotificationSubscriptions subscriptions) {
+        for (String notificationType : subscriptions.getActiveTypes()) {
+            sendNotificationRegistration(notificationType, null, true);
+        }
+        Log.d(TAG, "Re-registered DataWedge notifications");
+    }
+    
+    /**
+     * Watch for DataWedge being updated while we hold notification subscriptions
+     */
+    private void registerPackageReceiver() {
+        if (packageListener != null) {
+            return; // Already registered
+        }
+        
+        packageListener = new DataWedgeBroadcastHub.Listener() {
+            @Override
+            public void onBroadcast(DataWedgeBroadcastHub.Broadcast broadcast) {
+                Intent intent = broadcast.intent;
+                String packageName = intent.getData() != null ? intent.getData().getSchemeSpecificPart() : null;
+                if (packageName == null || !Arrays.asList(DATAWEDGE_PACKAGES).contains(packageName)) {
+                    return;
+                }
+                
+                Log.d(TAG, "DataWedge package event: " + intent.getAction());
+                broadcastHub.invalidateDataWedgePackage();
+                
+                // Give DataWedge a moment to bring its API receivers back up. Every instance gets this
+                // event, so each replays its own types; a repeated REGISTER is harmless.
+                mainHandler.postDelayed(() -> {
+                    if (!notificationSubscriptions.isEmpty()) {
+                        reregisterNotifications(notificationSubscriptions);
+                    }
+                }, DATAWEDGE_RESTART_DELAY_MS);
+            }
+        };
         
-        Log.d(TAG, "Unregistered from notification: " + notificationType);
-        call.resolve();
+        broadcastHub.subscribe(DataWedgeBroadcastHub.Channel.PACKAGE, packageListener);
+        Log.d(TAG, "DataWedge package listener subscribed");
+    }
+    
+    /**
+     * The tracker may only answer from memory while the notification feeding it is registered
+     */
+    private void updateScannerStateLiveness(String notificationType, boolean registered) {
+        if ("SCANNER_STATUS".equals(notificationType)) {
+            scannerState.setStatusLive(registered);
+        } else if ("PROFILE_SWITCH".equals(notificationType)) {
+            scannerState.setProfileLive(registered);
+        }
     }
     
     private void registerNotificationReceiver() {
-        if (notificationReceiver != null) {
+        if (notificationListener != null) {
             return; // Already registered
         }
         
-        notificationReceiver = new BroadcastReceiver() {
+        notificationListener = new DataWedgeBroadcastHub.Listener() {
             @Override
-            public void onReceive(Context context, Intent intent) {
+            public void onBroadcast(DataWedgeBroadcastHub.Broadcast broadcast) {
+                Intent intent = broadcast.intent;
                 String action = intent.getAction();
                 if (!"com.symbol.datawedge.api.NOTIFICATION_ACTION".equals(action)) {
                     return;
                 }
                 
-                Bundle bundle = intent.getExtras();
-                if (bundle == null) {
+                if (broadcast.extras == null) {
                     return;
                 }
+                recordBroadcast("notification", intent);
                 
-                // Handle different notification types
-                if (bundle.containsKey("com.symbol.datawedge.api.NOTIFICATION")) {
-                    Bundle notificationBundle = bundle.getBundle("com.symbol.datawedge.api.NOTIFICATION");
-                    if (notificationBundle != null) {
-                        handleNotification(notificationBundle);
-                    }
-                }
-                
-                // Handle scanner status notification
-                if (bundle.containsKey("SCANNER_STATUS")) {
-                    String scannerStatus = bundle.getString("SCANNER_STATUS");
-                    String profileName = bundle.getString("PROFILE_NAME");
-                    
-                    JSObject notification = new JSObject();
-                    notification.put("notificationType", "SCANNER_STATUS");
-                    notification.put("status", scannerStatus);
-                    notification.put("profileName", profileName);
-                    
-                    notifyListeners("notificationReceived", notification);
-                }
-                
-                // Handle profile switch notification
-                if (bundle.containsKey("PROFILE_SWITCH")) {
-                    String profileName = bundle.getString("PROFILE_NAME");
-                    String previousProfile = bundle.getString("PREVIOUS_PROFILE");
-                    
-                    JSObject notification = new JSObject();
-                    notification.put("notificationType", "PROFILE_SWITCH");
-                    notification.put("profileName", profileName);
-                    notification.put("previousProfile", previousProfile);
-                    
-                    notifyListeners("notificationReceived", notification);
-                }
-                
-                // Handle configuration update notification
-                if (bundle.containsKey("CONFIGURATION_UPDATE")) {
-                    String profileName = bundle.getString("PROFILE_NAME");
-                    String status = bundle.getString("STATUS");
-                    
-                    JSObject notification = new JSObject();
-                    notification.put("notificationType", "CONFIGURATION_UPDATE");
-                    notification.put("profileName", profileName);
-                    notification.put("status", status);
-                    
-                    notifyListeners("notificationReceived", notification);
-                }
-                
-                // Handle workflow status notification
-                if (bundle.containsKey("WORKFLOW_STATUS")) {
-                    String status = bundle.getString("STATUS");
-                    String workflowName = bundle.getString("WORKFLOW_NAME");
-                    
-                    JSObject notification = new JSObject();
-                    notification.put("notificationType", "WORKFLOW_STATUS");
-                    notification.put("status", status);
-                    notification.put("workflowName", workflowName);
-                    
-                    notifyListeners("notificationReceived", notification);
+                // Decoded once per broadcast by the hub; a payload carrying both the NOTIFICATION bundle
+                // and top-level keys yields one notification
+                for (DataWedgeNotification notification : broadcast.getNotifications()) {
+                    handleNotification(notification);
                 }
             }
         };
         
-        IntentFilter filter = new IntentFilter();
-        filter.addAction("com.symbol.datawedge.api.NOTIFICATION_ACTION");
-        filter.addCategory(Intent.CATEGORY_DEFAULT);
-        getContext().registerReceiver(notificationReceiver, filter);
-        
-        Log.d(TAG, "Notification receiver registered");
+        broadcastHub.subscribe(DataWedgeBroadcastHub.Channel.NOTIFICATION, notificationListener);
+        Log.d(TAG, "Notification listener subscribed");
     }
     
-    private void handleNotification(Bundle notificationBundle) {
+    private void handleNotification(DataWedgeNotification notification) {
         try {
-            String notificationType = notificationBundle.getString("NOTIFICATION_TYPE");
-            
-            JSObject notification = new JSObject();
-            notification.put("notificationType", notificationType);
-            
-            // Add all bundle data to notification
-            for (String key : notificationBundle.keySet()) {
-                Object value = notificationBundle.get(key);
-                if (value instanceof String) {
-                    notification.put(key, (String) value);
-                } else if (value instanceof Boolean) {
-                    notification.put(key, (Boolean) value);
-                } else if (value instanceof Integer) {
-                    notification.put(key, (Integer) value);
-                } else if (value != null) {
-                    notification.put(key, value.toString());
-                }
+            // Keep the in-memory scanner state current on every notification, coalesced or not
+            if ("SCANNER_STATUS".equals(notification.type)) {
+                scannerState.onScannerStatus(notification.status, notification.profileName, "notification");
+            } else if ("PROFILE_SWITCH".equals(notification.type)) {
+                scannerState.onActiveProfile(notification.profileName, "notification");
             }
             
-            notifyListeners("notificationReceived", notification);
-            Log.d(TAG, "Notification received: " + notificationType);
+            notificationCoalescer.submit(notification);
+            Log.d(TAG, "Notification received: " + notification.type);
             
         } catch (Exception e) {
             Log.e(TAG, "Error handling notification", e);
         }
     }
     
+    @PluginMethod
+    public void configureNotificationCoalescing(PluginCall call) {
+        long windowMs = call.getInt("windowMs", 0);
+        // Duplicates are only dropped within the window, so default to off without one
+        boolean dropDuplicates = call.getBoolean("dropDuplicates", windowMs > 0);
+        
+        Set<String> types = null;
+        JSONArray typesArray = call.getArray("types");
+        if (typesArray != null && typesArray.length() > 0) {
+            types = new HashSet<>();
+            for (int i = 0; i < typesArray.length(); i++) {
+                types.add(typesArray.optString(i));
+            }
+        }
+        
+        notificationCoalescer.configure(windowMs, types, dropDuplicates);
+        Log.d(TAG, "Notification coalescing window set to " + windowMs + "ms");
+        call.resolve(notificationCoalescer.getStats());
+    }
+    
+    @PluginMethod
+    public void getNotificationCoalescingStats(PluginCall call) {
+        call.resolve(notificationCoalescer.getStats());
+    }
+    
     // ==================== End Notification Management Methods ====================
     
     @PluginMethod
     public void getVersionInfo(PluginCall call) {
         if (detectedVersion != null) {
-            JSObject result = new JSObject();
-            result.put("version", detectedVersion.getOriginalString());
-            result.put("major", detectedVersion.getMajor());
-            result.put("minor", detectedVersion.getMinor());
-            result.put("patch", detectedVersion.getPatch());
-            result.put("build", detectedVersion.getBuild());
-            
-            // Add supported features
-            JSONArray features = new JSONArray();
-            for (DataWedgeFeature feature : DataWedgeFeature.values()) {
-                if (detectedVersion.supports(feature)) {
-                    features.put(feature.toString());
-                }
-            }
-            result.put("supportedFeatures", features);
-            
-            call.resolve(result);
+            call.resolve(buildVersionInfo(detectedVersion));
         } else {
             // Try to detect version if not already done
             if (!versionDetectionAttempted) {
@@ -1419,23 +2921,190 @@ public class DataWedgePlugin extends Plugin {
         }
     }
 
+    private JSObject buildVersionInfo(DataWedgeVersion version) {
+        JSObject result = new JSObject();
+        result.put("version", version.getOriginalString());
+        result.put("major", version.getMajor());
+        result.put("minor", version.getMinor());
+        result.put("patch", version.getPatch());
+        result.put("build", version.getBuild());
+        
+        // Add supported features
+        JSONArray features = new JSONArray();
+        for (DataWedgeFeature feature : DataWedgeFeature.values()) {
+            if (version.supports(feature)) {
+                features.put(feature.toString());
+            }
+        }
+        result.put("supportedFeatures", features);
+        return result;
+    }
+    
+    @PluginMethod
+    public void getDeviceSnapshot(PluginCall call) {
+        int timeoutMs = call.getInt("timeoutMs", 3000);
+        
+        DeviceSnapshot snapshot = new DeviceSnapshot(call, Arrays.asList(
+            "versionInfo", "datawedgeStatus", "activeProfile", "scannerStatus", "scanners", "profiles"));
+        Map<String, ResultWaiter> waiters = new HashMap<>();
+        
+        // Register every waiter before sending anything so no reply can be missed
+        if (detectedVersion != null) {
+            snapshot.complete("versionInfo", buildVersionInfo(detectedVersion));
+        } else {
+            awaitSnapshotField(snapshot, waiters, "versionInfo", "com.symbol.datawedge.api.RESULT_GET_VERSION_INFO", bundle -> {
+                Bundle versionInfo = bundle.getBundle("com.symbol.datawedge.api.RESULT_GET_VERSION_INFO");
+                DataWedgeVersion version = versionInfo != null ? DataWedgeVersion.parse(versionInfo.getString("DATAWEDGE")) : null;
+                if (version == null) {
+                    throw new IllegalStateException("Version info missing DATAWEDGE entry");
+                }
+                detectedVersion = version;
+                return buildVersionInfo(version);
+            });
+        }
+        awaitSnapshotField(snapshot, waiters, "datawedgeStatus", "com.symbol.datawedge.api.RESULT_GET_DATAWEDGE_STATUS", bundle -> {
+            JSObject status = new JSObject();
+            status.put("isEnabled", "ENABLED".equals(bundle.getString("com.symbol.datawedge.api.RESULT_GET_DATAWEDGE_STATUS")));
+            return status;
+        });
+        awaitSnapshotField(snapshot, waiters, "activeProfile", "com.symbol.datawedge.api.RESULT_GET_ACTIVE_PROFILE",
+            bundle -> bundle.getString("com.symbol.datawedge.api.RESULT_GET_ACTIVE_PROFILE", ""));
+        awaitSnapshotField(snapshot, waiters, "scannerStatus", "com.symbol.datawedge.api.RESULT_SCANNER_STATUS",
+            bundle -> bundle.getString("com.symbol.datawedge.api.RESULT_SCANNER_STATUS", "UNKNOWN"));
+        awaitSnapshotField(snapshot, waiters, "scanners", "com.symbol.datawedge.api.RESULT_ENUMERATE_SCANNERS", bundle -> {
+            JSONArray scanners = buildScannersArray(bundle);
+            if (scanners == null) {
+                throw new IllegalStateException("Failed to enumerate scanners");
+            }
+            return scanners;
+        });
+        awaitSnapshotField(snapshot, waiters, "profiles", "com.symbol.datawedge.api.RESULT_GET_PROFILES_LIST",
+            bundle -> toJSONArray(bundle.getStringArray("com.symbol.datawedge.api.RESULT_GET_PROFILES_LIST")));
+        
+        // Queries do not hold command queue slots, so all of these go out back to back
+        for (String query : new String[] {
+            "GET_VERSION_INFO", "GET_DATAWEDGE_STATUS", "GET_ACTIVE_PROFILE",
+            "GET_SCANNER_STATUS", "ENUMERATE_SCANNERS", "GET_PROFILES_LIST" }) {
+            if ("GET_VERSION_INFO".equals(query) && !waiters.containsKey("versionInfo")) {
+                continue;
+            }
+            Intent i = createDataWedgeIntent();
+            i.putExtra("com.symbol.datawedge.api." + query, "");
+            sendQuery(i);
+        }
+        
+        snapshot.scheduleDeadline(mainHandler, timeoutMs, () -> {
+            for (Map.Entry<String, ResultWaiter> entry : waiters.entrySet()) {
+                removeResultWaiter(entry.getKey(), entry.getValue());
+            }
+        });
+        
+        Log.d(TAG, "Requested device snapshot");
+    }
+    
+    private void awaitSnapshotField(DeviceSnapshot snapshot, Map<String, ResultWaiter> waiters,
+                                    String field, String resultKey, ResultConverter converter) {
+        ResultWaiter waiter = bundle -> {
+            try {
+                snapshot.complete(field, converter.convert(bundle));
+            } catch (Exception e) {
+                snapshot.fail(field, e.getMessage());
+            }
+            return true;
+        };
+        waiters.put(field, waiter);
+        addResultWaiter(resultKey, waiter);
+    }
+    
+    private void addResultWaiter(String resultKey, ResultWaiter waiter) {
+        synchronized (resultWaiters) {
+            List<ResultWaiter> waiters = resultWaiters.get(resultKey);
+            if (waiters == null) {
+                waiters = new ArrayList<>();
+                resultWaiters.put(resultKey, waiters);
+            }
+            waiters.add(waiter);
+        }
+    }
+    
+    private void removeResultWaiter(String resultKey, ResultWaiter waiter) {
+        synchronized (resultWaiters) {
+            List<ResultWaiter> waiters = resultWaiters.get(resultKey);
+            if (waiters != null) {
+                waiters.remove(waiter);
+                if (waiters.isEmpty()) {
+                    resultWaiters.remove(resultKey);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Offer a result to the waiters for its keys. Returns true if a waiter consumed it.
+     */
+    private boolean dispatchResultWaiters(Bundle bundle) {
+        List<ResultWaiter> ready = new ArrayList<>();
+        synchronized (resultWaiters) {
+            if (resultWaiters.isEmpty()) {
+                return false;
+            }
+            for (String key : bundle.keySet()) {
+                List<ResultWaiter> waiters = resultWaiters.get(key);
+                if (waiters != null) {
+                    ready.addAll(waiters);
+                }
+            }
+        }
+        
+        boolean consumed = false;
+        for (ResultWaiter waiter : ready) {
+            consumed |= waiter.consumes(bundle);
+            if (waiter.onResult(bundle)) {
+                for (String key : bundle.keySet()) {
+                    removeResultWaiter(key, waiter);
+                }
+            }
+        }
+        return consumed;
+    }
+    
     private void registerResultReceiver() {
-        if (resultReceiver != null) {
+        if (resultListener != null) {
             return; // Already registered
         }
         
-        resultReceiver = new BroadcastReceiver() {
+        resultListener = new DataWedgeBroadcastHub.Listener() {
             @Override
-            public void onReceive(Context context, Intent intent) {
+            public void onBroadcast(DataWedgeBroadcastHub.Broadcast broadcast) {
+                Intent intent = broadcast.intent;
                 String action = intent.getAction();
                 if (!"com.symbol.datawedge.api.RESULT_ACTION".equals(action)) {
                     return;
                 }
                 
-                Bundle bundle = intent.getExtras();
+                Bundle bundle = broadcast.extras;
                 if (bundle == null) {
                     return;
                 }
+                recordBroadcast("result", intent);
+                
+                // Replayed results only feed the state trackers. They answer queries of the
+                // recording session, not the live queue's commands or this session's pending calls.
+                if (broadcast.isReplayed()) {
+                    trackReplayedResult(bundle);
+                    return;
+                }
+                
+                // Acknowledgements for queued commands (SEND_RESULT / COMMAND_IDENTIFIER) are settled by
+                // the shared queue itself, and answers to DataWedgeNative queries belong to it alone
+                if (DataWedgeCommandQueue.isQueueIdentifier(bundle.getString(DataWedgeCommandQueue.EXTRA_COMMAND_IDENTIFIER))
+                        || DataWedgeNative.isNativeResult(bundle)) {
+                    return;
+                }
+                
+                if (dispatchResultWaiters(bundle)) {
+                    return;
+                }
                 
                 // Handle enumerate scanners response
                 if (bundle.containsKey("com.symbol.datawedge.api.RESULT_ENUMERATE_SCANNERS")) {
@@ -1489,54 +3158,33 @@ public class DataWedgePlugin extends Plugin {
             }
         };
         
-        IntentFilter filter = new IntentFilter();
-        filter.addAction("com.symbol.datawedge.api.RESULT_ACTION");
-        filter.addCategory(Intent.CATEGORY_DEFAULT);
-        getContext().registerReceiver(resultReceiver, filter);
-        
-        Log.d(TAG, "Result receiver registered");
+        broadcastHub.subscribe(DataWedgeBroadcastHub.Channel.RESULT, resultListener);
+        Log.d(TAG, "Result listener subscribed");
+    }
+    
+    private void trackReplayedResult(Bundle bundle) {
+        String activeProfile = bundle.getString("com.symbol.datawedge.api.RESULT_GET_ACTIVE_PROFILE");
+        if (activeProfile != null) {
+            scannerState.onActiveProfile(activeProfile, "query");
+        }
+        String scannerStatus = bundle.getString("com.symbol.datawedge.api.RESULT_SCANNER_STATUS");
+        if (scannerStatus != null) {
+            scannerState.onScannerStatus(scannerStatus, null, "query");
+        }
     }
     
     private void handleEnumerateScannersResult(Bundle bundle) {
         if (pendingEnumerateCall == null) return;
         
         try {
-            JSONArray scannerArray = new JSONArray();
-            
             // Debug: Log bundle keys
             for (String key : bundle.keySet()) {
                 Log.d(TAG, "Bundle key: " + key + " = " + bundle.get(key));
             }
             
-            // The scanners are returned directly as an array
-            Parcelable[] scannerList = bundle.getParcelableArray("com.symbol.datawedge.api.RESULT_ENUMERATE_SCANNERS");
-            
-            if (scannerList == null) {
-                // Try alternate keys
-                scannerList = bundle.getParcelableArray("SCANNER_LIST");
-            }
+            JSONArray scannerArray = buildScannersArray(bundle);
             
-            if (scannerList != null) {
-                Log.d(TAG, "Processing " + scannerList.length + " scanners");
-                for (Parcelable parcelable : scannerList) {
-                    if (parcelable instanceof Bundle) {
-                        Bundle scanner = (Bundle) parcelable;
-                        JSObject scannerObj = new JSObject();
-                        scannerObj.put("scannerName", scanner.getString("SCANNER_NAME", ""));
-                        scannerObj.put("scannerIndex", scanner.getString("SCANNER_INDEX", ""));
-                        scannerObj.put("scannerConnectionState", scanner.getBoolean("SCANNER_CONNECTION_STATE", false));
-                        scannerObj.put("scannerIdentifier", scanner.getString("SCANNER_IDENTIFIER", ""));
-                        scannerObj.put("isDefaultScanner", scanner.getBoolean("SCANNER_DEFAULT", false));
-                        
-                        // Create simplified properties for frontend
-                        scannerObj.put("name", scanner.getString("SCANNER_NAME", ""));
-                        scannerObj.put("index", scanner.getInt("SCANNER_INDEX", -1));
-                        scannerObj.put("connected", scanner.getBoolean("SCANNER_CONNECTION_STATE", false));
-                        
-                        scannerArray.put(scannerObj);
-                    }
-                }
-                
+            if (scannerArray != null) {
                 JSObject result = new JSObject();
                 result.put("scanners", scannerArray);
                 pendingEnumerateCall.resolve(result);
@@ -1551,7 +3199,58 @@ public class DataWedgePlugin extends Plugin {
         pendingEnumerateCall = null;
     }
     
+    private JSONArray buildScannersArray(Bundle bundle) {
+        // The scanners are returned directly as an array
+        Parcelable[] scannerList = bundle.getParcelableArray("com.symbol.datawedge.api.RESULT_ENUMERATE_SCANNERS");
+        
+        if (scannerList == null) {
+            // Try alternate keys
+            scannerList = bundle.getParcelableArray("SCANNER_LIST");
+        }
+        
+        if (scannerList == null) {
+            return null;
+        }
+        
+        Log.d(TAG, "Processing " + scannerList.length + " scanners");
+        JSONArray scannerArray = new JSONArray();
+        for (Parcelable parcelable : scannerList) {
+            if (parcelable instanceof Bundle) {
+                Bundle scanner = (Bundle) parcelable;
+                JSObject scannerObj = new JSObject();
+                scannerObj.put("scannerName", scanner.getString("SCANNER_NAME", ""));
+                scannerObj.put("scannerIndex", scanner.getString("SCANNER_INDEX", ""));
+                scannerObj.put("scannerConnectionState", scanner.getBoolean("SCANNER_CONNECTION_STATE", false));
+                scannerObj.put("scannerIdentifier", scanner.getString("SCANNER_IDENTIFIER", ""));
+                scannerObj.put("isDefaultScanner", scanner.getBoolean("SCANNER_DEFAULT", false));
+                
+                // Create simplified properties for frontend
+                scannerObj.put("name", scanner.getString("SCANNER_NAME", ""));
+                scannerObj.put("index", scanner.getInt("SCANNER_INDEX", -1));
+                scannerObj.put("connected", scanner.getBoolean("SCANNER_CONNECTION_STATE", false));
+                
+                scannerArray.put(scannerObj);
+            }
+        }
+        return scannerArray;
+    }
+    
+    private JSONArray toJSONArray(String[] values) {
+        JSONArray array = new JSONArray();
+        if (values != null) {
+            for (String value : values) {
+                array.put(value);
+            }
+        }
+        return array;
+    }
+    
     private void handleActiveProfileResult(Bundle bundle) {
+        String activeProfile = bundle.getString("com.symbol.datawedge.api.RESULT_GET_ACTIVE_PROFILE");
+        if (activeProfile != null) {
+            scannerState.onActiveProfile(activeProfile, "query");
+        }
+        
         if (pendingProfileCall == null) return;
         
         try {
@@ -1593,6 +3292,11 @@ public class DataWedgePlugin extends Plugin {
     }
     
     private void handleScannerStatusResult(Bundle bundle) {
+        String scannerStatus = bundle.getString("com.symbol.datawedge.api.RESULT_SCANNER_STATUS");
+        if (scannerStatus != null) {
+            scannerState.onScannerStatus(scannerStatus, null, "query");
+        }
+        
         if (pendingScannerStatusCall == null) return;
         
         try {
@@ -1647,9 +3351,21 @@ public class DataWedgePlugin extends Plugin {
             
             // Otherwise it's a general config request
             if (pendingConfigCall != null && configBundle != null) {
-                // Convert bundle to JSObject
-                JSObject configResult = bundleToJSObject(configBundle);
-                pendingConfigCall.resolve(configResult);
+                Bundle projected = ConfigProjection.fromCall(pendingConfigCall).apply(configBundle);
+                
+                if ("json".equals(pendingConfigCall.getString("format"))) {
+                    // Stream straight to a JSON string instead of building a JSObject tree. Android's
+                    // org.json cannot embed raw JSON, so the bridge escapes this string once more;
+                    // the caller pays that and a JSON.parse to skip the per-key tree on this side.
+                    JSObject result = new JSObject();
+                    result.put("profileName", configBundle.getString("PROFILE_NAME"));
+                    result.put("json", BundleJsonWriter.toJson(projected));
+                    pendingConfigCall.resolve(result);
+                } else {
+                    // Convert bundle to JSObject
+                    JSObject configResult = bundleToJSObject(projected);
+                    pendingConfigCall.resolve(configResult);
+                }
                 pendingConfigCall = null;
             }
         } catch (Exception e) {
@@ -1794,13 +3510,13 @@ public class DataWedgePlugin extends Plugin {
         versionDetectionAttempted = true;
         
         // Register receiver for version info
-        if (versionReceiver == null) {
-            versionReceiver = new BroadcastReceiver() {
+        if (versionListener == null) {
+            versionListener = new DataWedgeBroadcastHub.Listener() {
                 @Override
-                public void onReceive(Context context, Intent intent) {
-                    String action = intent.getAction();
+                public void onBroadcast(DataWedgeBroadcastHub.Broadcast broadcast) {
+                    String action = broadcast.intent.getAction();
                     if ("com.symbol.datawedge.api.RESULT_ACTION".equals(action)) {
-                        Bundle bundle = intent.getExtras();
+                        Bundle bundle = broadcast.extras;
                         if (bundle != null && bundle.containsKey("com.symbol.datawedge.api.RESULT_GET_VERSION_INFO")) {
                             Bundle versionInfo = bundle.getBundle("com.symbol.datawedge.api.RESULT_GET_VERSION_INFO");
                             if (versionInfo != null) {
@@ -1815,64 +3531,113 @@ public class DataWedgePlugin extends Plugin {
                 }
             };
             
-            IntentFilter filter = new IntentFilter();
-            filter.addAction("com.symbol.datawedge.api.RESULT_ACTION");
-            filter.addCategory(Intent.CATEGORY_DEFAULT);
-            getContext().registerReceiver(versionReceiver, filter);
+            broadcastHub.subscribe(DataWedgeBroadcastHub.Channel.RESULT, versionListener);
         }
         
         // Request version info
-        Intent i = new Intent();
-        i.setAction("com.symbol.datawedge.api.ACTION");
+        Intent i = createDataWedgeIntent();
         i.putExtra("com.symbol.datawedge.api.GET_VERSION_INFO", "");
-        getContext().sendBroadcast(i);
+        sendQuery(i);
         
         Log.d(TAG, "Requested DataWedge version info");
     }
 
+    @Override
+    protected void handleOnNewIntent(Intent intent) {
+        super.handleOnNewIntent(intent);
+        
+        // Activity delivery mode: DataWedge started our (singleTask) activity with the scan intent.
+        // Fan it out through the hub so it takes the same path as a broadcast scan.
+        if (intent == null || intent.getAction() == null) {
+            return;
+        }
+        broadcastHub.deliverActivityIntent(intent);
+    }
+    
     @Override
     protected void handleOnDestroy() {
         super.handleOnDestroy();
         
-        if (scanReceiver != null && isListenerRegistered) {
-            try {
-                getContext().unregisterReceiver(scanReceiver);
-                Log.d(TAG, "Scan broadcast receiver unregistered");
-            } catch (Exception e) {
-                Log.e(TAG, "Error unregistering scan receiver", e);
-            }
-            scanReceiver = null;
-            isListenerRegistered = false;
+        // Send the final state of any debounced runtime commands. The queue is shared by the
+        // process and outlives this instance, so they still go out in order.
+        commandCoalescer.flush();
+        notificationCoalescer.clear();
+        
+        RfidTagStream stream = rfidStream;
+        if (stream != null) {
+            stream.stop();
+            rfidStream = null;
         }
         
-        if (versionReceiver != null) {
-            try {
-                getContext().unregisterReceiver(versionReceiver);
-                Log.d(TAG, "Version broadcast receiver unregistered");
-            } catch (Exception e) {
-                Log.e(TAG, "Error unregistering version receiver", e);
-            }
-            versionReceiver = null;
+        ScanLoadGenerator generator = scanLoad;
+        if (generator != null) {
+            generator.stop();
+            scanLoad = null;
         }
         
-        if (resultReceiver != null) {
-            try {
-                getContext().unregisterReceiver(resultReceiver);
-                Log.d(TAG, "Result broadcast receiver unregistered");
-            } catch (Exception e) {
-                Log.e(TAG, "Error unregistering result receiver", e);
-            }
-            resultReceiver = null;
+        BroadcastReplayer replayer = broadcastReplayer;
+        if (replayer != null) {
+            replayer.stop();
+            broadcastReplayer = null;
+        }
+        BroadcastRecorder recorder = broadcastRecorder;
+        if (recorder != null) {
+            recorder.stop(null);
+            broadcastRecorder = null;
         }
         
-        if (notificationReceiver != null && isNotificationListenerRegistered) {
-            try {
-                getContext().unregisterReceiver(notificationReceiver);
-                Log.d(TAG, "Notification broadcast receiver unregistered");
-            } catch (Exception e) {
-                Log.e(TAG, "Error unregistering notification receiver", e);
-            }
-            notificationReceiver = null;
+        // Queued before the IO executor shuts down, so the last segment is closed cleanly
+        ScanFileSink sink = scanFileSink;
+        if (sink != null) {
+            sink.close(null);
+            scanFileSink = null;
+        }
+        
+        if (scanOnceTimeout != null) {
+            mainHandler.removeCallbacks(scanOnceTimeout);
+            scanOnceTimeout = null;
+        }
+        if (pendingScanOnceCall != null) {
+            pendingScanOnceCall.reject("Plugin destroyed before a scan was received");
+            pendingScanOnceCall = null;
+        }
+        // Give up this instance's notification registrations; DataWedge is only told about types
+        // no other WebView still holds
+        for (String notificationType : broadcastHub.getNotificationSubscriptions().releaseAll(notificationSubscriptions)) {
+            sendNotificationRegistration(notificationType, null, false);
+        }
+        
+        if (ioExecutor != null) {
+            // Let queued writes finish so export files are closed cleanly
+            ioExecutor.shutdown();
+            ioExecutor = null;
+        }
+        
+        // The hub unregisters a receiver once its last subscriber is gone
+        for (ScanChannel channel : scanChannels.values()) {
+            broadcastHub.unsubscribeAction(channel.action, channel.category, channel.listener);
+        }
+        scanChannels.clear();
+        if (scanListener != null) {
+            broadcastHub.unsubscribe(DataWedgeBroadcastHub.Channel.SCAN, scanListener);
+            scanListener = null;
+            isListenerRegistered = false;
+        }
+        if (versionListener != null) {
+            broadcastHub.unsubscribe(DataWedgeBroadcastHub.Channel.RESULT, versionListener);
+            versionListener = null;
+        }
+        if (resultListener != null) {
+            broadcastHub.unsubscribe(DataWedgeBroadcastHub.Channel.RESULT, resultListener);
+            resultListener = null;
+        }
+        if (packageListener != null) {
+            broadcastHub.unsubscribe(DataWedgeBroadcastHub.Channel.PACKAGE, packageListener);
+            packageListener = null;
+        }
+        if (notificationListener != null) {
+            broadcastHub.unsubscribe(DataWedgeBroadcastHub.Channel.NOTIFICATION, notificationListener);
+            notificationListener = null;
             isNotificationListenerRegistered = false;
         }
     }
@@ -0,0 +1,100 @@
+package gr.connectit.datawedge.plugin;
+
+import android.content.Intent;
+
+import com.getcapacitor.JSObject;
+
+/**
+ * A decoded scan intent, as delivered to native {@link DataWedgeListener}s.
+ * Built once per broadcast and shared by every listener; treat it as read-only.
+ */
+public final class DataWedgeScan {
+    private final String data;
+    private final String labelType;
+    private final String source;
+    private final long timestamp;
+    private final long receivedNanos;
+    private final Intent intent;
+    private final boolean synthetic;
+    private JSObject gs1;
+    private boolean gs1Parsed;
+
+    DataWedgeScan(Intent intent, long receivedNanos, long timestamp) {
+        this.intent = intent;
+        this.data = intent.getStringExtra("com.symbol.datawedge.data_string");
+        String labelType = intent.getStringExtra("com.symbol.datawedge.label_type");
+        this.labelType = labelType != null ? labelType : "UNKNOWN";
+        this.source = intent.getStringExtra("com.symbol.datawedge.source");
+        this.receivedNanos = receivedNanos;
+        this.timestamp = timestamp;
+        this.synthetic = ScanLoadGenerator.isSynthetic(intent);
+    }
+
+    /**
+     * Intent action the scan arrived with: the default scan action or a named scan channel's
+     */
+    public String getAction() {
+        return intent.getAction();
+    }
+
+    /**
+     * Decoded data, or null for captures without a data string (e.g. multi-barcode)
+     */
+    public String getData() {
+        return data;
+    }
+
+    /**
+     * DataWedge label type, e.g. LABEL-TYPE-EAN13, or UNKNOWN
+     */
+    public String getLabelType() {
+        return labelType;
+    }
+
+    /**
+     * Input source reported by DataWedge (scanner, msr, rfid, ...), may be null
+     */
+    public String getSource() {
+        return source;
+    }
+
+    /**
+     * Wall clock time the broadcast was received, in ms
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * SystemClock.elapsedRealtimeNanos() at receipt, for latency measurements
+     */
+    public long getReceivedNanos() {
+        return receivedNanos;
+    }
+
+    /**
+     * The original scan intent, for extras not exposed above
+     */
+    public Intent getIntent() {
+        return intent;
+    }
+
+    /**
+     * Whether the scan was injected by the diagnostic load generator rather than decoded by DataWedge
+     */
+    boolean isSynthetic() {
+        return synthetic;
+    }
+
+    /**
+     * GS1 element strings of the data, parsed on first use; null if the data does not look like GS1.
+     * Shared by every plugin instance, so callers must not modify it.
+     */
+    synchronized JSObject getGs1() {
+        if (!gs1Parsed) {
+            gs1 = Gs1Parser.looksLikeGs1(data, labelType) ? Gs1Parser.parse(data) : null;
+            gs1Parsed = true;
+        }
+        return gs1;
+    }
+}
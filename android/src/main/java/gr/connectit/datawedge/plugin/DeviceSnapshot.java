@@ -0,0 +1,124 @@
+package gr.connectit.datawedge.plugin;
+
+import android.os.Handler;
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import org.json.JSONArray;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Aggregates the answers to a fan-out of DataWedge status queries into one result.
+ *
+ * Fields are filled in as their replies arrive. The call resolves once every field has
+ * answered or the deadline passes, whichever comes first, with per-field timing and the
+ * list of fields that did not answer. The snapshot owns its deadline and cancels it when
+ * it settles early.
+ */
+class DeviceSnapshot {
+    private final PluginCall call;
+    private final long startedAt = SystemClock.elapsedRealtime();
+    private final JSObject fields = new JSObject();
+    private final JSObject timings = new JSObject();
+    private final JSObject errors = new JSObject();
+    private final Set<String> outstanding = new LinkedHashSet<>();
+    private boolean settled = false;
+    private Handler deadlineHandler;
+    private Runnable deadline;
+
+    DeviceSnapshot(PluginCall call, Collection<String> expectedFields) {
+        this.call = call;
+        this.outstanding.addAll(expectedFields);
+    }
+
+    /**
+     * Settle after timeoutMs unless every field answers first. onExpired runs just before
+     * a deadline settle, e.g. to drop the waiters of fields that never answered.
+     */
+    synchronized void scheduleDeadline(Handler handler, long timeoutMs, Runnable onExpired) {
+        if (settled) {
+            return;
+        }
+        deadlineHandler = handler;
+        deadline = () -> {
+            onExpired.run();
+            settle();
+        };
+        handler.postDelayed(deadline, timeoutMs);
+    }
+
+    synchronized boolean isSettled() {
+        return settled;
+    }
+
+    /**
+     * Record the value of a field. Returns true if the snapshot settled as a result.
+     */
+    boolean complete(String field, Object value) {
+        synchronized (this) {
+            if (settled || !outstanding.remove(field)) {
+                return false;
+            }
+            fields.put(field, value);
+            timings.put(field, SystemClock.elapsedRealtime() - startedAt);
+            if (!outstanding.isEmpty()) {
+                return false;
+            }
+        }
+        settle();
+        return true;
+    }
+
+    /**
+     * Record that a field could not be answered. Returns true if the snapshot settled as a result.
+     */
+    boolean fail(String field, String error) {
+        synchronized (this) {
+            if (settled || !outstanding.remove(field)) {
+                return false;
+            }
+            errors.put(field, error);
+            timings.put(field, SystemClock.elapsedRealtime() - startedAt);
+            if (!outstanding.isEmpty()) {
+                return false;
+            }
+        }
+        settle();
+        return true;
+    }
+
+    /**
+     * Resolve with whatever has arrived so far
+     */
+    void settle() {
+        JSObject result;
+        synchronized (this) {
+            if (settled) {
+                return;
+            }
+            settled = true;
+            if (deadlineHandler != null) {
+                deadlineHandler.removeCallbacks(deadline);
+            }
+
+            result = fields;
+            JSONArray missing = new JSONArray();
+            for (String field : outstanding) {
+                missing.put(field);
+            }
+            result.put("timings", timings);
+            result.put("missing", missing);
+            result.put("complete", outstanding.isEmpty() && errors.length() == 0);
+            result.put("durationMs", SystemClock.elapsedRealtime() - startedAt);
+            if (errors.length() > 0) {
+                result.put("errors", errors);
+            }
+        }
+        call.resolve(result);
+    }
+}
@@ -0,0 +1,173 @@
+package gr.connectit.datawedge.plugin;
+
+/**
+ * Open-addressing hash table of RFID tags keyed by a 64-bit hash of the EPC.
+ *
+ * Per-tag aggregates live in parallel primitive arrays indexed by slot, so a repeated read
+ * of a known tag costs one hash, a short linear probe and a few array writes with no
+ * allocation. The EPC string is kept alongside to confirm matches and for reporting.
+ * Slots are appended to a dirty list the first time they are touched after a drain,
+ * which makes delta batches proportional to the tags read rather than the table size.
+ */
+class EpcTable {
+    static final int NO_RSSI = Integer.MIN_VALUE;
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private long[] keys;
+    private String[] epcs;
+    private int[] counts;
+    private int[] countsAtDrain;
+    private long[] firstSeen;
+    private long[] lastSeen;
+    private int[] peakRssi;
+    private boolean[] dirty;
+    private int[] dirtySlots;
+    private int dirtyCount;
+    private int size;
+    private long totalReads;
+
+    EpcTable() {
+        allocate(INITIAL_CAPACITY);
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        epcs = new String[capacity];
+        counts = new int[capacity];
+        countsAtDrain = new int[capacity];
+        firstSeen = new long[capacity];
+        lastSeen = new long[capacity];
+        peakRssi = new int[capacity];
+        dirty = new boolean[capacity];
+        dirtySlots = new int[capacity];
+        dirtyCount = 0;
+        size = 0;
+    }
+
+    /**
+     * Record one read. Returns true if the EPC had not been seen before.
+     */
+    boolean record(String epc, long timestamp, int rssi) {
+        if ((size + 1) * 2 > keys.length) {
+            resize();
+        }
+
+        long key = hash(epc);
+        int mask = keys.length - 1;
+        int slot = (int) (key ^ (key >>> 32)) & mask;
+        while (epcs[slot] != null) {
+            if (keys[slot] == key && epcs[slot].equals(epc)) {
+                counts[slot]++;
+                lastSeen[slot] = timestamp;
+                if (rssi != NO_RSSI && rssi > peakRssi[slot]) {
+                    peakRssi[slot] = rssi;
+                }
+                markDirty(slot);
+                totalReads++;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        epcs[slot] = epc;
+        counts[slot] = 1;
+        countsAtDrain[slot] = 0;
+        firstSeen[slot] = timestamp;
+        lastSeen[slot] = timestamp;
+        peakRssi[slot] = rssi;
+        markDirty(slot);
+        size++;
+        totalReads++;
+        return true;
+    }
+
+    private void markDirty(int slot) {
+        if (!dirty[slot]) {
+            dirty[slot] = true;
+            dirtySlots[dirtyCount++] = slot;
+        }
+    }
+
+    /**
+     * Visits tags touched since the last drain and clears the dirty list.
+     * maxTags bounds one batch; the remainder stays dirty for the next drain.
+     */
+    int drain(Visitor visitor, int maxTags) {
+        int emitted = Math.min(dirtyCount, maxTags);
+        for (int i = 0; i < emitted; i++) {
+            int slot = dirtySlots[i];
+            visitor.visit(epcs[slot], counts[slot], counts[slot] - countsAtDrain[slot],
+                firstSeen[slot], lastSeen[slot], peakRssi[slot], countsAtDrain[slot] == 0);
+            countsAtDrain[slot] = counts[slot];
+            dirty[slot] = false;
+        }
+        // Shift any remainder to the front
+        System.arraycopy(dirtySlots, emitted, dirtySlots, 0, dirtyCount - emitted);
+        dirtyCount -= emitted;
+        return emitted;
+    }
+
+    interface Visitor {
+        void visit(String epc, int count, int newReads, long firstSeen, long lastSeen, int peakRssi, boolean isNew);
+    }
+
+    int size() {
+        return size;
+    }
+
+    int pendingCount() {
+        return dirtyCount;
+    }
+
+    long getTotalReads() {
+        return totalReads;
+    }
+
+    private void resize() {
+        long[] oldKeys = keys;
+        String[] oldEpcs = epcs;
+        int[] oldCounts = counts;
+        int[] oldCountsAtDrain = countsAtDrain;
+        long[] oldFirstSeen = firstSeen;
+        long[] oldLastSeen = lastSeen;
+        int[] oldPeakRssi = peakRssi;
+        boolean[] oldDirty = dirty;
+
+        allocate(oldKeys.length * 2);
+        int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldEpcs[i] == null) {
+                continue;
+            }
+            int slot = (int) (oldKeys[i] ^ (oldKeys[i] >>> 32)) & mask;
+            while (epcs[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            keys[slot] = oldKeys[i];
+            epcs[slot] = oldEpcs[i];
+            counts[slot] = oldCounts[i];
+            countsAtDrain[slot] = oldCountsAtDrain[i];
+            firstSeen[slot] = oldFirstSeen[i];
+            lastSeen[slot] = oldLastSeen[i];
+            peakRssi[slot] = oldPeakRssi[i];
+            if (oldDirty[i]) {
+                markDirty(slot);
+            }
+            size++;
+        }
+    }
+
+    /**
+     * 64-bit FNV-1a over the EPC characters
+     */
+    private static long hash(String epc) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < epc.length(); i++) {
+            h ^= epc.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return h;
+    }
+}
@@ -0,0 +1,365 @@
+package gr.connectit.datawedge.plugin;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Single-pass, table-driven parser for GS1 element strings (GS1-128, GS1 DataMatrix,
+ * GS1 QR, GS1 DataBar).
+ *
+ * The AI table gives, per AI, its length, whether the data is fixed or variable length,
+ * its maximum length and how the value is interpreted. Variable-length fields end at a
+ * GS (FNC1) separator, at their maximum length or at the end of the data. A leading AIM
+ * symbology identifier (]C1, ]d2, ]Q3, ]e0) and leading FNC1 are skipped.
+ */
+final class Gs1Parser {
+    static final char GS = '\u001D';
+
+    private static final int KIND_TEXT = 0;
+    private static final int KIND_CHECK_DIGIT = 1;
+    private static final int KIND_DATE = 2;
+    private static final int KIND_DECIMAL = 3;
+    private static final int KIND_CURRENCY_DECIMAL = 4;
+    private static final int KIND_NUMERIC = 5;
+
+    private static final class AiSpec {
+        final int aiLength;
+        final boolean fixed;
+        final int length;
+        final int kind;
+        final String title;
+
+        AiSpec(int aiLength, boolean fixed, int length, int kind, String title) {
+            this.aiLength = aiLength;
+            this.fixed = fixed;
+            this.length = length;
+            this.kind = kind;
+            this.title = title;
+        }
+    }
+
+    // Keyed by the AI itself, or by its first three digits for the 4-digit families with a decimal indicator (310n, 392n, ...)
+    private static final Map<String, AiSpec> TABLE = new HashMap<>();
+
+    private static void fixed(String ai, int length, int kind, String title) {
+        TABLE.put(ai, new AiSpec(ai.length(), true, length, kind, title));
+    }
+
+    private static void variable(String ai, int maxLength, int kind, String title) {
+        TABLE.put(ai, new AiSpec(ai.length(), false, maxLength, kind, title));
+    }
+
+    private static void family(String prefix, boolean fixed, int length, int kind, String title) {
+        TABLE.put(prefix, new AiSpec(4, fixed, length, kind, title));
+    }
+
+    static {
+        fixed("00", 18, KIND_CHECK_DIGIT, "SSCC");
+        fixed("01", 14, KIND_CHECK_DIGIT, "GTIN");
+        fixed("02", 14, KIND_CHECK_DIGIT, "CONTENT");
+        variable("10", 20, KIND_TEXT, "BATCH/LOT");
+        fixed("11", 6, KIND_DATE, "PROD DATE");
+        fixed("12", 6, KIND_DATE, "DUE DATE");
+        fixed("13", 6, KIND_DATE, "PACK DATE");
+        fixed("15", 6, KIND_DATE, "BEST BEFORE");
+        fixed("16", 6, KIND_DATE, "SELL BY");
+        fixed("17", 6, KIND_DATE, "USE BY");
+        fixed("20", 2, KIND_NUMERIC, "VARIANT");
+        variable("21", 20, KIND_TEXT, "SERIAL");
+        variable("22", 20, KIND_TEXT, "CPV");
+        variable("235", 28, KIND_TEXT, "TPX");
+        variable("240", 30, KIND_TEXT, "ADDITIONAL ID");
+        variable("241", 30, KIND_TEXT, "CUST. PART No.");
+        variable("242", 6, KIND_NUMERIC, "MTO VARIANT");
+        variable("243", 20, KIND_TEXT, "PCN");
+        variable("250", 30, KIND_TEXT, "SECONDARY SERIAL");
+        variable("251", 30, KIND_TEXT, "REF. TO SOURCE");
+        variable("253", 30, KIND_TEXT, "GDTI");
+        variable("254", 20, KIND_TEXT, "GLN EXTENSION COMPONENT");
+        variable("255", 25, KIND_NUMERIC, "GCN");
+        variable("30", 8, KIND_NUMERIC, "VAR. COUNT");
+        for (int p = 310; p <= 369; p++) {
+            if (p == 317 || p == 318 || p == 319 || p == 338 || p == 339) {
+                continue;
+            }
+            family(String.valueOf(p), true, 6, KIND_DECIMAL, "MEASURE");
+        }
+        variable("37", 8, KIND_NUMERIC, "COUNT");
+        family("390", false, 15, KIND_DECIMAL, "AMOUNT");
+        family("391", false, 18, KIND_CURRENCY_DECIMAL, "AMOUNT");
+        family("392", false, 15, KIND_DECIMAL, "PRICE");
+        family("393", false, 18, KIND_CURRENCY_DECIMAL, "PRICE");
+        family("394", true, 4, KIND_DECIMAL, "PRCNT OFF");
+        family("395", true, 6, KIND_DECIMAL, "PRICE/UoM");
+        variable("400", 30, KIND_TEXT, "ORDER NUMBER");
+        variable("401", 30, KIND_TEXT, "GINC");
+        fixed("402", 17, KIND_CHECK_DIGIT, "GSIN");
+        variable("403", 30, KIND_TEXT, "ROUTE");
+        for (int gln = 410; gln <= 417; gln++) {
+            fixed(String.valueOf(gln), 13, KIND_CHECK_DIGIT, "GLN");
+        }
+        variable("420", 20, KIND_TEXT, "SHIP TO POST");
+        variable("421", 12, KIND_TEXT, "SHIP TO POST");
+        fixed("422", 3, KIND_NUMERIC, "ORIGIN");
+        variable("423", 15, KIND_NUMERIC, "COUNTRY - INITIAL PROCESS");
+        fixed("424", 3, KIND_NUMERIC, "COUNTRY - PROCESS");
+        variable("425", 15, KIND_NUMERIC, "COUNTRY - DISASSEMBLY");
+        fixed("426", 3, KIND_NUMERIC, "COUNTRY - FULL PROCESS");
+        variable("427", 3, KIND_TEXT, "ORIGIN SUBDIVISION");
+        fixed("7001", 13, KIND_NUMERIC, "NSN");
+        variable("7002", 30, KIND_TEXT, "MEAT CUT");
+        fixed("7003", 10, KIND_NUMERIC, "EXPIRY TIME");
+        variable("7004", 4, KIND_NUMERIC, "ACTIVE POTENCY");
+        fixed("7006", 6, KIND_DATE, "FIRST FREEZE DATE");
+        variable("7007", 12, KIND_NUMERIC, "HARVEST DATE");
+        variable("7008", 3, KIND_TEXT, "AQUATIC SPECIES");
+        variable("7009", 10, KIND_TEXT, "FISHING GEAR TYPE");
+        variable("7010", 2, KIND_TEXT, "PROD METHOD");
+        variable("7020", 20, KIND_TEXT, "REFURB LOT");
+        variable("7021", 20, KIND_TEXT, "FUNC STAT");
+        variable("7022", 20, KIND_TEXT, "REV STAT");
+        variable("7023", 30, KIND_TEXT, "GIAI - ASSEMBLY");
+        fixed("8001", 14, KIND_NUMERIC, "DIMENSIONS");
+        variable("8002", 20, KIND_TEXT, "CMT No.");
+        variable("8003", 30, KIND_TEXT, "GRAI");
+        variable("8004", 30, KIND_TEXT, "GIAI");
+        fixed("8005", 6, KIND_NUMERIC, "PRICE PER UNIT");
+        fixed("8006", 18, KIND_NUMERIC, "ITIP");
+        variable("8007", 34, KIND_TEXT, "IBAN");
+        variable("8008", 12, KIND_NUMERIC, "PROD TIME");
+        variable("8010", 30, KIND_TEXT, "CPID");
+        variable("8011", 12, KIND_NUMERIC, "CPID SERIAL");
+        variable("8012", 20, KIND_TEXT, "VERSION");
+        variable("8013", 25, KIND_TEXT, "GMN");
+        fixed("8017", 18, KIND_CHECK_DIGIT, "GSRN - PROVIDER");
+        fixed("8018", 18, KIND_CHECK_DIGIT, "GSRN - RECIPIENT");
+        variable("8019", 10, KIND_NUMERIC, "SRIN");
+        variable("8020", 25, KIND_TEXT, "REF No.");
+        fixed("8026", 18, KIND_NUMERIC, "ITIP CONTENT");
+        variable("8110", 70, KIND_TEXT, "COUPON");
+        fixed("8111", 4, KIND_NUMERIC, "POINTS");
+        variable("8112", 70, KIND_TEXT, "COUPON");
+        variable("8200", 70, KIND_TEXT, "PRODUCT URL");
+        variable("90", 30, KIND_TEXT, "INTERNAL");
+        for (int internal = 91; internal <= 99; internal++) {
+            variable(String.valueOf(internal), 90, KIND_TEXT, "INTERNAL");
+        }
+    }
+
+    private Gs1Parser() {
+    }
+
+    /**
+     * Cheap pre-check so non-GS1 scans skip the parser entirely
+     */
+    static boolean looksLikeGs1(String data, String labelType) {
+        if (data == null || data.isEmpty()) {
+            return false;
+        }
+        if (data.startsWith("]C1") || data.startsWith("]d2") || data.startsWith("]Q3") || data.startsWith("]e0")
+            || data.charAt(0) == GS) {
+            return true;
+        }
+        if (labelType == null) {
+            return false;
+        }
+        String type = labelType.toUpperCase();
+        return type.contains("GS1") || type.contains("EAN128") || type.contains("UCC");
+    }
+
+    /**
+     * Parse an element string into its AIs. Parsing stops at the first unknown AI or
+     * malformed field; everything before it is still returned.
+     */
+    static JSObject parse(String data) {
+        JSObject result = new JSObject();
+        JSONArray elements = new JSONArray();
+        JSObject ais = new JSObject();
+        boolean valid = true;
+
+        int pos = 0;
+        int end = data.length();
+        if (data.startsWith("]") && end >= 3) {
+            result.put("symbologyId", data.substring(0, 3));
+            pos = 3;
+        }
+
+        while (pos < end) {
+            if (data.charAt(pos) == GS) {
+                pos++;
+                continue;
+            }
+
+            AiSpec spec = lookup(data, pos);
+            if (spec == null) {
+                result.put("error", "Unknown AI at position " + pos);
+                valid = false;
+                break;
+            }
+            String ai = data.substring(pos, Math.min(pos + spec.aiLength, end));
+            pos += spec.aiLength;
+            if (pos > end) {
+                result.put("error", "Truncated AI " + ai);
+                valid = false;
+                break;
+            }
+
+            int valueEnd;
+            if (spec.fixed) {
+                valueEnd = pos + spec.length;
+                if (valueEnd > end) {
+                    result.put("error", "AI " + ai + " expects " + spec.length + " characters");
+                    valid = false;
+                    break;
+                }
+            } else {
+                int limit = Math.min(end, pos + spec.length);
+                valueEnd = pos;
+                while (valueEnd < limit && data.charAt(valueEnd) != GS) {
+                    valueEnd++;
+                }
+            }
+            String value = data.substring(pos, valueEnd);
+            pos = valueEnd;
+
+            JSObject element = new JSObject();
+            element.put("ai", ai);
+            element.put("title", spec.title);
+            element.put("value", value);
+            String error = interpret(spec, ai, value, element);
+            if (error != null) {
+                element.put("valid", false);
+                element.put("error", error);
+                valid = false;
+            }
+            elements.put(element);
+            ais.put(ai, value);
+        }
+
+        result.put("elements", elements);
+        result.put("ais", ais);
+        result.put("valid", valid);
+        return result;
+    }
+
+    private static AiSpec lookup(String data, int pos) {
+        for (int length = 2; length <= 4 && pos + length <= data.length(); length++) {
+            AiSpec spec = TABLE.get(data.substring(pos, pos + length));
+            if (spec != null && (spec.aiLength == length || spec.aiLength == length + 1)) {
+                return spec;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Adds typed fields for the AI kind. Returns an error message, or null if the value is valid.
+     */
+    private static String interpret(AiSpec spec, String ai, String value, JSObject element) {
+        if ((spec.kind == KIND_DECIMAL || spec.kind == KIND_CURRENCY_DECIMAL) && !isDigits(ai)) {
+            return "Invalid decimal point indicator";
+        }
+        switch (spec.kind) {
+            case KIND_CHECK_DIGIT:
+                if (!isDigits(value)) {
+                    return "Not numeric";
+                }
+                return hasValidCheckDigit(value) ? null : "Invalid check digit";
+            case KIND_NUMERIC:
+                return isDigits(value) ? null : "Not numeric";
+            case KIND_DATE:
+                if (!isDigits(value) || value.length() != 6) {
+                    return "Invalid date";
+                }
+                String date = toIsoDate(value);
+                if (date == null) {
+                    return "Invalid date";
+                }
+                element.put("date", date);
+                return null;
+            case KIND_DECIMAL:
+                if (!isDigits(value) || value.isEmpty()) {
+                    return "Not numeric";
+                }
+                element.put("decimal", toDecimal(value, ai.charAt(3) - '0'));
+                return null;
+            case KIND_CURRENCY_DECIMAL:
+                if (!isDigits(value) || value.length() < 4) {
+                    return "Not numeric";
+                }
+                element.put("currency", value.substring(0, 3));
+                element.put("decimal", toDecimal(value.substring(3), ai.charAt(3) - '0'));
+                return null;
+            default:
+                return null;
+        }
+    }
+
+    private static boolean isDigits(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * GS1 mod-10: weights 3,1,3,... from the digit left of the check digit
+     */
+    static boolean hasValidCheckDigit(String digits) {
+        int sum = 0;
+        int weight = 3;
+        for (int i = digits.length() - 2; i >= 0; i--) {
+            sum += (digits.charAt(i) - '0') * weight;
+            weight = weight == 3 ? 1 : 3;
+        }
+        int check = (10 - (sum % 10)) % 10;
+        return check == digits.charAt(digits.length() - 1) - '0';
+    }
+
+    private static double toDecimal(String digits, int decimals) {
+        double value = Double.parseDouble(digits);
+        for (int i = 0; i < decimals; i++) {
+            value /= 10;
+        }
+        return value;
+    }
+
+    /**
+     * YYMMDD to YYYY-MM-DD. The century follows the GS1 rule (within -49/+50 years of now)
+     * and a day of 00 means the last day of the month.
+     */
+    private static String toIsoDate(String yymmdd) {
+        int yy = Integer.parseInt(yymmdd.substring(0, 2));
+        int month = Integer.parseInt(yymmdd.substring(2, 4));
+        int day = Integer.parseInt(yymmdd.substring(4, 6));
+        if (month < 1 || month > 12 || day > 31) {
+            return null;
+        }
+
+        int currentYear = Calendar.getInstance().get(Calendar.YEAR);
+        int century = currentYear / 100 * 100;
+        int diff = yy - currentYear % 100;
+        int year = century + yy;
+        if (diff >= 51) {
+            year -= 100;
+        } else if (diff <= -50) {
+            year += 100;
+        }
+
+        if (day == 0) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.clear();
+            calendar.set(year, month - 1, 1);
+            day = calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
+        }
+        return String.format("%04d-%02d-%02d", year, month, day);
+    }
+}
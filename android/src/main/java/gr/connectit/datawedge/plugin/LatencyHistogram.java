@@ -0,0 +1,98 @@
+package gr.connectit.datawedge.plugin;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+
+/**
+ * Fixed-size latency histogram with power-of-two microsecond buckets.
+ *
+ * Bucket i counts samples in [2^i, 2^(i+1)) µs, so recording is O(1) and allocation free,
+ * and percentiles are reported as the upper bound of the bucket they fall in.
+ */
+class LatencyHistogram {
+    private static final int BUCKET_COUNT = 32;
+
+    private final long[] buckets = new long[BUCKET_COUNT];
+    private long count = 0;
+    private long totalNanos = 0;
+    private long minNanos = Long.MAX_VALUE;
+    private long maxNanos = 0;
+
+    synchronized void record(long nanos) {
+        if (nanos < 0) {
+            nanos = 0;
+        }
+        long micros = nanos / 1000;
+        int bucket = micros <= 0 ? 0 : 63 - Long.numberOfLeadingZeros(micros);
+        buckets[Math.min(bucket, BUCKET_COUNT - 1)]++;
+        count++;
+        totalNanos += nanos;
+        minNanos = Math.min(minNanos, nanos);
+        maxNanos = Math.max(maxNanos, nanos);
+    }
+
+    synchronized long getCount() {
+        return count;
+    }
+
+    synchronized void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            buckets[i] = 0;
+        }
+        count = 0;
+        totalNanos = 0;
+        minNanos = Long.MAX_VALUE;
+        maxNanos = 0;
+    }
+
+    /**
+     * Upper bound in ms of the bucket holding the given percentile (0-1), capped at the max seen
+     */
+    synchronized double percentileMs(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(percentile * count);
+        long seen = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            seen += buckets[i];
+            if (seen >= rank) {
+                return Math.min(bucketUpperMs(i), toMs(maxNanos));
+            }
+        }
+        return toMs(maxNanos);
+    }
+
+    synchronized JSObject toJSObject() {
+        JSObject result = new JSObject();
+        result.put("count", count);
+        result.put("minMs", count > 0 ? toMs(minNanos) : 0);
+        result.put("maxMs", toMs(maxNanos));
+        result.put("meanMs", count > 0 ? toMs(totalNanos / count) : 0);
+        result.put("p50Ms", percentileMs(0.50));
+        result.put("p90Ms", percentileMs(0.90));
+        result.put("p99Ms", percentileMs(0.99));
+
+        // Only non-empty buckets, to keep the payload small
+        JSONArray histogram = new JSONArray();
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            if (buckets[i] > 0) {
+                JSObject bucket = new JSObject();
+                bucket.put("upperMs", bucketUpperMs(i));
+                bucket.put("count", buckets[i]);
+                histogram.put(bucket);
+            }
+        }
+        result.put("buckets", histogram);
+        return result;
+    }
+
+    private static double bucketUpperMs(int bucket) {
+        return (1L << (bucket + 1)) / 1000.0;
+    }
+
+    private static double toMs(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,193 @@
+package gr.connectit.datawedge.plugin;
+
+import com.getcapacitor.JSObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Read-only key/value index memory-mapped from a prebuilt file, for enriching scans natively.
+ *
+ * File format (all integers big-endian, strings UTF-8):
+ *
+ *   magic         4 bytes  "DWIX"
+ *   version       int32    1
+ *   recordCount   int32
+ *   offsets       recordCount x int32, absolute file offset of each record, in key order
+ *   records       per record: int16 keyLength, key bytes, int32 valueLength, value bytes
+ *
+ * Records must be sorted by key, comparing the UTF-8 bytes as unsigned values. Lookups
+ * binary-search the offset table and compare keys in place, so only the matched value is
+ * decoded. A small LRU in front (including misses) serves hot keys without touching the map.
+ * Instances are immutable once opened; swapping in a new file means opening a new instance.
+ * Record offsets and lengths are checked against the mapping on every read, so a truncated or
+ * half-copied file fails the lookup with an IOException instead of reading out of bounds.
+ */
+class LookupIndex {
+    private static final int MAGIC = 0x44574958; // "DWIX"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final String MISS = new String("");
+
+    private final File file;
+    private final MappedByteBuffer buffer;
+    private final int recordCount;
+    private final Map<String, String> cache;
+
+    private long lookups = 0;
+    private long hits = 0;
+    private long cacheHits = 0;
+    private long errors = 0;
+    private long totalLookupNanos = 0;
+
+    private LookupIndex(File file, MappedByteBuffer buffer, int recordCount, int cacheSize) {
+        this.file = file;
+        this.buffer = buffer;
+        this.recordCount = recordCount;
+        this.cache = new LinkedHashMap<String, String>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Map the file and validate its header and offset table bounds
+     */
+    static LookupIndex open(File file, int cacheSize) throws IOException {
+        MappedByteBuffer buffer;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a lookup index file: " + file.getName());
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported lookup index version " + buffer.getInt(4));
+        }
+        int recordCount = buffer.getInt(8);
+        if (recordCount < 0 || HEADER_SIZE + (long) recordCount * 4 > buffer.capacity()) {
+            throw new IOException("Corrupt lookup index: offset table exceeds file size");
+        }
+        return new LookupIndex(file, buffer, recordCount, Math.max(0, cacheSize));
+    }
+
+    /**
+     * Value for a key, or null if absent. Throws if the records touched by the search are corrupt.
+     */
+    synchronized String get(String key) throws IOException {
+        long startedAt = System.nanoTime();
+        lookups++;
+
+        String cached = cache.get(key);
+        if (cached != null) {
+            cacheHits++;
+            if (cached != MISS) {
+                hits++;
+            }
+            totalLookupNanos += System.nanoTime() - startedAt;
+            return cached == MISS ? null : cached;
+        }
+
+        String value;
+        try {
+            value = search(key.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            errors++;
+            throw e;
+        }
+        cache.put(key, value != null ? value : MISS);
+        if (value != null) {
+            hits++;
+        }
+        totalLookupNanos += System.nanoTime() - startedAt;
+        return value;
+    }
+
+    private String search(byte[] key) throws IOException {
+        int capacity = buffer.capacity();
+        int low = 0;
+        int high = recordCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int offset = buffer.getInt(HEADER_SIZE + mid * 4);
+            if (offset < HEADER_SIZE || (long) offset + 2 > capacity) {
+                throw corrupt(mid);
+            }
+            int keyLength = buffer.getShort(offset) & 0xFFFF;
+            // Key plus the value length that follows it
+            if ((long) offset + 2 + keyLength + 4 > capacity) {
+                throw corrupt(mid);
+            }
+            int cmp = compare(offset + 2, keyLength, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                int valueOffset = offset + 2 + keyLength;
+                int valueLength = buffer.getInt(valueOffset);
+                if (valueLength < 0 || (long) valueOffset + 4 + valueLength > capacity) {
+                    throw corrupt(mid);
+                }
+                byte[] value = new byte[valueLength];
+                ByteBuffer view = buffer.duplicate();
+                view.position(valueOffset + 4);
+                view.get(value);
+                return new String(value, StandardCharsets.UTF_8);
+            }
+        }
+        return null;
+    }
+
+    private IOException corrupt(int record) {
+        return new IOException("Corrupt lookup index: record " + record + " exceeds file size");
+    }
+
+    /**
+     * Unsigned byte-wise comparison of the record key at offset against the probe key
+     */
+    private int compare(int offset, int length, byte[] key) {
+        int n = Math.min(length, key.length);
+        for (int i = 0; i < n; i++) {
+            int a = buffer.get(offset + i) & 0xFF;
+            int b = key[i] & 0xFF;
+            if (a != b) {
+                return a - b;
+            }
+        }
+        return length - key.length;
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    synchronized JSObject getStats() {
+        JSObject stats = new JSObject();
+        stats.put("loaded", true);
+        stats.put("path", file.getAbsolutePath());
+        stats.put("records", recordCount);
+        stats.put("bytes", buffer.capacity());
+        stats.put("lookups", lookups);
+        stats.put("hits", hits);
+        stats.put("cacheHits", cacheHits);
+        stats.put("errors", errors);
+        stats.put("averageLookupUs", lookups > 0 ? totalLookupNanos / 1000.0 / lookups : 0);
+        return stats;
+    }
+}
@@ -0,0 +1,136 @@
+package gr.connectit.datawedge.plugin;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Parcelable;
+import android.util.Base64;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+
+import java.util.Collection;
+
+/**
+ * Decodes a multi-barcode (NG SimulScan) capture, where DataWedge delivers every barcode
+ * of one capture in the com.symbol.datawedge.barcodes parcelable array, into one event.
+ */
+final class MultiBarcodeDecoder {
+    static final String EXTRA_BARCODES = "com.symbol.datawedge.barcodes";
+
+    private MultiBarcodeDecoder() {
+    }
+
+    /**
+     * Receives the raw fields of each barcode in a capture
+     */
+    interface Visitor {
+        void visit(String data, String labelType);
+    }
+
+    /**
+     * Whether the intent is a multi-barcode capture, i.e. decode() would return an event
+     */
+    static boolean isMultiBarcode(Intent intent) {
+        if (!intent.hasExtra(EXTRA_BARCODES)) {
+            return false;
+        }
+        Object barcodesExtra = intent.getExtras().get(EXTRA_BARCODES);
+        return barcodesExtra instanceof Parcelable[] || barcodesExtra instanceof Collection;
+    }
+
+    /**
+     * Visit the data string and label type of every barcode without building the event.
+     * Returns the number of barcodes visited.
+     */
+    static int forEachBarcode(Intent intent, Visitor visitor) {
+        Bundle extras = intent.getExtras();
+        Object barcodesExtra = extras != null ? extras.get(EXTRA_BARCODES) : null;
+        int count = 0;
+        if (barcodesExtra instanceof Parcelable[]) {
+            for (Parcelable item : (Parcelable[]) barcodesExtra) {
+                count += visitBarcode(item, visitor);
+            }
+        } else if (barcodesExtra instanceof Collection) {
+            for (Object item : (Collection<?>) barcodesExtra) {
+                count += visitBarcode(item, visitor);
+            }
+        }
+        return count;
+    }
+
+    private static int visitBarcode(Object item, Visitor visitor) {
+        if (!(item instanceof Bundle)) {
+            return 0;
+        }
+        Bundle bundle = (Bundle) item;
+        String labelType = bundle.getString("com.symbol.datawedge.label_type");
+        visitor.visit(bundle.getString("com.symbol.datawedge.data_string"), labelType != null ? labelType : "UNKNOWN");
+        return 1;
+    }
+
+    /**
+     * Build the multiBarcodeReceived event, or null if the intent is not a multi-barcode capture
+     */
+    static JSObject decode(Intent intent, boolean parseGs1) {
+        Bundle extras = intent.getExtras();
+        Object barcodesExtra = extras != null ? extras.get(EXTRA_BARCODES) : null;
+        if (barcodesExtra == null) {
+            return null;
+        }
+
+        JSONArray barcodes = new JSONArray();
+        if (barcodesExtra instanceof Parcelable[]) {
+            for (Parcelable item : (Parcelable[]) barcodesExtra) {
+                addBarcode(barcodes, item, parseGs1);
+            }
+        } else if (barcodesExtra instanceof Collection) {
+            for (Object item : (Collection<?>) barcodesExtra) {
+                addBarcode(barcodes, item, parseGs1);
+            }
+        } else {
+            return null;
+        }
+
+        JSObject event = new JSObject();
+        event.put("barcodes", barcodes);
+        event.put("count", barcodes.length());
+        event.put("decodeMode", intent.getStringExtra("com.symbol.datawedge.decode_mode"));
+        event.put("timestamp", System.currentTimeMillis());
+        return event;
+    }
+
+    private static void addBarcode(JSONArray barcodes, Object item, boolean parseGs1) {
+        if (!(item instanceof Bundle)) {
+            return;
+        }
+        Bundle bundle = (Bundle) item;
+
+        JSObject barcode = new JSObject();
+        String data = bundle.getString("com.symbol.datawedge.data_string");
+        barcode.put("data", data);
+        String labelType = bundle.getString("com.symbol.datawedge.label_type");
+        barcode.put("labelType", labelType != null ? labelType : "UNKNOWN");
+        if (parseGs1 && Gs1Parser.looksLikeGs1(data, labelType)) {
+            barcode.put("gs1", Gs1Parser.parse(data));
+        }
+
+        // Raw decode bytes, one entry per segment, base64 encoded for the bridge
+        Object decodeData = bundle.get("com.symbol.datawedge.decode_data");
+        JSONArray segments = new JSONArray();
+        if (decodeData instanceof Collection) {
+            for (Object segment : (Collection<?>) decodeData) {
+                if (segment instanceof byte[]) {
+                    segments.put(Base64.encodeToString((byte[]) segment, Base64.NO_WRAP));
+                }
+            }
+        } else if (decodeData instanceof byte[]) {
+            segments.put(Base64.encodeToString((byte[]) decodeData, Base64.NO_WRAP));
+        }
+        if (segments.length() > 0) {
+            barcode.put("decodeData", segments);
+        }
+
+        barcodes.put(barcode);
+    }
+}
@@ -0,0 +1,143 @@
+package gr.connectit.datawedge.plugin;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Throttles notificationReceived traffic per notification type.
+ *
+ * Within a window only the latest notification of each coalesced type is emitted and, if
+ * enabled, a notification identical to the last one emitted for its type less than a window
+ * ago is dropped. Identical notifications further apart are real events (e.g. a second
+ * CONFIGURATION_UPDATE for the same profile) and always pass. The window starts
+ * at the first pending notification rather than being extended by each arrival, so a
+ * continuous stream (e.g. SCANNER_STATUS while scanning) still emits once per window.
+ */
+class NotificationCoalescer {
+
+    interface Emitter {
+        void emit(DataWedgeNotification notification);
+    }
+
+    private final Emitter emitter;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::flush;
+
+    private final LinkedHashMap<String, DataWedgeNotification> pending = new LinkedHashMap<>();
+    private final Map<String, String> lastEmitted = new HashMap<>();
+    private final Map<String, Long> lastEmittedAt = new HashMap<>();
+    private long windowMs = 0;
+    private Set<String> coalescedTypes = null;
+    private boolean dropDuplicates = false;
+
+    private long receivedCount = 0;
+    private long emittedCount = 0;
+    private long coalescedCount = 0;
+    private long duplicateCount = 0;
+
+    NotificationCoalescer(Emitter emitter) {
+        this.emitter = emitter;
+    }
+
+    /**
+     * windowMs 0 disables coalescing, and with it duplicate dropping. types limits coalescing
+     * to those types; null means all.
+     */
+    void configure(long windowMs, Set<String> types, boolean dropDuplicates) {
+        synchronized (this) {
+            this.windowMs = Math.max(0, windowMs);
+            this.coalescedTypes = types != null ? new HashSet<>(types) : null;
+            this.dropDuplicates = dropDuplicates;
+        }
+        if (windowMs <= 0) {
+            flush();
+        }
+    }
+
+    void submit(DataWedgeNotification notification) {
+        synchronized (this) {
+            receivedCount++;
+            if (windowMs > 0 && isCoalesced(notification.type)) {
+                if (pending.remove(notification.type) != null) {
+                    coalescedCount++;
+                } else if (pending.isEmpty()) {
+                    handler.postDelayed(flushRunnable, windowMs);
+                }
+                pending.put(notification.type, notification);
+                return;
+            }
+        }
+        deliver(notification);
+    }
+
+    /**
+     * Emit whatever is pending now
+     */
+    void flush() {
+        List<DataWedgeNotification> ready;
+        synchronized (this) {
+            handler.removeCallbacks(flushRunnable);
+            ready = new ArrayList<>(pending.values());
+            pending.clear();
+        }
+        for (DataWedgeNotification notification : ready) {
+            deliver(notification);
+        }
+    }
+
+    /**
+     * Drop pending notifications and the duplicate history, e.g. on teardown
+     */
+    void clear() {
+        synchronized (this) {
+            handler.removeCallbacks(flushRunnable);
+            pending.clear();
+            lastEmitted.clear();
+            lastEmittedAt.clear();
+        }
+    }
+
+    synchronized JSObject getStats() {
+        JSObject stats = new JSObject();
+        stats.put("windowMs", windowMs);
+        stats.put("dropDuplicates", dropDuplicates);
+        stats.put("received", receivedCount);
+        stats.put("emitted", emittedCount);
+        stats.put("coalesced", coalescedCount);
+        stats.put("duplicates", duplicateCount);
+        stats.put("pending", pending.size());
+        return stats;
+    }
+
+    private boolean isCoalesced(String type) {
+        return coalescedTypes == null || coalescedTypes.contains(type);
+    }
+
+    private void deliver(DataWedgeNotification notification) {
+        synchronized (this) {
+            String signature = notification.getSignature();
+            long now = SystemClock.elapsedRealtime();
+            Long emittedAt = lastEmittedAt.get(notification.type);
+            if (dropDuplicates && emittedAt != null && now - emittedAt < windowMs
+                    && signature.equals(lastEmitted.get(notification.type))) {
+                duplicateCount++;
+                return;
+            }
+            lastEmitted.put(notification.type, signature);
+            lastEmittedAt.put(notification.type, now);
+            emittedCount++;
+        }
+        emitter.emit(notification);
+    }
+}
@@ -0,0 +1,137 @@
+package gr.connectit.datawedge.plugin;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reference counts for DataWedge notification registrations, keyed by notification type
+ * and optional profile. DataWedge itself registers per application and type, so only a type's
+ * first subscription and the release of its last one need a REGISTER/UNREGISTER intent.
+ */
+class NotificationSubscriptions {
+
+    static class Subscription {
+        final String type;
+        final String profileName;
+        int refCount;
+
+        Subscription(String type, String profileName) {
+            this.type = type;
+            this.profileName = profileName;
+        }
+    }
+
+    private final Map<String, Subscription> subscriptions = new LinkedHashMap<>();
+
+    private static String key(String type, String profileName) {
+        return profileName != null ? type + "|" + profileName : type;
+    }
+
+    /**
+     * Add a reference. Returns the new count; 1 means DataWedge must be told.
+     */
+    synchronized int acquire(String type, String profileName) {
+        String key = key(type, profileName);
+        Subscription subscription = subscriptions.get(key);
+        if (subscription == null) {
+            subscription = new Subscription(type, profileName);
+            subscriptions.put(key, subscription);
+        }
+        return ++subscription.refCount;
+    }
+
+    /**
+     * Drop a reference. Returns the remaining count, or -1 if there was no subscription.
+     */
+    synchronized int release(String type, String profileName) {
+        String key = key(type, profileName);
+        Subscription subscription = subscriptions.get(key);
+        if (subscription == null) {
+            return -1;
+        }
+        subscription.refCount--;
+        if (subscription.refCount <= 0) {
+            subscriptions.remove(key);
+            return 0;
+        }
+        return subscription.refCount;
+    }
+
+    /**
+     * Current count for a type and profile, 0 if there is no subscription
+     */
+    synchronized int getRefCount(String type, String profileName) {
+        Subscription subscription = subscriptions.get(key(type, profileName));
+        return subscription != null ? subscription.refCount : 0;
+    }
+
+    /**
+     * Drop every reference held in owned (one holder's share of this set) and clear owned.
+     * Returns the types that have no subscription left afterwards.
+     */
+    synchronized List<String> releaseAll(NotificationSubscriptions owned) {
+        List<String> released = new ArrayList<>();
+        synchronized (owned) {
+            for (Subscription subscription : owned.subscriptions.values()) {
+                for (int i = 0; i < subscription.refCount; i++) {
+                    release(subscription.type, subscription.profileName);
+                }
+                if (!released.contains(subscription.type)) {
+                    released.add(subscription.type);
+                }
+            }
+            owned.subscriptions.clear();
+        }
+        released.removeIf(this::hasType);
+        return released;
+    }
+
+    /**
+     * Whether any profile still has a subscription for this type
+     */
+    synchronized boolean hasType(String type) {
+        for (Subscription subscription : subscriptions.values()) {
+            if (subscription.type.equals(type)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Types with at least one subscription, e.g. to replay them after DataWedge restarts
+     */
+    synchronized List<String> getActiveTypes() {
+        List<String> types = new ArrayList<>();
+        for (Subscription subscription : subscriptions.values()) {
+            if (!types.contains(subscription.type)) {
+                types.add(subscription.type);
+            }
+        }
+        return types;
+    }
+
+    synchronized boolean isEmpty() {
+        return subscriptions.isEmpty();
+    }
+
+    synchronized JSONArray toJSONArray() {
+        JSONArray array = new JSONArray();
+        for (Subscription subscription : subscriptions.values()) {
+            JSObject entry = new JSObject();
+            entry.put("notificationType", subscription.type);
+            if (subscription.profileName != null) {
+                entry.put("profileName", subscription.profileName);
+            }
+            entry.put("refCount", subscription.refCount);
+            array.put(entry);
+        }
+        return array;
+    }
+}
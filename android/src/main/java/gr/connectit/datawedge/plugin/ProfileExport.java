@@ -0,0 +1,196 @@
+package gr.connectit.datawedge.plugin;
+
+import android.os.Bundle;
+import android.os.SystemClock;
+import android.util.JsonWriter;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import org.json.JSONArray;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * One run of exportAllProfiles: streams each GET_CONFIG result to a JSON file as it
+ * arrives, so the full set of profiles is never held in memory.
+ *
+ * File layout:
+ * { "exportedAt": ..., "datawedgeVersion": ..., "profiles": [ {config}, ... ], "missing": [ ... ] }
+ */
+class ProfileExport {
+    private static final String TAG = "ProfileExport";
+
+    private final PluginCall call;
+    private final File file;
+    private final ExecutorService ioExecutor;
+    private final long startedAt = SystemClock.elapsedRealtime();
+    private final Set<String> outstanding = new LinkedHashSet<>();
+    private int profileCount = 0;
+    private int exported = 0;
+    private boolean started = false;
+    private boolean finished = false;
+
+    // Only touched on the IO executor
+    private JsonWriter writer;
+    private IOException writeError;
+
+    ProfileExport(PluginCall call, File file, ExecutorService ioExecutor) {
+        this.call = call;
+        this.file = file;
+        this.ioExecutor = ioExecutor;
+    }
+
+    /**
+     * Open the file and write the header. Profiles are expected after this.
+     */
+    void start(Collection<String> profileNames, String datawedgeVersion) {
+        synchronized (this) {
+            started = true;
+            profileCount = profileNames.size();
+            outstanding.addAll(profileNames);
+        }
+
+        ioExecutor.execute(() -> {
+            try {
+                File parent = file.getParentFile();
+                if (parent != null && !parent.exists()) {
+                    parent.mkdirs();
+                }
+                writer = new JsonWriter(new BufferedWriter(
+                    new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)));
+                writer.beginObject();
+                writer.name("exportedAt").value(System.currentTimeMillis());
+                if (datawedgeVersion != null) {
+                    writer.name("datawedgeVersion").value(datawedgeVersion);
+                }
+                writer.name("profiles");
+                writer.beginArray();
+            } catch (IOException e) {
+                writeError = e;
+            }
+        });
+
+        if (profileNames.isEmpty()) {
+            finish();
+        }
+    }
+
+    synchronized boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Whether a config for this profile was requested by the export and has not arrived yet
+     */
+    synchronized boolean isOutstanding(String profileName) {
+        return !finished && outstanding.contains(profileName);
+    }
+
+    /**
+     * Stream one profile's config. Returns true if it was expected by this export.
+     */
+    boolean onConfig(String profileName, Bundle config) {
+        boolean last;
+        synchronized (this) {
+            if (finished || !outstanding.remove(profileName)) {
+                return false;
+            }
+            exported++;
+            last = outstanding.isEmpty();
+        }
+
+        ioExecutor.execute(() -> {
+            if (writer == null || writeError != null) {
+                return;
+            }
+            try {
+                BundleJsonWriter.writeBundle(writer, config);
+            } catch (IOException e) {
+                writeError = e;
+            }
+        });
+
+        if (last) {
+            finish();
+        }
+        return true;
+    }
+
+    /**
+     * Close the file and resolve with summary stats. Profiles that did not answer are listed as missing.
+     */
+    void finish() {
+        JSONArray missing = new JSONArray();
+        int exportedCount;
+        int expectedCount;
+        boolean wasStarted;
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+            for (String profileName : outstanding) {
+                missing.put(profileName);
+            }
+            exportedCount = exported;
+            expectedCount = profileCount;
+            wasStarted = started;
+        }
+
+        if (!wasStarted) {
+            call.reject("Timed out waiting for the DataWedge profiles list", "TIMEOUT");
+            return;
+        }
+
+        ioExecutor.execute(() -> {
+            try {
+                if (writeError == null && writer != null) {
+                    writer.endArray();
+                    writer.name("missing");
+                    writer.beginArray();
+                    for (int i = 0; i < missing.length(); i++) {
+                        writer.value(missing.optString(i));
+                    }
+                    writer.endArray();
+                    writer.endObject();
+                }
+            } catch (IOException e) {
+                writeError = e;
+            } finally {
+                if (writer != null) {
+                    try {
+                        writer.close();
+                    } catch (IOException e) {
+                        Log.w(TAG, "Error closing export file", e);
+                    }
+                }
+            }
+
+            if (writeError != null) {
+                Log.e(TAG, "Error writing profile export", writeError);
+                call.reject("Error writing export file: " + writeError.getMessage());
+                return;
+            }
+
+            JSObject result = new JSObject();
+            result.put("path", file.getAbsolutePath());
+            result.put("profileCount", expectedCount);
+            result.put("exported", exportedCount);
+            result.put("missing", missing);
+            result.put("bytes", file.length());
+            result.put("durationMs", SystemClock.elapsedRealtime() - startedAt);
+            call.resolve(result);
+        });
+    }
+}
@@ -0,0 +1,233 @@
+package gr.connectit.datawedge.plugin;
+
+import android.content.SharedPreferences;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * A named group of per-screen DataWedge profiles that are provisioned once and then only switched.
+ *
+ * Each entry has a fingerprint of its definition. The fingerprint is persisted after a successful
+ * SET_CONFIG, so later provisioning runs (including after an app restart) only write entries that
+ * changed.
+ */
+class ProfileSet {
+    static final String PREFS_NAME = "gr.connectit.datawedge.profilesets";
+    static final String METHOD_SWITCH_TO_PROFILE = "SWITCH_TO_PROFILE";
+    static final String METHOD_SWITCH_SCANNER_PARAMS = "SWITCH_SCANNER_PARAMS";
+
+    // Switches per method before measured latency may override the default preference
+    private static final int MIN_SAMPLES_PER_METHOD = 5;
+
+    static class Entry {
+        final String profileName;
+        final JSObject config;
+        final JSObject scannerParams;
+        final String fingerprint;
+        // Fingerprint of the profile config alone, equal for entries that differ only in scanner params
+        final String configFingerprint;
+
+        Entry(String profileName, JSObject config, JSObject scannerParams) {
+            this.profileName = profileName;
+            this.config = config;
+            this.scannerParams = scannerParams;
+            this.fingerprint = fingerprint(profileName, config, scannerParams);
+            this.configFingerprint = config != null ? fingerprint("", config, null) : null;
+        }
+
+        /**
+         * Entries without a config are scanner parameter variants of the active profile
+         */
+        boolean isParamsOnly() {
+            return config == null;
+        }
+    }
+
+    private final String name;
+    private final SharedPreferences prefs;
+    private final Map<String, Entry> entries = new LinkedHashMap<>();
+    private final LatencyHistogram switchLatency = new LatencyHistogram();
+    private final Map<String, LatencyHistogram> switchLatencyByMethod = new LinkedHashMap<>();
+    private String activeProfile;
+    private int provisioning = 0;
+    private long switchCount = 0;
+
+    ProfileSet(String name, SharedPreferences prefs) {
+        this.name = name;
+        this.prefs = prefs;
+        switchLatencyByMethod.put(METHOD_SWITCH_TO_PROFILE, new LatencyHistogram());
+        switchLatencyByMethod.put(METHOD_SWITCH_SCANNER_PARAMS, new LatencyHistogram());
+    }
+
+    String getName() {
+        return name;
+    }
+
+    synchronized void addEntry(Entry entry) {
+        entries.put(entry.profileName, entry);
+    }
+
+    synchronized Entry getEntry(String profileName) {
+        return entries.get(profileName);
+    }
+
+    /**
+     * Entries whose config differs from what was last written to DataWedge
+     */
+    synchronized List<Entry> getStaleEntries(boolean force) {
+        List<Entry> stale = new ArrayList<>();
+        for (Entry entry : entries.values()) {
+            if (entry.isParamsOnly()) {
+                continue;
+            }
+            if (force || !entry.fingerprint.equals(prefs.getString(prefsKey(entry.profileName), null))) {
+                stale.add(entry);
+            }
+        }
+        return stale;
+    }
+
+    void commitFingerprint(Entry entry) {
+        prefs.edit().putString(prefsKey(entry.profileName), entry.fingerprint).apply();
+    }
+
+    synchronized void beginProvisioning(int count) {
+        provisioning += count;
+    }
+
+    synchronized void endProvisioning() {
+        provisioning = Math.max(0, provisioning - 1);
+    }
+
+    /**
+     * While config writes are outstanding, switches must queue behind them
+     */
+    synchronized boolean isProvisioning() {
+        return provisioning > 0;
+    }
+
+    synchronized String getActiveProfile() {
+        return activeProfile;
+    }
+
+    /**
+     * Whether target can be reached with SWITCH_SCANNER_PARAMS on the profile DataWedge has active:
+     * that profile belongs to this set and has the same config, and target only adds scanner params.
+     * liveProfile is DataWedge's reported active profile, or null to trust the last switch.
+     */
+    synchronized boolean differsOnlyInScannerParams(Entry target, String liveProfile) {
+        if (target.isParamsOnly() || target.scannerParams == null) {
+            return false;
+        }
+        Entry base = entries.get(liveProfile != null ? liveProfile : activeProfile);
+        return base != null && !base.isParamsOnly() && base.configFingerprint.equals(target.configFingerprint);
+    }
+
+    /**
+     * SWITCH_SCANNER_PARAMS only touches the scanner instead of reloading a profile, so it is preferred
+     * until both methods have enough measured switches and SWITCH_TO_PROFILE proves faster at p50
+     */
+    synchronized boolean isScannerParamsCheaper() {
+        LatencyHistogram params = switchLatencyByMethod.get(METHOD_SWITCH_SCANNER_PARAMS);
+        LatencyHistogram profile = switchLatencyByMethod.get(METHOD_SWITCH_TO_PROFILE);
+        if (params.getCount() < MIN_SAMPLES_PER_METHOD || profile.getCount() < MIN_SAMPLES_PER_METHOD) {
+            return true;
+        }
+        return params.percentileMs(0.5) <= profile.percentileMs(0.5);
+    }
+
+    synchronized void onSwitched(String profileName, String method, long latencyNanos) {
+        activeProfile = profileName;
+        switchCount++;
+        switchLatency.record(latencyNanos);
+        switchLatencyByMethod.get(method).record(latencyNanos);
+    }
+
+    synchronized JSObject getStats() {
+        JSObject stats = new JSObject();
+        stats.put("setName", name);
+        JSONArray profiles = new JSONArray();
+        for (Entry entry : entries.values()) {
+            profiles.put(entry.profileName);
+        }
+        stats.put("profiles", profiles);
+        stats.put("activeProfile", activeProfile);
+        stats.put("provisioning", provisioning > 0);
+        stats.put("switches", switchCount);
+        stats.put("switchLatency", switchLatency.toJSObject());
+        JSObject byMethod = new JSObject();
+        for (Map.Entry<String, LatencyHistogram> entry : switchLatencyByMethod.entrySet()) {
+            byMethod.put(entry.getKey(), entry.getValue().toJSObject());
+        }
+        stats.put("switchLatencyByMethod", byMethod);
+        return stats;
+    }
+
+    private String prefsKey(String profileName) {
+        return name + "/" + profileName;
+    }
+
+    private static String fingerprint(String profileName, JSObject config, JSObject scannerParams) {
+        StringBuilder canonical = new StringBuilder(profileName).append('|');
+        appendCanonical(canonical, config);
+        canonical.append('|');
+        appendCanonical(canonical, scannerParams);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(canonical.toString().getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : hash) {
+                hex.append(String.format("%02x", b));
+            }
+            return hex.toString();
+        } catch (Exception e) {
+            // SHA-256 is always available on Android; fall back to the canonical form itself
+            return canonical.toString();
+        }
+    }
+
+    /**
+     * JSON with object keys sorted, so equal definitions give equal fingerprints regardless of key order
+     */
+    private static void appendCanonical(StringBuilder out, Object value) {
+        if (value instanceof JSONObject) {
+            JSONObject object = (JSONObject) value;
+            TreeSet<String> keys = new TreeSet<>();
+            Iterator<String> it = object.keys();
+            while (it.hasNext()) {
+                keys.add(it.next());
+            }
+            out.append('{');
+            for (String key : keys) {
+                out.append(JSONObject.quote(key)).append(':');
+                appendCanonical(out, object.opt(key));
+                out.append(',');
+            }
+            out.append('}');
+        } else if (value instanceof JSONArray) {
+            JSONArray array = (JSONArray) value;
+            out.append('[');
+            for (int i = 0; i < array.length(); i++) {
+                appendCanonical(out, array.opt(i));
+                out.append(',');
+            }
+            out.append(']');
+        } else if (value instanceof String) {
+            out.append(JSONObject.quote((String) value));
+        } else {
+            out.append(value);
+        }
+    }
+}
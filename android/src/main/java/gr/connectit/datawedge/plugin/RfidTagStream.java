@@ -0,0 +1,185 @@
+package gr.connectit.datawedge.plugin;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+
+/**
+ * RFID streaming mode: reads are aggregated per EPC in an {@link EpcTable} instead of being
+ * forwarded one by one, and the tags touched since the previous batch are emitted every
+ * intervalMs as a single rfidTagsReceived event.
+ *
+ * onRead and the flush timer run on the main thread; stats and stop() may come from the plugin thread.
+ */
+class RfidTagStream {
+
+    interface Emitter {
+        void emit(JSObject batch);
+    }
+
+    private final Emitter emitter;
+    private final long intervalMs;
+    private final int maxBatchSize;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flushRunnable = this::onTimer;
+    private final EpcTable table = new EpcTable();
+    private final long startedAt = SystemClock.elapsedRealtime();
+    private long batchCount = 0;
+    private long readsAtLastBatch = 0;
+    private boolean running = true;
+
+    RfidTagStream(Emitter emitter, long intervalMs, int maxBatchSize) {
+        this.emitter = emitter;
+        this.intervalMs = Math.max(50, intervalMs);
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        handler.postDelayed(flushRunnable, this.intervalMs);
+    }
+
+    /**
+     * Whether a scan intent came from the RFID input plugin
+     */
+    static boolean isRfidRead(Intent intent) {
+        String source = intent.getStringExtra("com.symbol.datawedge.source");
+        if ("rfid".equalsIgnoreCase(source)) {
+            return true;
+        }
+        String labelType = intent.getStringExtra("com.symbol.datawedge.label_type");
+        return labelType != null && labelType.toUpperCase().contains("RFID");
+    }
+
+    /**
+     * Aggregate the tag(s) in one RFID intent. Multiple tags may arrive newline separated.
+     */
+    void onRead(Intent intent) {
+        String data = intent.getStringExtra("com.symbol.datawedge.data_string");
+        if (data == null) {
+            return;
+        }
+        int rssi = readRssi(intent.getExtras());
+        long now = System.currentTimeMillis();
+
+        synchronized (this) {
+            if (!running) {
+                return;
+            }
+            int start = 0;
+            for (int i = 0; i <= data.length(); i++) {
+                if (i == data.length() || data.charAt(i) == '\n') {
+                    String epc = data.substring(start, i).trim();
+                    if (!epc.isEmpty()) {
+                        table.record(epc, now, rssi);
+                    }
+                    start = i + 1;
+                }
+            }
+        }
+    }
+
+    private void onTimer() {
+        flush();
+        synchronized (this) {
+            if (running) {
+                handler.postDelayed(flushRunnable, intervalMs);
+            }
+        }
+    }
+
+    /**
+     * Emit the tags touched since the last batch, if any
+     */
+    void flush() {
+        JSObject batch;
+        synchronized (this) {
+            if (table.pendingCount() == 0) {
+                return;
+            }
+            JSONArray tags = new JSONArray();
+            table.drain((epc, count, newReads, firstSeen, lastSeen, peakRssi, isNew) -> {
+                JSObject tag = new JSObject();
+                tag.put("epc", epc);
+                tag.put("count", count);
+                tag.put("newReads", newReads);
+                tag.put("firstSeen", firstSeen);
+                tag.put("lastSeen", lastSeen);
+                if (peakRssi != EpcTable.NO_RSSI) {
+                    tag.put("peakRssi", peakRssi);
+                }
+                tag.put("isNew", isNew);
+                tags.put(tag);
+            }, maxBatchSize);
+
+            batchCount++;
+            batch = new JSObject();
+            batch.put("tags", tags);
+            batch.put("batch", batchCount);
+            batch.put("batchReads", table.getTotalReads() - readsAtLastBatch);
+            batch.put("uniqueTags", table.size());
+            batch.put("totalReads", table.getTotalReads());
+            batch.put("pending", table.pendingCount());
+            readsAtLastBatch = table.getTotalReads();
+        }
+        emitter.emit(batch);
+    }
+
+    /**
+     * Stop the timer and emit whatever is still pending
+     */
+    void stop() {
+        synchronized (this) {
+            running = false;
+            handler.removeCallbacks(flushRunnable);
+        }
+        while (true) {
+            synchronized (this) {
+                if (table.pendingCount() == 0) {
+                    break;
+                }
+            }
+            flush();
+        }
+    }
+
+    synchronized JSObject getStats() {
+        JSObject stats = new JSObject();
+        stats.put("running", running);
+        stats.put("intervalMs", intervalMs);
+        stats.put("uniqueTags", table.size());
+        stats.put("totalReads", table.getTotalReads());
+        stats.put("batches", batchCount);
+        stats.put("pending", table.pendingCount());
+        stats.put("durationMs", SystemClock.elapsedRealtime() - startedAt);
+        return stats;
+    }
+
+    /**
+     * RSSI is reported under different extra names across DataWedge versions; take the first *rssi extra
+     */
+    private static int readRssi(Bundle extras) {
+        if (extras == null) {
+            return EpcTable.NO_RSSI;
+        }
+        for (String key : extras.keySet()) {
+            if (!key.toLowerCase().endsWith("rssi")) {
+                continue;
+            }
+            Object value = extras.get(key);
+            if (value instanceof Number) {
+                return ((Number) value).intValue();
+            }
+            if (value instanceof String) {
+                try {
+                    return (int) Math.round(Double.parseDouble((String) value));
+                } catch (NumberFormatException e) {
+                    return EpcTable.NO_RSSI;
+                }
+            }
+        }
+        return EpcTable.NO_RSSI;
+    }
+}
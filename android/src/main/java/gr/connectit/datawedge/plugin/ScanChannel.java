@@ -0,0 +1,69 @@
+package gr.connectit.datawedge.plugin;
+
+import android.content.Intent;
+
+import com.getcapacitor.JSObject;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A named scan route: scans arriving on its own intent action (and, optionally, category) are
+ * delivered to its own events instead of scanReceived / multiBarcodeReceived, and RFID reads are
+ * not folded into the RFID stream. While an event has no JS listeners it is not emitted; the scan
+ * still reaches scan statistics, scan files and scanOnce.
+ */
+class ScanChannel {
+    final String name;
+    final String action;
+    final String category;
+    final String event;
+    final String multiBarcodeEvent;
+    final DataWedgeBroadcastHub.Listener listener;
+
+    final AtomicLong received = new AtomicLong();
+    final AtomicLong delivered = new AtomicLong();
+    final AtomicLong skipped = new AtomicLong();
+
+    ScanChannel(String name, String action, String category, String event, String multiBarcodeEvent,
+                DataWedgeBroadcastHub.Listener listener) {
+        this.name = name;
+        this.action = action;
+        this.category = category;
+        this.event = event;
+        this.multiBarcodeEvent = multiBarcodeEvent;
+        this.listener = listener;
+    }
+
+    /**
+     * Default event name for a channel, e.g. scanReceived:receiving
+     */
+    static String defaultEvent(String name) {
+        return "scanReceived:" + name;
+    }
+
+    /**
+     * Default multi-barcode event name for a channel, e.g. multiBarcodeReceived:receiving
+     */
+    static String defaultMultiBarcodeEvent(String name) {
+        return "multiBarcodeReceived:" + name;
+    }
+
+    boolean matches(Intent intent) {
+        return action.equals(intent.getAction()) && (category == null || intent.hasCategory(category));
+    }
+
+    JSObject toJSObject() {
+        JSObject channel = new JSObject();
+        channel.put("name", name);
+        channel.put("action", action);
+        if (category != null) {
+            channel.put("category", category);
+        }
+        channel.put("event", event);
+        channel.put("multiBarcodeEvent", multiBarcodeEvent);
+        channel.put("received", received.get());
+        channel.put("delivered", delivered.get());
+        channel.put("skipped", skipped.get());
+        return channel;
+    }
+}
@@ -0,0 +1,58 @@
+package gr.connectit.datawedge.plugin;
+
+import android.content.Intent;
+
+import com.getcapacitor.JSObject;
+
+/**
+ * Scan counts and DataWedge-to-app dispatch latency per delivery transport, so broadcast and
+ * activity (startActivity / onNewIntent) delivery can be compared on a given device.
+ * Dispatch latency is only known for scans that carry data_dispatch_time.
+ */
+class ScanDeliveryStats {
+    static final String BROADCAST = "broadcast";
+    static final String ACTIVITY = "activity";
+
+    private final LatencyHistogram broadcastDispatch = new LatencyHistogram();
+    private final LatencyHistogram activityDispatch = new LatencyHistogram();
+    private long broadcastScans = 0;
+    private long activityScans = 0;
+
+    synchronized void record(String transport, Intent intent, long receivedWallMs) {
+        boolean activity = ACTIVITY.equals(transport);
+        if (!activity && !BROADCAST.equals(transport)) {
+            return; // replayed traffic says nothing about this device's delivery
+        }
+        if (activity) {
+            activityScans++;
+        } else {
+            broadcastScans++;
+        }
+        long dispatchTimeMs = ScanLatencyTracer.readDispatchTime(intent);
+        if (dispatchTimeMs > 0) {
+            (activity ? activityDispatch : broadcastDispatch).record((receivedWallMs - dispatchTimeMs) * 1_000_000L);
+        }
+    }
+
+    synchronized void reset() {
+        broadcastDispatch.reset();
+        activityDispatch.reset();
+        broadcastScans = 0;
+        activityScans = 0;
+    }
+
+    synchronized JSObject getStats() {
+        JSObject broadcast = new JSObject();
+        broadcast.put("scans", broadcastScans);
+        broadcast.put("dispatch", broadcastDispatch.toJSObject());
+
+        JSObject activity = new JSObject();
+        activity.put("scans", activityScans);
+        activity.put("dispatch", activityDispatch.toJSObject());
+
+        JSObject stats = new JSObject();
+        stats.put(BROADCAST, broadcast);
+        stats.put(ACTIVITY, activity);
+        return stats;
+    }
+}
@@ -0,0 +1,274 @@
+package gr.connectit.datawedge.plugin;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Appends every scan to rotating NDJSON or CSV files on disk, so long counting sessions
+ * never accumulate in the JS heap.
+ *
+ * Lines are formatted on the calling thread and written on the IO executor through a
+ * buffered writer. A segment is rotated before a write once it reaches maxBytes or has been
+ * open for maxAgeMs; closed segments are optionally gzipped. With maxAgeMs set, a periodic
+ * check on the IO executor also closes a segment that expires while no scans arrive, so an
+ * idle session still hands over finished files. Segment files are named
+ * baseName-startTime-sequence.ext.
+ */
+class ScanFileSink {
+    private static final String TAG = "ScanFileSink";
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final long MIN_AGE_CHECK_MS = 1000;
+    private static final long MAX_AGE_CHECK_MS = 60000;
+
+    private final File directory;
+    private final String baseName;
+    private final boolean csv;
+    private final long maxBytes;
+    private final long maxAgeMs;
+    private final boolean gzip;
+    private final ScheduledExecutorService ioExecutor;
+    private final long startedAt = System.currentTimeMillis();
+    private final ScheduledFuture<?> ageCheck;
+
+    // Counters, read from the plugin thread
+    private long scansQueued = 0;
+    private long scansWritten = 0;
+    private long bytesWritten = 0;
+    private int segmentCount = 0;
+    private String lastError;
+
+    // Only touched on the IO executor
+    private BufferedWriter writer;
+    private File segmentFile;
+    private long segmentBytes;
+    private long segmentOpenedAt;
+
+    ScanFileSink(File directory, String baseName, String format, long maxBytes, long maxAgeMs,
+                 boolean gzip, ScheduledExecutorService ioExecutor) {
+        this.directory = directory;
+        this.baseName = baseName;
+        this.csv = "csv".equalsIgnoreCase(format);
+        this.maxBytes = maxBytes;
+        this.maxAgeMs = maxAgeMs;
+        this.gzip = gzip;
+        this.ioExecutor = ioExecutor;
+        if (maxAgeMs > 0) {
+            // A segment closes at most one period past its age limit
+            long period = Math.max(MIN_AGE_CHECK_MS, Math.min(MAX_AGE_CHECK_MS, maxAgeMs / 4));
+            ageCheck = ioExecutor.scheduleWithFixedDelay(this::rotateIfExpired, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            ageCheck = null;
+        }
+    }
+
+    /**
+     * Queue one scan for writing
+     */
+    void append(String data, String labelType, long timestamp) {
+        String line = csv
+            ? timestamp + "," + csvField(labelType) + "," + csvField(data) + "\n"
+            : "{\"timestamp\":" + timestamp + ",\"labelType\":" + JSONObject.quote(labelType)
+                + ",\"data\":" + JSONObject.quote(data) + "}\n";
+        synchronized (this) {
+            scansQueued++;
+        }
+        ioExecutor.execute(() -> write(line));
+    }
+
+    private void write(String line) {
+        try {
+            if (writer != null && needsRotation()) {
+                closeSegment();
+            }
+            if (writer == null) {
+                openSegment();
+            }
+            writer.write(line);
+            int length = line.getBytes(StandardCharsets.UTF_8).length;
+            segmentBytes += length;
+            synchronized (this) {
+                scansWritten++;
+                bytesWritten += length;
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error writing scan", e);
+            synchronized (this) {
+                lastError = e.getMessage();
+            }
+        }
+    }
+
+    /**
+     * Close the open segment if it has aged out. Runs on the IO executor; the next scan opens a new one.
+     */
+    private void rotateIfExpired() {
+        try {
+            if (writer != null && needsRotation()) {
+                closeSegment();
+            }
+        } catch (IOException e) {
+            Log.e(TAG, "Error rotating scan file", e);
+            synchronized (this) {
+                lastError = e.getMessage();
+            }
+        }
+    }
+
+    private boolean needsRotation() {
+        return (maxBytes > 0 && segmentBytes >= maxBytes)
+            || (maxAgeMs > 0 && SystemClock.elapsedRealtime() - segmentOpenedAt >= maxAgeMs);
+    }
+
+    private void openSegment() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Cannot create directory " + directory.getAbsolutePath());
+        }
+        int sequence;
+        synchronized (this) {
+            sequence = ++segmentCount;
+        }
+        segmentFile = new File(directory, baseName + "-" + startedAt + "-" + String.format(Locale.US, "%04d", sequence)
+            + (csv ? ".csv" : ".ndjson"));
+        writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(segmentFile), StandardCharsets.UTF_8), BUFFER_SIZE);
+        segmentBytes = 0;
+        segmentOpenedAt = SystemClock.elapsedRealtime();
+        if (csv) {
+            writer.write("timestamp,labelType,data\n");
+        }
+        Log.d(TAG, "Opened scan segment " + segmentFile.getName());
+    }
+
+    private void closeSegment() throws IOException {
+        BufferedWriter closing = writer;
+        File closed = segmentFile;
+        writer = null;
+        segmentFile = null;
+        closing.close();
+        if (gzip) {
+            compress(closed);
+        }
+    }
+
+    private static void compress(File file) throws IOException {
+        File target = new File(file.getPath() + ".gz");
+        byte[] buffer = new byte[BUFFER_SIZE];
+        try (InputStream in = new FileInputStream(file);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(target), BUFFER_SIZE)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                out.write(buffer, 0, read);
+            }
+        }
+        if (!file.delete()) {
+            Log.w(TAG, "Could not delete " + file.getName() + " after compressing");
+        }
+    }
+
+    /**
+     * Flush buffered lines to disk once everything queued so far is written, then resolve
+     */
+    void flush(PluginCall call) {
+        ioExecutor.execute(() -> {
+            try {
+                if (writer != null) {
+                    writer.flush();
+                }
+                call.resolve(getStats());
+            } catch (IOException e) {
+                call.reject("Error flushing scan file: " + e.getMessage());
+            }
+        });
+    }
+
+    /**
+     * Close (and compress) the current segment once everything queued so far is written.
+     * call may be null when the plugin is being destroyed.
+     */
+    void close(PluginCall call) {
+        if (ageCheck != null) {
+            ageCheck.cancel(false);
+        }
+        ioExecutor.execute(() -> {
+            try {
+                if (writer != null) {
+                    closeSegment();
+                }
+                if (call != null) {
+                    call.resolve(getStats());
+                }
+            } catch (IOException e) {
+                Log.e(TAG, "Error closing scan file", e);
+                if (call != null) {
+                    call.reject("Error closing scan file: " + e.getMessage());
+                }
+            }
+        });
+    }
+
+    synchronized JSObject getStats() {
+        JSObject stats = new JSObject();
+        stats.put("directory", directory.getAbsolutePath());
+        stats.put("baseName", baseName);
+        stats.put("format", csv ? "csv" : "ndjson");
+        stats.put("scansQueued", scansQueued);
+        stats.put("scansWritten", scansWritten);
+        stats.put("bytesWritten", bytesWritten);
+        stats.put("segments", segmentCount);
+        if (lastError != null) {
+            stats.put("lastError", lastError);
+        }
+        return stats;
+    }
+
+    /**
+     * Segment files of a base name in a directory, oldest first
+     */
+    static JSONArray listSegments(File directory, String baseName) {
+        JSONArray segments = new JSONArray();
+        File[] files = directory.listFiles((dir, name) -> name.startsWith(baseName + "-"));
+        if (files == null) {
+            return segments;
+        }
+        // Names embed the start time and a zero-padded sequence, so name order is write order
+        Arrays.sort(files, (a, b) -> a.getName().compareTo(b.getName()));
+        for (File file : files) {
+            JSObject segment = new JSObject();
+            segment.put("name", file.getName());
+            segment.put("path", file.getAbsolutePath());
+            segment.put("bytes", file.length());
+            segment.put("modified", file.lastModified());
+            segment.put("compressed", file.getName().endsWith(".gz"));
+            segments.put(segment);
+        }
+        return segments;
+    }
+
+    private static String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return "\"" + value.replace("\"", "\"\"") + "\"";
+    }
+}
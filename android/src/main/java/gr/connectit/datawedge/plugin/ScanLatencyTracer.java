@@ -0,0 +1,141 @@
+package gr.connectit.datawedge.plugin;
+
+import android.content.Intent;
+import android.os.Bundle;
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Breaks the time from DataWedge decode to scanReceived into pipeline stages, using
+ * elapsedRealtimeNanos so the in-process stages are monotonic:
+ *
+ *   dispatch - DataWedge dispatch time to broadcast receipt (wall clock, only when DataWedge sends it)
+ *   build    - handler start to just before notifyListeners (event building)
+ *   notify   - time spent inside notifyListeners (bridge serialization)
+ *   total    - broadcast receipt to notifyListeners returning
+ *
+ * There is no receipt-to-handler stage: the hub's receivers run on the main thread and call
+ * the scan handler synchronously, so it would always read about zero.
+ */
+class ScanLatencyTracer {
+    static final String EXTRA_DISPATCH_TIME = "com.symbol.datawedge.data_dispatch_time";
+
+    private static final String[] STAGES = { "dispatch", "build", "notify", "total" };
+
+    /**
+     * Timestamps of one scan as it moves through the pipeline
+     */
+    static class Trace {
+        final long receivedNanos;
+        final long receivedWallMs;
+        final long dispatchTimeMs;
+        final long handlerStartNanos;
+        long beforeNotifyNanos;
+
+        Trace(long receivedNanos, long receivedWallMs, long dispatchTimeMs) {
+            this.receivedNanos = receivedNanos;
+            this.receivedWallMs = receivedWallMs;
+            this.dispatchTimeMs = dispatchTimeMs;
+            this.handlerStartNanos = SystemClock.elapsedRealtimeNanos();
+        }
+
+        void markBeforeNotify() {
+            beforeNotifyNanos = SystemClock.elapsedRealtimeNanos();
+        }
+
+        /**
+         * Stage breakdown in ms, for the optional latency field on the scan event
+         */
+        JSObject toJSObject() {
+            JSObject latency = new JSObject();
+            if (dispatchTimeMs > 0) {
+                latency.put("dispatchMs", receivedWallMs - dispatchTimeMs);
+            }
+            latency.put("buildMs", (beforeNotifyNanos - handlerStartNanos) / 1_000_000.0);
+            latency.put("receivedAtNanos", receivedNanos);
+            return latency;
+        }
+    }
+
+    private final Map<String, LatencyHistogram> histograms = new LinkedHashMap<>();
+    private volatile boolean enabled = false;
+    private volatile boolean includeInEvents = false;
+
+    ScanLatencyTracer() {
+        for (String stage : STAGES) {
+            histograms.put(stage, new LatencyHistogram());
+        }
+    }
+
+    void configure(boolean enabled, boolean includeInEvents) {
+        this.enabled = enabled;
+        this.includeInEvents = enabled && includeInEvents;
+    }
+
+    boolean isIncludeInEvents() {
+        return includeInEvents;
+    }
+
+    /**
+     * Start a trace at scan handler entry. Returns null while tracing is disabled.
+     */
+    Trace begin(Intent intent, long receivedNanos, long receivedWallMs) {
+        if (!enabled) {
+            return null;
+        }
+        return new Trace(receivedNanos, receivedWallMs, readDispatchTime(intent));
+    }
+
+    /**
+     * Record a finished trace; afterNotifyNanos is taken once notifyListeners returns
+     */
+    void record(Trace trace, long afterNotifyNanos) {
+        if (trace.dispatchTimeMs > 0) {
+            histograms.get("dispatch").record((trace.receivedWallMs - trace.dispatchTimeMs) * 1_000_000L);
+        }
+        histograms.get("build").record(trace.beforeNotifyNanos - trace.handlerStartNanos);
+        histograms.get("notify").record(afterNotifyNanos - trace.beforeNotifyNanos);
+        histograms.get("total").record(afterNotifyNanos - trace.receivedNanos);
+    }
+
+    void reset() {
+        for (LatencyHistogram histogram : histograms.values()) {
+            histogram.reset();
+        }
+    }
+
+    JSObject getStats() {
+        JSObject result = new JSObject();
+        result.put("enabled", enabled);
+        result.put("includeInEvents", includeInEvents);
+        JSObject stages = new JSObject();
+        for (Map.Entry<String, LatencyHistogram> entry : histograms.entrySet()) {
+            stages.put(entry.getKey(), entry.getValue().toJSObject());
+        }
+        result.put("stages", stages);
+        return result;
+    }
+
+    /**
+     * DataWedge dispatch time in epoch ms, sent as a long or a string depending on version
+     */
+    static long readDispatchTime(Intent intent) {
+        Bundle extras = intent.getExtras();
+        Object value = extras != null ? extras.get(EXTRA_DISPATCH_TIME) : null;
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Long.parseLong((String) value);
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+}
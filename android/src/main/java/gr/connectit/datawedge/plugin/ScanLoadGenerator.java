@@ -0,0 +1,226 @@
+package gr.connectit.datawedge.plugin;
+
+import android.content.Intent;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Diagnostic load generator: injects synthetic scan intents at a fixed rate into the normal
+ * scan pipeline, so burst behaviour can be reproduced on an emulator without Zebra hardware.
+ *
+ * Intents are scheduled from a start time rather than from the previous send, so the target
+ * rate does not drift when a tick runs late. Each intent carries a sequence number and its
+ * send time; the plugin reports receipt and the end of handling back, which gives delivery
+ * and handling latency histograms and a drop count (sent but never received).
+ */
+class ScanLoadGenerator {
+    static final String EXTRA_SEQUENCE = "gr.connectit.datawedge.synthetic_sequence";
+    static final String EXTRA_SENT_NANOS = "gr.connectit.datawedge.synthetic_sent_nanos";
+
+    private static final long GRACE_MS = 1000;
+    private static final String ALPHANUMERIC = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+
+    interface Transport {
+        void deliver(Intent intent);
+    }
+
+    interface Listener {
+        void onFinished(JSObject report);
+    }
+
+    private final Transport transport;
+    private final Listener listener;
+    private final String transportName;
+    private final String scanAction;
+    private final double rate;
+    private final int total;
+    private final int minLength;
+    private final int maxLength;
+    private final String[] labelTypes;
+    private final double[] cumulativeWeights;
+    private final Random random;
+    private final HandlerThread thread = new HandlerThread("ScanLoadGenerator");
+    private Handler handler;
+
+    private final LatencyHistogram deliveryLatency = new LatencyHistogram();
+    private final LatencyHistogram handledLatency = new LatencyHistogram();
+    private final BitSet delivered = new BitSet();
+    private long startNanos;
+    private long lastSendNanos;
+    private int sent = 0;
+    private int deliveredCount = 0;
+    private boolean finished = false;
+
+    ScanLoadGenerator(Transport transport, String transportName, Listener listener, String scanAction,
+                      double rate, int total, int minLength, int maxLength,
+                      String[] labelTypes, double[] weights, Long seed) {
+        this.transport = transport;
+        this.transportName = transportName;
+        this.listener = listener;
+        this.scanAction = scanAction;
+        this.rate = rate;
+        this.total = total;
+        this.minLength = Math.max(1, minLength);
+        this.maxLength = Math.max(this.minLength, maxLength);
+        this.labelTypes = labelTypes;
+        this.random = seed != null ? new Random(seed) : new Random();
+
+        cumulativeWeights = new double[weights.length];
+        double sum = 0;
+        for (int i = 0; i < weights.length; i++) {
+            sum += Math.max(0, weights[i]);
+            cumulativeWeights[i] = sum;
+        }
+    }
+
+    void start() {
+        thread.start();
+        handler = new Handler(thread.getLooper());
+        startNanos = SystemClock.elapsedRealtimeNanos();
+        handler.post(this::tick);
+    }
+
+    /**
+     * Send every intent that is due by now, then sleep until the next one is
+     */
+    private void tick() {
+        long now = SystemClock.elapsedRealtimeNanos();
+        long due = Math.min(total, (long) ((now - startNanos) * rate / 1_000_000_000L) + 1);
+        while (sent < due) {
+            synchronized (this) {
+                if (finished) {
+                    return;
+                }
+            }
+            send();
+        }
+
+        if (sent < total) {
+            long nextDueNanos = startNanos + (long) (sent * 1_000_000_000L / rate);
+            long delayMs = Math.max(0, (nextDueNanos - SystemClock.elapsedRealtimeNanos()) / 1_000_000);
+            handler.postDelayed(this::tick, delayMs);
+        } else {
+            // Give in-flight intents a chance to arrive before counting them as dropped
+            handler.postDelayed(this::finish, GRACE_MS);
+        }
+    }
+
+    private void send() {
+        int index = pickLabelType();
+        String labelType = labelTypes[index];
+        int length = minLength + random.nextInt(maxLength - minLength + 1);
+
+        Intent intent = new Intent(scanAction);
+        intent.addCategory(Intent.CATEGORY_DEFAULT);
+        intent.putExtra("com.symbol.datawedge.source", "scanner");
+        intent.putExtra("com.symbol.datawedge.label_type", labelType);
+        intent.putExtra("com.symbol.datawedge.data_string", payload(labelType, length));
+        long sentNanos = SystemClock.elapsedRealtimeNanos();
+        synchronized (this) {
+            intent.putExtra(EXTRA_SEQUENCE, sent);
+            sent++;
+            lastSendNanos = sentNanos;
+        }
+        intent.putExtra(EXTRA_SENT_NANOS, sentNanos);
+        transport.deliver(intent);
+    }
+
+    private int pickLabelType() {
+        double total = cumulativeWeights[cumulativeWeights.length - 1];
+        if (total <= 0) {
+            return random.nextInt(labelTypes.length);
+        }
+        double pick = random.nextDouble() * total;
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (pick < cumulativeWeights[i]) {
+                return i;
+            }
+        }
+        return cumulativeWeights.length - 1;
+    }
+
+    private String payload(String labelType, int length) {
+        // EAN/UPC style symbologies only encode digits
+        boolean numeric = labelType.contains("EAN") || labelType.contains("UPC");
+        int alphabet = numeric ? 10 : ALPHANUMERIC.length();
+        char[] chars = new char[length];
+        for (int i = 0; i < length; i++) {
+            chars[i] = ALPHANUMERIC.charAt(random.nextInt(alphabet));
+        }
+        return new String(chars);
+    }
+
+    static boolean isSynthetic(Intent intent) {
+        return intent.hasExtra(EXTRA_SEQUENCE);
+    }
+
+    /**
+     * Called by the plugin when a synthetic intent reaches the scan handler
+     */
+    synchronized void onReceived(Intent intent, long receivedNanos) {
+        int sequence = intent.getIntExtra(EXTRA_SEQUENCE, -1);
+        if (sequence < 0 || delivered.get(sequence)) {
+            return;
+        }
+        delivered.set(sequence);
+        deliveredCount++;
+        deliveryLatency.record(receivedNanos - intent.getLongExtra(EXTRA_SENT_NANOS, receivedNanos));
+    }
+
+    /**
+     * Called by the plugin once the scan handler has emitted the event
+     */
+    void onHandled(Intent intent) {
+        long sentNanos = intent.getLongExtra(EXTRA_SENT_NANOS, -1);
+        if (sentNanos >= 0) {
+            handledLatency.record(SystemClock.elapsedRealtimeNanos() - sentNanos);
+        }
+    }
+
+    /**
+     * Stop sending now and report
+     */
+    void stop() {
+        finish();
+    }
+
+    private void finish() {
+        synchronized (this) {
+            if (finished) {
+                return;
+            }
+            finished = true;
+        }
+        if (handler != null) {
+            handler.removeCallbacksAndMessages(null);
+        }
+        thread.quitSafely();
+        listener.onFinished(getReport());
+    }
+
+    synchronized JSObject getReport() {
+        // Rate over the send window: first to last intent
+        double durationSec = Math.max(1, lastSendNanos - startNanos) / 1_000_000_000.0;
+
+        JSObject report = new JSObject();
+        report.put("running", !finished);
+        report.put("transport", transportName);
+        report.put("targetRate", rate);
+        report.put("planned", total);
+        report.put("sent", sent);
+        report.put("delivered", deliveredCount);
+        // Intents still in flight are only counted as dropped once the run has finished
+        report.put("dropped", finished ? sent - deliveredCount : 0);
+        report.put("durationMs", Math.round(durationSec * 1000));
+        report.put("achievedRate", sent > 1 ? (sent - 1) / durationSec : 0);
+        report.put("deliveryLatency", deliveryLatency.toJSObject());
+        report.put("handledLatency", handledLatency.toJSObject());
+        return report;
+    }
+}
@@ -0,0 +1,172 @@
+package gr.connectit.datawedge.plugin;
+
+import android.os.SystemClock;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Rolling scan analytics kept natively so recording is O(1) per scan and nothing crosses the
+ * bridge until getScanStats() is called.
+ *
+ * - Scan rate: a ring of per-second buckets covering the last hour. Each bucket remembers the
+ *   second it counts, so stale buckets are recognised and reset lazily instead of by a timer.
+ * - Symbology mix: labelType strings are mapped once to a small index into a counts array.
+ * - Gaps: time between consecutive scans in a {@link LatencyHistogram}; gaps longer than
+ *   idleThresholdMs are also counted as idle periods.
+ *
+ * record() runs on the main thread, reads come from the plugin thread.
+ */
+class ScanSessionStats {
+    private static final int RING_SECONDS = 3600;
+    private static final int[] RATE_WINDOWS_SECONDS = { 10, 60, 900, 3600 };
+
+    private final int[] secondCounts = new int[RING_SECONDS];
+    private final long[] secondStamps = new long[RING_SECONDS];
+
+    private final Map<String, Integer> labelTypeIndex = new HashMap<>();
+    private String[] labelTypes = new String[16];
+    private long[] labelTypeCounts = new long[16];
+
+    private final LatencyHistogram gaps = new LatencyHistogram();
+    private long idleThresholdMs = 30000;
+    private long idlePeriods = 0;
+    private long idleMs = 0;
+
+    private long totalScans = 0;
+    private long startedAt = System.currentTimeMillis();
+    private long firstScanAt = 0;
+    private long lastScanAt = 0;
+    private long lastScanElapsed = -1;
+
+    synchronized void record(String labelType) {
+        long elapsed = SystemClock.elapsedRealtime();
+        long second = elapsed / 1000;
+        int slot = (int) (second % RING_SECONDS);
+        if (secondStamps[slot] != second) {
+            secondStamps[slot] = second;
+            secondCounts[slot] = 0;
+        }
+        secondCounts[slot]++;
+
+        Integer index = labelTypeIndex.get(labelType);
+        if (index == null) {
+            index = labelTypeIndex.size();
+            if (index == labelTypes.length) {
+                String[] grownTypes = new String[index * 2];
+                long[] grownCounts = new long[index * 2];
+                System.arraycopy(labelTypes, 0, grownTypes, 0, index);
+                System.arraycopy(labelTypeCounts, 0, grownCounts, 0, index);
+                labelTypes = grownTypes;
+                labelTypeCounts = grownCounts;
+            }
+            labelTypes[index] = labelType;
+            labelTypeIndex.put(labelType, index);
+        }
+        labelTypeCounts[index]++;
+
+        if (lastScanElapsed >= 0) {
+            long gapMs = elapsed - lastScanElapsed;
+            gaps.record(gapMs * 1_000_000L);
+            if (gapMs >= idleThresholdMs) {
+                idlePeriods++;
+                idleMs += gapMs;
+            }
+        }
+        lastScanElapsed = elapsed;
+
+        long now = System.currentTimeMillis();
+        if (totalScans == 0) {
+            firstScanAt = now;
+        }
+        lastScanAt = now;
+        totalScans++;
+    }
+
+    synchronized void setIdleThresholdMs(long idleThresholdMs) {
+        this.idleThresholdMs = Math.max(1, idleThresholdMs);
+    }
+
+    synchronized void reset() {
+        for (int i = 0; i < RING_SECONDS; i++) {
+            secondCounts[i] = 0;
+            secondStamps[i] = 0;
+        }
+        labelTypeIndex.clear();
+        labelTypes = new String[16];
+        labelTypeCounts = new long[16];
+        gaps.reset();
+        idlePeriods = 0;
+        idleMs = 0;
+        totalScans = 0;
+        startedAt = System.currentTimeMillis();
+        firstScanAt = 0;
+        lastScanAt = 0;
+        lastScanElapsed = -1;
+    }
+
+    synchronized JSObject getStats() {
+        long nowSecond = SystemClock.elapsedRealtime() / 1000;
+
+        // Walk back over the last hour once; windows are nested so one pass fills all of them
+        long[] windowCounts = new long[RATE_WINDOWS_SECONDS.length];
+        int peakPerSecond = 0;
+        for (int age = 0; age < RING_SECONDS; age++) {
+            long second = nowSecond - age;
+            if (second < 0) {
+                break;
+            }
+            int slot = (int) (second % RING_SECONDS);
+            if (secondStamps[slot] != second || secondCounts[slot] == 0) {
+                continue;
+            }
+            int count = secondCounts[slot];
+            peakPerSecond = Math.max(peakPerSecond, count);
+            for (int w = 0; w < RATE_WINDOWS_SECONDS.length; w++) {
+                if (age < RATE_WINDOWS_SECONDS[w]) {
+                    windowCounts[w] += count;
+                }
+            }
+        }
+
+        JSObject rates = new JSObject();
+        for (int w = 0; w < RATE_WINDOWS_SECONDS.length; w++) {
+            int seconds = RATE_WINDOWS_SECONDS[w];
+            JSObject window = new JSObject();
+            window.put("scans", windowCounts[w]);
+            window.put("perMinute", windowCounts[w] * 60.0 / seconds);
+            rates.put("last" + seconds + "s", window);
+        }
+
+        JSONArray symbologies = new JSONArray();
+        for (int i = 0; i < labelTypeIndex.size(); i++) {
+            JSObject entry = new JSObject();
+            entry.put("labelType", labelTypes[i]);
+            entry.put("count", labelTypeCounts[i]);
+            entry.put("share", totalScans > 0 ? (double) labelTypeCounts[i] / totalScans : 0);
+            symbologies.put(entry);
+        }
+
+        JSObject gapStats = gaps.toJSObject();
+        gapStats.put("idleThresholdMs", idleThresholdMs);
+        gapStats.put("idlePeriods", idlePeriods);
+        gapStats.put("idleMs", idleMs);
+
+        JSObject stats = new JSObject();
+        stats.put("totalScans", totalScans);
+        stats.put("startedAt", startedAt);
+        if (totalScans > 0) {
+            stats.put("firstScanAt", firstScanAt);
+            stats.put("lastScanAt", lastScanAt);
+        }
+        stats.put("rates", rates);
+        stats.put("peakPerSecond", peakPerSecond);
+        stats.put("symbologies", symbologies);
+        stats.put("gaps", gapStats);
+        return stats;
+    }
+}
@@ -0,0 +1,138 @@
+package gr.connectit.datawedge.plugin;
+
+import com.getcapacitor.JSObject;
+
+/**
+ * In-memory view of the scanner state and active profile, fed by SCANNER_STATUS /
+ * PROFILE_SWITCH notifications and by query results.
+ *
+ * A value is only served from memory while the matching notification is registered,
+ * since otherwise nothing tells us when it goes stale.
+ */
+class ScannerStateTracker {
+
+    enum State {
+        IDLE,
+        WAITING,
+        SCANNING,
+        DISABLED,
+        ERROR,
+        UNKNOWN;
+
+        static State fromStatus(String status) {
+            if (status == null) {
+                return UNKNOWN;
+            }
+            switch (status) {
+                case "IDLE":
+                case "CONNECTED":
+                    return IDLE;
+                case "WAITING":
+                    return WAITING;
+                case "SCANNING":
+                    return SCANNING;
+                case "DISABLED":
+                case "DISCONNECTED":
+                    return DISABLED;
+                case "ERROR":
+                    return ERROR;
+                default:
+                    return UNKNOWN;
+            }
+        }
+    }
+
+    private State state = State.UNKNOWN;
+    private String rawStatus;
+    private String activeProfile;
+    private long stateSince = 0;
+    private long statusUpdatedAt = 0;
+    private long profileUpdatedAt = 0;
+    private String statusSource;
+    private String profileSource;
+    private long transitions = 0;
+
+    private boolean statusLive = false;
+    private boolean profileLive = false;
+
+    /**
+     * Record a scanner status from a notification or a GET_SCANNER_STATUS result
+     */
+    synchronized void onScannerStatus(String status, String profileName, String source) {
+        long now = System.currentTimeMillis();
+        State next = State.fromStatus(status);
+        if (next != state) {
+            state = next;
+            stateSince = now;
+            transitions++;
+        }
+        rawStatus = status;
+        statusUpdatedAt = now;
+        statusSource = source;
+
+        if (profileName != null && !profileName.isEmpty()) {
+            onActiveProfile(profileName, source);
+        }
+    }
+
+    /**
+     * Record the active profile from a notification or a GET_ACTIVE_PROFILE result
+     */
+    synchronized void onActiveProfile(String profileName, String source) {
+        activeProfile = profileName;
+        profileUpdatedAt = System.currentTimeMillis();
+        profileSource = source;
+    }
+
+    synchronized void setStatusLive(boolean live) {
+        statusLive = live;
+    }
+
+    synchronized void setProfileLive(boolean live) {
+        profileLive = live;
+    }
+
+    synchronized boolean hasLiveStatus() {
+        return statusLive && state != State.UNKNOWN;
+    }
+
+    synchronized boolean hasLiveProfile() {
+        return profileLive && activeProfile != null;
+    }
+
+    synchronized String getActiveProfile() {
+        return activeProfile;
+    }
+
+    synchronized JSObject toStatusResult() {
+        JSObject result = new JSObject();
+        result.put("status", rawStatus != null ? rawStatus : state.toString());
+        result.put("cached", true);
+        result.put("updatedAt", statusUpdatedAt);
+        return result;
+    }
+
+    synchronized JSObject toProfileResult() {
+        JSObject result = new JSObject();
+        result.put("profileName", activeProfile);
+        result.put("cached", true);
+        result.put("updatedAt", profileUpdatedAt);
+        return result;
+    }
+
+    synchronized JSObject toJSObject() {
+        JSObject result = new JSObject();
+        result.put("state", state.toString());
+        result.put("status", rawStatus);
+        result.put("activeProfile", activeProfile);
+        result.put("stateSince", stateSince);
+        result.put("statusUpdatedAt", statusUpdatedAt);
+        result.put("profileUpdatedAt", profileUpdatedAt);
+        result.put("statusSource", statusSource);
+        result.put("profileSource", profileSource);
+        result.put("transitions", transitions);
+        result.put("statusLive", statusLive);
+        result.put("profileLive", profileLive);
+        return result;
+    }
+}
@@ -0,0 +1,140 @@
+package gr.connectit.datawedge.plugin;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import android.os.Bundle;
+import android.os.Parcelable;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+@RunWith(RobolectricTestRunner.class)
+public class BundleCodecTest {
+
+    /**
+     * Encode, write out as text the way a recording is stored, read back and decode
+     */
+    private static Bundle roundTrip(Bundle bundle) throws JSONException {
+        String text = BundleCodec.encode(bundle).toString();
+        return BundleCodec.decode(new JSONObject(text));
+    }
+
+    @Test
+    public void scalarsKeepTheirExactType() throws JSONException {
+        Bundle bundle = new Bundle();
+        bundle.putString("string", "0123456789");
+        bundle.putInt("int", -42);
+        bundle.putLong("long", 9007199254740993L);
+        bundle.putShort("short", (short) 1234);
+        bundle.putByte("byte", (byte) -7);
+        bundle.putBoolean("boolean", true);
+        bundle.putDouble("double", 0.1);
+        bundle.putFloat("float", 1.1f);
+
+        Bundle decoded = roundTrip(bundle);
+
+        assertEquals("0123456789", decoded.get("string"));
+        assertEquals(Integer.valueOf(-42), decoded.get("int"));
+        assertEquals(Long.valueOf(9007199254740993L), decoded.get("long"));
+        assertEquals(Short.valueOf((short) 1234), decoded.get("short"));
+        assertEquals(Byte.valueOf((byte) -7), decoded.get("byte"));
+        assertEquals(Boolean.TRUE, decoded.get("boolean"));
+        assertEquals(Double.valueOf(0.1), decoded.get("double"));
+        assertEquals(Float.valueOf(1.1f), decoded.get("float"));
+    }
+
+    @Test
+    public void arraysAndRawBytesRoundTrip() throws JSONException {
+        byte[] raw = { 0, 1, (byte) 0xFF, 0x1D, 0x7F };
+        Bundle bundle = new Bundle();
+        bundle.putByteArray("raw", raw);
+        bundle.putStringArray("strings", new String[] { "a", null, "c" });
+        bundle.putIntArray("ints", new int[] { 1, -2, Integer.MAX_VALUE });
+        bundle.putLongArray("longs", new long[] { Long.MIN_VALUE, 0, 5 });
+
+        Bundle decoded = roundTrip(bundle);
+
+        assertArrayEquals(raw, decoded.getByteArray("raw"));
+        assertArrayEquals(new String[] { "a", null, "c" }, decoded.getStringArray("strings"));
+        assertArrayEquals(new int[] { 1, -2, Integer.MAX_VALUE }, decoded.getIntArray("ints"));
+        assertArrayEquals(new long[] { Long.MIN_VALUE, 0, 5 }, decoded.getLongArray("longs"));
+    }
+
+    @Test
+    public void nestedBundlesAndParcelableArraysRoundTrip() throws JSONException {
+        Bundle params = new Bundle();
+        params.putString("decoder_ean13", "true");
+        Bundle plugin = new Bundle();
+        plugin.putString("PLUGIN_NAME", "BARCODE");
+        plugin.putBundle("PARAM_LIST", params);
+        Bundle second = new Bundle();
+        second.putString("PLUGIN_NAME", "INTENT");
+        Bundle config = new Bundle();
+        config.putBundle("PLUGIN_CONFIG", plugin);
+        config.putParcelableArray("APP_LIST", new Bundle[] { plugin, second });
+
+        Bundle decoded = roundTrip(config);
+
+        assertEquals("true", decoded.getBundle("PLUGIN_CONFIG").getBundle("PARAM_LIST").getString("decoder_ean13"));
+        Parcelable[] apps = decoded.getParcelableArray("APP_LIST");
+        assertEquals(2, apps.length);
+        assertEquals("BARCODE", ((Bundle) apps[0]).getString("PLUGIN_NAME"));
+        assertEquals("INTENT", ((Bundle) apps[1]).getString("PLUGIN_NAME"));
+    }
+
+    @Test
+    public void listsGoBackWithTheirTypedPutter() throws JSONException {
+        Bundle item = new Bundle();
+        item.putString("data_string", "4006381333931");
+        Bundle bundle = new Bundle();
+        bundle.putStringArrayList("strings", new ArrayList<>(Arrays.asList("x", "y")));
+        bundle.putIntegerArrayList("ints", new ArrayList<>(Arrays.asList(3, 4)));
+        bundle.putParcelableArrayList("bundles", new ArrayList<>(Arrays.asList(item)));
+        ArrayList<byte[]> decodeData = new ArrayList<>();
+        decodeData.add(new byte[] { 0x34, 0x30 });
+        decodeData.add(new byte[] { 0x1D });
+        bundle.putSerializable("decode_data", decodeData);
+
+        Bundle decoded = roundTrip(bundle);
+
+        assertEquals(Arrays.asList("x", "y"), decoded.getStringArrayList("strings"));
+        assertEquals(Arrays.asList(3, 4), decoded.getIntegerArrayList("ints"));
+        ArrayList<Bundle> bundles = decoded.getParcelableArrayList("bundles");
+        assertEquals("4006381333931", bundles.get(0).getString("data_string"));
+        @SuppressWarnings("unchecked")
+        List<byte[]> segments = (List<byte[]>) decoded.getSerializable("decode_data");
+        assertEquals(2, segments.size());
+        assertArrayEquals(new byte[] { 0x34, 0x30 }, segments.get(0));
+        assertArrayEquals(new byte[] { 0x1D }, segments.get(1));
+    }
+
+    @Test
+    public void unsupportedValuesAreDropped() throws JSONException {
+        Bundle bundle = new Bundle();
+        bundle.putString("kept", "yes");
+        bundle.putSerializable("date", (Serializable) new Date(0));
+
+        Bundle decoded = roundTrip(bundle);
+
+        assertTrue(decoded.containsKey("kept"));
+        assertFalse(decoded.containsKey("date"));
+        assertEquals(1, decoded.size());
+    }
+
+    @Test
+    public void emptyBundleRoundTrips() throws JSONException {
+        assertTrue(roundTrip(new Bundle()).isEmpty());
+    }
+}
@@ -0,0 +1,146 @@
+package gr.connectit.datawedge.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Intent;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class DataWedgeCommandCoalescerTest {
+
+    /**
+     * Call that records what it was resolved with instead of answering the bridge
+     */
+    static class RecordingCall extends PluginCall {
+        JSObject resolved;
+
+        RecordingCall() {
+            super(null, "DataWedge", "test", "test", new JSObject());
+        }
+
+        @Override
+        public void resolve(JSObject data) {
+            resolved = data;
+        }
+    }
+
+    private final List<Intent> dispatchedIntents = new ArrayList<>();
+    private final List<PluginCall> dispatchedCalls = new ArrayList<>();
+    private DataWedgeCommandCoalescer coalescer;
+
+    @Before
+    public void setUp() {
+        coalescer = new DataWedgeCommandCoalescer((intent, call) -> {
+            dispatchedIntents.add(intent);
+            dispatchedCalls.add(call);
+        });
+    }
+
+    @Test
+    public void dispatchesImmediatelyWithoutDebounce() {
+        RecordingCall call = new RecordingCall();
+        Intent intent = new Intent("switch");
+
+        coalescer.submit(DataWedgeCommandCoalescer.KIND_SWITCH_TO_PROFILE, intent, call);
+
+        assertEquals(1, dispatchedIntents.size());
+        assertSame(intent, dispatchedIntents.get(0));
+        assertNull(call.resolved);
+    }
+
+    @Test
+    public void keepsOnlyTheLastCommandOfAKindWithinTheWindow() {
+        coalescer.setDebounceMs(100);
+        RecordingCall first = new RecordingCall();
+        RecordingCall second = new RecordingCall();
+        RecordingCall last = new RecordingCall();
+        Intent lastIntent = new Intent("params-3");
+
+        coalescer.submit(DataWedgeCommandCoalescer.KIND_SWITCH_SCANNER_PARAMS, new Intent("params-1"), first);
+        coalescer.submit(DataWedgeCommandCoalescer.KIND_SWITCH_SCANNER_PARAMS, new Intent("params-2"), second);
+        coalescer.submit(DataWedgeCommandCoalescer.KIND_SWITCH_SCANNER_PARAMS, lastIntent, last);
+
+        assertTrue(dispatchedIntents.isEmpty());
+        assertTrue(first.resolved.optBoolean("coalesced"));
+        assertTrue(second.resolved.optBoolean("coalesced"));
+
+        ShadowLooper.idleMainLooper(100, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, dispatchedIntents.size());
+        assertSame(lastIntent, dispatchedIntents.get(0));
+        assertSame(last, dispatchedCalls.get(0));
+        assertEquals(3, coalescer.getStats().optLong("submitted"));
+        assertEquals(2, coalescer.getStats().optLong("coalesced"));
+    }
+
+    @Test
+    public void eachSubmitRestartsTheWindow() {
+        coalescer.setDebounceMs(100);
+
+        coalescer.submit(DataWedgeCommandCoalescer.KIND_SWITCH_SCANNER_PARAMS, new Intent("params-1"), new RecordingCall());
+        ShadowLooper.idleMainLooper(60, TimeUnit.MILLISECONDS);
+        coalescer.submit(DataWedgeCommandCoalescer.KIND_SWITCH_SCANNER_PARAMS, new Intent("params-2"), new RecordingCall());
+        ShadowLooper.idleMainLooper(60, TimeUnit.MILLISECONDS);
+
+        assertTrue(dispatchedIntents.isEmpty());
+
+        ShadowLooper.idleMainLooper(40, TimeUnit.MILLISECONDS);
+
+        assertEquals(1, dispatchedIntents.size());
+        assertEquals("params-2", dispatchedIntents.get(0).getAction());
+    }
+
+    @Test
+    public void profileSwitchSupersedesPendingScannerParams() {
+        coalescer.setDebounceMs(100);
+        RecordingCall params = new RecordingCall();
+        Intent profile = new Intent("profile");
+
+        coalescer.submit(DataWedgeCommandCoalescer.KIND_SWITCH_SCANNER_PARAMS, new Intent("params"), params);
+        coalescer.submit(DataWedgeCommandCoalescer.KIND_SWITCH_TO_PROFILE, profile, new RecordingCall());
+        coalescer.flush();
+
+        assertTrue(params.resolved.optBoolean("coalesced"));
+        assertEquals(1, dispatchedIntents.size());
+        assertSame(profile, dispatchedIntents.get(0));
+    }
+
+    @Test
+    public void scannerParamsAfterAProfileSwitchAreBothSentInOrder() {
+        coalescer.setDebounceMs(100);
+
+        coalescer.submit(DataWedgeCommandCoalescer.KIND_SWITCH_TO_PROFILE, new Intent("profile"), new RecordingCall());
+        coalescer.submit(DataWedgeCommandCoalescer.KIND_SWITCH_SCANNER_PARAMS, new Intent("params"), new RecordingCall());
+        coalescer.flush();
+
+        assertEquals(2, dispatchedIntents.size());
+        assertEquals("profile", dispatchedIntents.get(0).getAction());
+        assertEquals("params", dispatchedIntents.get(1).getAction());
+    }
+
+    @Test
+    public void disablingTheWindowFlushesPendingCommands() {
+        coalescer.setDebounceMs(100);
+        coalescer.submit(DataWedgeCommandCoalescer.KIND_SWITCH_TO_PROFILE, new Intent("profile"), new RecordingCall());
+
+        coalescer.setDebounceMs(0);
+
+        assertEquals(1, dispatchedIntents.size());
+        assertEquals(0, coalescer.getStats().optLong("pending"));
+    }
+}
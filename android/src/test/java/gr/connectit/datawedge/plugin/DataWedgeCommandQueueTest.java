@@ -0,0 +1,202 @@
+package gr.connectit.datawedge.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import android.content.Intent;
+import android.os.Bundle;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@RunWith(RobolectricTestRunner.class)
+public class DataWedgeCommandQueueTest {
+
+    private final List<Intent> sent = new ArrayList<>();
+    private DataWedgeCommandQueue queue;
+
+    @Before
+    public void setUp() {
+        queue = new DataWedgeCommandQueue(sent::add);
+        queue.configure(2, 1000);
+    }
+
+    private static Intent intent(String name) {
+        return new Intent(name);
+    }
+
+    private List<String> sentActions() {
+        List<String> actions = new ArrayList<>();
+        for (Intent intent : sent) {
+            actions.add(intent.getAction());
+        }
+        return actions;
+    }
+
+    /**
+     * RESULT_ACTION extras acknowledging a sent command
+     */
+    private static Bundle ack(Intent command, String result) {
+        Bundle bundle = new Bundle();
+        bundle.putString(DataWedgeCommandQueue.EXTRA_COMMAND_IDENTIFIER,
+            command.getStringExtra(DataWedgeCommandQueue.EXTRA_COMMAND_IDENTIFIER));
+        bundle.putString("RESULT", result);
+        return bundle;
+    }
+
+    @Test
+    public void sendsInIssueOrderAndTagsCommands() {
+        queue.enqueueQuery(intent("query-1"));
+        queue.enqueueCommand(intent("command-1"), DataWedgeCommandQueue.Priority.NORMAL, null);
+        queue.enqueueQuery(intent("query-2"));
+
+        assertEquals(List.of("query-1", "command-1", "query-2"), sentActions());
+        assertFalse(sent.get(0).hasExtra(DataWedgeCommandQueue.EXTRA_COMMAND_IDENTIFIER));
+        String identifier = sent.get(1).getStringExtra(DataWedgeCommandQueue.EXTRA_COMMAND_IDENTIFIER);
+        assertTrue(DataWedgeCommandQueue.isQueueIdentifier(identifier));
+        assertNotNull(sent.get(1).getStringExtra(DataWedgeCommandQueue.EXTRA_SEND_RESULT));
+    }
+
+    @Test
+    public void holdsCommandsBeyondTheInFlightLimitAndKeepsQueriesInLine() {
+        queue.enqueueCommand(intent("command-1"), DataWedgeCommandQueue.Priority.NORMAL, null);
+        queue.enqueueCommand(intent("command-2"), DataWedgeCommandQueue.Priority.NORMAL, null);
+        queue.enqueueCommand(intent("command-3"), DataWedgeCommandQueue.Priority.NORMAL, null);
+        queue.enqueueQuery(intent("query"));
+
+        assertEquals(List.of("command-1", "command-2"), sentActions());
+
+        assertTrue(queue.onResult(ack(sent.get(0), "SUCCESS")));
+
+        assertEquals(List.of("command-1", "command-2", "command-3", "query"), sentActions());
+    }
+
+    @Test
+    public void settlesTheListenerWithTheResult() {
+        Bundle[] settled = new Bundle[1];
+        queue.enqueueCommand(intent("command"), DataWedgeCommandQueue.Priority.NORMAL, result -> settled[0] = result);
+        Bundle result = ack(sent.get(0), "FAILURE");
+
+        assertTrue(queue.onResult(result));
+
+        assertSame(result, settled[0]);
+        assertEquals(1, queue.getStats().optLong("acknowledged"));
+        assertEquals(1, queue.getStats().optLong("failed"));
+    }
+
+    @Test
+    public void ignoresResultsItDidNotAskFor() {
+        Bundle foreign = new Bundle();
+        foreign.putString(DataWedgeCommandQueue.EXTRA_COMMAND_IDENTIFIER, "someone-else-1");
+
+        assertFalse(queue.onResult(foreign));
+        assertFalse(queue.onResult(new Bundle()));
+        assertFalse(DataWedgeCommandQueue.isQueueIdentifier("someone-else-1"));
+    }
+
+    @Test
+    public void barrierWaitsForEveryEarlierCommand() {
+        queue.enqueueCommand(intent("create"), DataWedgeCommandQueue.Priority.NORMAL, null);
+        queue.enqueueAfterPrevious(intent("configure"), 0, null);
+        queue.enqueueQuery(intent("query"));
+
+        assertEquals(List.of("create"), sentActions());
+
+        queue.onResult(ack(sent.get(0), "SUCCESS"));
+
+        assertEquals(List.of("create", "configure", "query"), sentActions());
+    }
+
+    @Test
+    public void highPriorityJumpsAheadOfHeldCommands() {
+        queue.configure(1, 1000);
+        queue.enqueueCommand(intent("config-1"), DataWedgeCommandQueue.Priority.NORMAL, null);
+        queue.enqueueCommand(intent("config-2"), DataWedgeCommandQueue.Priority.NORMAL, null);
+
+        queue.enqueueCommand(intent("trigger"), DataWedgeCommandQueue.Priority.HIGH, null);
+
+        assertEquals(List.of("config-1", "trigger"), sentActions());
+    }
+
+    @Test
+    public void ackTimeoutFreesTheSlotAndSettlesWithNull() {
+        queue.configure(1, 1000);
+        boolean[] settled = new boolean[1];
+        Bundle[] result = { new Bundle() };
+        queue.enqueueCommand(intent("lost"), DataWedgeCommandQueue.Priority.NORMAL, r -> {
+            settled[0] = true;
+            result[0] = r;
+        });
+        queue.enqueueCommand(intent("next"), DataWedgeCommandQueue.Priority.NORMAL, null);
+
+        ShadowLooper.idleMainLooper(999, TimeUnit.MILLISECONDS);
+        assertFalse(settled[0]);
+        assertEquals(List.of("lost"), sentActions());
+
+        ShadowLooper.idleMainLooper(1, TimeUnit.MILLISECONDS);
+        assertTrue(settled[0]);
+        assertNull(result[0]);
+        assertEquals(List.of("lost", "next"), sentActions());
+        assertEquals(1, queue.getStats().optLong("timedOut"));
+        // A late acknowledgement no longer matches anything
+        assertFalse(queue.onResult(ack(sent.get(0), "SUCCESS")));
+    }
+
+    @Test
+    public void longerResultTimeoutKeepsListeningAfterTheSlotIsFreed() {
+        queue.configure(1, 1000);
+        Bundle[] settled = new Bundle[1];
+        queue.enqueueCommand(intent("import"), DataWedgeCommandQueue.Priority.NORMAL, 5000, result -> settled[0] = result);
+        queue.enqueueCommand(intent("next"), DataWedgeCommandQueue.Priority.NORMAL, null);
+
+        ShadowLooper.idleMainLooper(1000, TimeUnit.MILLISECONDS);
+        assertEquals(List.of("import", "next"), sentActions());
+        assertEquals(1, queue.getStats().optLong("awaitingResult"));
+
+        Bundle result = ack(sent.get(0), "SUCCESS");
+        assertTrue(queue.onResult(result));
+        assertSame(result, settled[0]);
+        assertEquals(0, queue.getStats().optLong("awaitingResult"));
+    }
+
+    @Test
+    public void resultTimeoutSettlesWithNull() {
+        boolean[] settled = new boolean[1];
+        queue.enqueueCommand(intent("import"), DataWedgeCommandQueue.Priority.NORMAL, 3000, result -> {
+            settled[0] = true;
+            assertNull(result);
+        });
+
+        ShadowLooper.idleMainLooper(2999, TimeUnit.MILLISECONDS);
+        assertFalse(settled[0]);
+
+        ShadowLooper.idleMainLooper(1, TimeUnit.MILLISECONDS);
+        assertTrue(settled[0]);
+    }
+
+    @Test
+    public void runsOnDispatchedRightAfterSending() {
+        queue.configure(1, 1000);
+        queue.enqueueCommand(intent("busy"), DataWedgeCommandQueue.Priority.NORMAL, null);
+        int[] sentWhenDispatched = { -1 };
+        queue.enqueueCommand(intent("start"), DataWedgeCommandQueue.Priority.NORMAL,
+            () -> sentWhenDispatched[0] = sent.size(), null);
+
+        assertEquals(-1, sentWhenDispatched[0]);
+
+        queue.onResult(ack(sent.get(0), "SUCCESS"));
+
+        assertEquals(2, sentWhenDispatched[0]);
+    }
+}
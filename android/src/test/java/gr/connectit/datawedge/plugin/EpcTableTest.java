@@ -0,0 +1,132 @@
+package gr.connectit.datawedge.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class EpcTableTest {
+
+    /**
+     * One visited row of a drain
+     */
+    static class Row {
+        final int count;
+        final int newReads;
+        final long firstSeen;
+        final long lastSeen;
+        final int peakRssi;
+        final boolean isNew;
+
+        Row(int count, int newReads, long firstSeen, long lastSeen, int peakRssi, boolean isNew) {
+            this.count = count;
+            this.newReads = newReads;
+            this.firstSeen = firstSeen;
+            this.lastSeen = lastSeen;
+            this.peakRssi = peakRssi;
+            this.isNew = isNew;
+        }
+    }
+
+    private static Map<String, Row> drain(EpcTable table, int maxTags) {
+        Map<String, Row> rows = new LinkedHashMap<>();
+        table.drain((epc, count, newReads, firstSeen, lastSeen, peakRssi, isNew) ->
+            rows.put(epc, new Row(count, newReads, firstSeen, lastSeen, peakRssi, isNew)), maxTags);
+        return rows;
+    }
+
+    @Test
+    public void aggregatesRepeatedReadsOfATag() {
+        EpcTable table = new EpcTable();
+
+        assertTrue(table.record("E200001", 100, -60));
+        assertFalse(table.record("E200001", 150, -45));
+        assertFalse(table.record("E200001", 200, -70));
+
+        Row row = drain(table, 10).get("E200001");
+        assertEquals(3, row.count);
+        assertEquals(3, row.newReads);
+        assertEquals(100, row.firstSeen);
+        assertEquals(200, row.lastSeen);
+        assertEquals(-45, row.peakRssi);
+        assertTrue(row.isNew);
+        assertEquals(1, table.size());
+        assertEquals(3, table.getTotalReads());
+    }
+
+    @Test
+    public void drainOnlyReportsTagsTouchedSinceTheLastDrain() {
+        EpcTable table = new EpcTable();
+        table.record("A", 1, EpcTable.NO_RSSI);
+        table.record("B", 1, EpcTable.NO_RSSI);
+        drain(table, 10);
+
+        table.record("B", 2, EpcTable.NO_RSSI);
+        table.record("B", 3, EpcTable.NO_RSSI);
+        Map<String, Row> rows = drain(table, 10);
+
+        assertEquals(1, rows.size());
+        Row row = rows.get("B");
+        assertEquals(3, row.count);
+        assertEquals(2, row.newReads);
+        assertFalse(row.isNew);
+        assertTrue(drain(table, 10).isEmpty());
+    }
+
+    @Test
+    public void rssiIsKeptOnceAReadReportsIt() {
+        EpcTable table = new EpcTable();
+
+        table.record("A", 1, EpcTable.NO_RSSI);
+        table.record("A", 2, -52);
+
+        assertEquals(-52, drain(table, 10).get("A").peakRssi);
+    }
+
+    @Test
+    public void boundedDrainLeavesTheRemainderPending() {
+        EpcTable table = new EpcTable();
+        for (int i = 0; i < 5; i++) {
+            table.record("EPC" + i, i, EpcTable.NO_RSSI);
+        }
+
+        Map<String, Row> first = drain(table, 3);
+
+        assertEquals(3, first.size());
+        assertEquals(2, table.pendingCount());
+        Map<String, Row> rest = drain(table, 3);
+        assertEquals(2, rest.size());
+        assertTrue(rest.containsKey("EPC3"));
+        assertTrue(rest.containsKey("EPC4"));
+        assertEquals(0, table.pendingCount());
+    }
+
+    @Test
+    public void growsPastTheInitialCapacityWithoutLosingTags() {
+        EpcTable table = new EpcTable();
+        int tags = 2000;
+        for (int i = 0; i < tags; i++) {
+            table.record(String.format("E28011700000%08X", i), i, -50);
+        }
+        // Drain half so both drained and pending tags go through later resizes
+        drain(table, tags / 2);
+        for (int i = 0; i < tags; i++) {
+            assertFalse(table.record(String.format("E28011700000%08X", i), tags + i, -40));
+        }
+
+        Map<String, Row> rows = new HashMap<>(drain(table, Integer.MAX_VALUE));
+
+        assertEquals(tags, table.size());
+        assertEquals(tags, rows.size());
+        assertEquals(2L * tags, table.getTotalReads());
+        for (Row row : rows.values()) {
+            assertEquals(2, row.count);
+            assertEquals(-40, row.peakRssi);
+        }
+    }
+}
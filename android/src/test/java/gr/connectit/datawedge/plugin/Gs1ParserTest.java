@@ -0,0 +1,137 @@
+package gr.connectit.datawedge.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class Gs1ParserTest {
+
+    private static final double DELTA = 1e-9;
+    private static final String GS = String.valueOf(Gs1Parser.GS);
+
+    private static JSONObject element(JSObject result, int index) {
+        return result.optJSONArray("elements").optJSONObject(index);
+    }
+
+    @Test
+    public void parsesFixedAndVariableFieldsAfterTheSymbologyId() {
+        JSObject result = Gs1Parser.parse("]C1" + "0109506000134352" + "17241231" + "10ABC123" + GS + "21XYZ");
+
+        assertEquals("]C1", result.optString("symbologyId"));
+        assertTrue(result.optBoolean("valid"));
+        JSONObject ais = result.optJSONObject("ais");
+        assertEquals("09506000134352", ais.optString("01"));
+        assertEquals("241231", ais.optString("17"));
+        assertEquals("ABC123", ais.optString("10"));
+        assertEquals("XYZ", ais.optString("21"));
+        assertEquals(4, result.optJSONArray("elements").length());
+        assertEquals("GTIN", element(result, 0).optString("title"));
+        assertEquals("2024-12-31", element(result, 1).optString("date"));
+    }
+
+    @Test
+    public void leadingFnc1IsSkipped() {
+        JSObject result = Gs1Parser.parse(GS + "00106141411234567897");
+
+        assertTrue(result.optBoolean("valid"));
+        assertEquals("106141411234567897", result.optJSONObject("ais").optString("00"));
+    }
+
+    @Test
+    public void dayZeroIsTheLastDayOfTheMonth() {
+        JSObject result = Gs1Parser.parse("17240200");
+
+        assertEquals("2024-02-29", element(result, 0).optString("date"));
+    }
+
+    @Test
+    public void invalidDateIsReportedOnTheElement() {
+        JSObject result = Gs1Parser.parse("17241301");
+
+        assertFalse(result.optBoolean("valid"));
+        assertFalse(element(result, 0).optBoolean("valid", true));
+        assertEquals("Invalid date", element(result, 0).optString("error"));
+    }
+
+    @Test
+    public void decimalIndicatorScalesMeasures() {
+        JSObject result = Gs1Parser.parse("3103000150");
+
+        assertEquals("3103", element(result, 0).optString("ai"));
+        assertEquals(0.150, element(result, 0).optDouble("decimal"), DELTA);
+    }
+
+    @Test
+    public void currencyAmountsSplitTheIsoCode() {
+        JSObject result = Gs1Parser.parse("3932" + "978" + "12345");
+
+        JSONObject price = element(result, 0);
+        assertEquals("978", price.optString("currency"));
+        assertEquals(123.45, price.optDouble("decimal"), DELTA);
+    }
+
+    @Test
+    public void variableFieldStopsAtItsMaximumLength() {
+        JSObject result = Gs1Parser.parse("10" + "ABCDEFGHIJKLMNOPQRST" + "21SN1");
+
+        assertTrue(result.optBoolean("valid"));
+        assertEquals("ABCDEFGHIJKLMNOPQRST", result.optJSONObject("ais").optString("10"));
+        assertEquals("SN1", result.optJSONObject("ais").optString("21"));
+    }
+
+    @Test
+    public void badCheckDigitInvalidatesTheResultButKeepsTheElement() {
+        JSObject result = Gs1Parser.parse("0109506000134353" + "10LOT");
+
+        assertFalse(result.optBoolean("valid"));
+        assertEquals("Invalid check digit", element(result, 0).optString("error"));
+        assertEquals("LOT", result.optJSONObject("ais").optString("10"));
+    }
+
+    @Test
+    public void unknownAiStopsParsingAndKeepsWhatCameBefore() {
+        JSObject result = Gs1Parser.parse("0109506000134352" + "05123");
+
+        assertFalse(result.optBoolean("valid"));
+        assertEquals("Unknown AI at position 16", result.optString("error"));
+        JSONArray elements = result.optJSONArray("elements");
+        assertEquals(1, elements.length());
+    }
+
+    @Test
+    public void truncatedFixedFieldIsAnError() {
+        JSObject result = Gs1Parser.parse("0109506");
+
+        assertFalse(result.optBoolean("valid"));
+        assertEquals("AI 01 expects 14 characters", result.optString("error"));
+        assertEquals(0, result.optJSONArray("elements").length());
+    }
+
+    @Test
+    public void preCheckUsesSymbologyIdFnc1OrLabelType() {
+        assertTrue(Gs1Parser.looksLikeGs1("]d2010950600013435", "LABEL-TYPE-DATAMATRIX"));
+        assertTrue(Gs1Parser.looksLikeGs1(GS + "0109506000134352", null));
+        assertTrue(Gs1Parser.looksLikeGs1("0109506000134352", "LABEL-TYPE-GS1-DATABAR"));
+        assertTrue(Gs1Parser.looksLikeGs1("0109506000134352", "LABEL-TYPE-EAN128"));
+        assertFalse(Gs1Parser.looksLikeGs1("0109506000134352", "LABEL-TYPE-CODE128"));
+        assertFalse(Gs1Parser.looksLikeGs1("", "LABEL-TYPE-GS1-DATABAR"));
+        assertFalse(Gs1Parser.looksLikeGs1(null, null));
+    }
+
+    @Test
+    public void checkDigitUsesGs1Mod10() {
+        assertTrue(Gs1Parser.hasValidCheckDigit("09506000134352"));
+        assertTrue(Gs1Parser.hasValidCheckDigit("00614141123452"));
+        assertTrue(Gs1Parser.hasValidCheckDigit("106141411234567897"));
+        assertFalse(Gs1Parser.hasValidCheckDigit("09506000134353"));
+    }
+}
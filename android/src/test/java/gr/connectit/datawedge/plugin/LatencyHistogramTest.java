@@ -0,0 +1,98 @@
+package gr.connectit.datawedge.plugin;
+
+import static org.junit.Assert.assertEquals;
+
+import com.getcapacitor.JSObject;
+
+import org.json.JSONArray;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+
+@RunWith(RobolectricTestRunner.class)
+public class LatencyHistogramTest {
+
+    private static final double DELTA = 1e-9;
+
+    private static long micros(long micros) {
+        return micros * 1000;
+    }
+
+    @Test
+    public void emptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        assertEquals(0, histogram.percentileMs(0.99), DELTA);
+        JSObject stats = histogram.toJSObject();
+        assertEquals(0, stats.optLong("count"));
+        assertEquals(0, stats.optDouble("minMs"), DELTA);
+        assertEquals(0, stats.optJSONArray("buckets").length());
+    }
+
+    @Test
+    public void percentilesAreTheUpperBoundOfTheirBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.record(micros(100));      // [64, 128) µs
+        }
+        for (int i = 0; i < 9; i++) {
+            histogram.record(micros(3000));     // [2048, 4096) µs
+        }
+        histogram.record(micros(10000));        // [8192, 16384) µs
+
+        assertEquals(0.128, histogram.percentileMs(0.50), DELTA);
+        assertEquals(0.128, histogram.percentileMs(0.90), DELTA);
+        assertEquals(4.096, histogram.percentileMs(0.99), DELTA);
+        // The top bucket is capped at the largest sample rather than 16.384
+        assertEquals(10.0, histogram.percentileMs(1.0), DELTA);
+    }
+
+    @Test
+    public void singleSampleIsCappedAtItsValue() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(micros(1500));
+
+        assertEquals(1.5, histogram.percentileMs(0.5), DELTA);
+    }
+
+    @Test
+    public void negativeAndSubMicrosecondSamplesLandInTheFirstBucket() {
+        LatencyHistogram histogram = new LatencyHistogram();
+
+        histogram.record(-5);
+        histogram.record(999);
+
+        JSONArray buckets = histogram.toJSObject().optJSONArray("buckets");
+        assertEquals(1, buckets.length());
+        assertEquals(0.002, buckets.optJSONObject(0).optDouble("upperMs"), DELTA);
+        assertEquals(2, buckets.optJSONObject(0).optLong("count"));
+    }
+
+    @Test
+    public void summaryMatchesTheRecordedSamples() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(micros(1000));
+        histogram.record(micros(3000));
+
+        JSObject stats = histogram.toJSObject();
+
+        assertEquals(2, stats.optLong("count"));
+        assertEquals(1.0, stats.optDouble("minMs"), DELTA);
+        assertEquals(3.0, stats.optDouble("maxMs"), DELTA);
+        assertEquals(2.0, stats.optDouble("meanMs"), DELTA);
+        assertEquals(2, stats.optJSONArray("buckets").length());
+    }
+
+    @Test
+    public void resetClearsEverything() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        histogram.record(micros(500));
+
+        histogram.reset();
+
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.percentileMs(0.5), DELTA);
+        assertEquals(0, histogram.toJSObject().optDouble("maxMs"), DELTA);
+    }
+}
@@ -0,0 +1,170 @@
+package gr.connectit.datawedge.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class LookupIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Bytes of a DWIX file holding the given records, keys sorted by unsigned UTF-8 bytes
+     */
+    private static byte[] build(Map<String, String> records) throws IOException {
+        TreeMap<byte[], byte[]> sorted = new TreeMap<>((a, b) -> {
+            int n = Math.min(a.length, b.length);
+            for (int i = 0; i < n; i++) {
+                int cmp = (a[i] & 0xFF) - (b[i] & 0xFF);
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return a.length - b.length;
+        });
+        for (Map.Entry<String, String> entry : records.entrySet()) {
+            sorted.put(entry.getKey().getBytes(StandardCharsets.UTF_8), entry.getValue().getBytes(StandardCharsets.UTF_8));
+        }
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        DataOutputStream bodyOut = new DataOutputStream(body);
+        int[] offsets = new int[sorted.size()];
+        int base = 12 + sorted.size() * 4;
+        int i = 0;
+        for (Map.Entry<byte[], byte[]> entry : sorted.entrySet()) {
+            offsets[i++] = base + bodyOut.size();
+            bodyOut.writeShort(entry.getKey().length);
+            bodyOut.write(entry.getKey());
+            bodyOut.writeInt(entry.getValue().length);
+            bodyOut.write(entry.getValue());
+        }
+
+        ByteArrayOutputStream file = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(file);
+        out.writeBytes("DWIX");
+        out.writeInt(1);
+        out.writeInt(offsets.length);
+        for (int offset : offsets) {
+            out.writeInt(offset);
+        }
+        out.write(body.toByteArray());
+        return file.toByteArray();
+    }
+
+    private File write(byte[] bytes) throws IOException {
+        File file = folder.newFile();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(bytes);
+        }
+        return file;
+    }
+
+    private static Map<String, String> products() {
+        Map<String, String> records = new TreeMap<>();
+        records.put("09506000134352", "{\"sku\":\"A-1\"}");
+        records.put("4006381333931", "Stabilo pen");
+        records.put("5901234123457", "Γάλα 1L");
+        records.put("ABC", "letters");
+        records.put("zeta", "lower");
+        records.put("éclair", "non-ascii key");
+        return records;
+    }
+
+    @Test
+    public void findsEveryKeyAndMissesOthers() throws IOException {
+        Map<String, String> records = products();
+        LookupIndex index = LookupIndex.open(write(build(records)), 4);
+
+        assertEquals(records.size(), index.getRecordCount());
+        for (Map.Entry<String, String> entry : records.entrySet()) {
+            assertEquals(entry.getValue(), index.get(entry.getKey()));
+        }
+        assertNull(index.get("0000"));
+        assertNull(index.get("zz"));
+        assertNull(index.get("AB"));
+    }
+
+    @Test
+    public void repeatedLookupsAreServedConsistently() throws IOException {
+        LookupIndex index = LookupIndex.open(write(build(products())), 1);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals("letters", index.get("ABC"));
+            assertNull(index.get("missing"));
+            assertEquals("lower", index.get("zeta"));
+        }
+    }
+
+    @Test
+    public void emptyIndexFindsNothing() throws IOException {
+        LookupIndex index = LookupIndex.open(write(build(new TreeMap<>())), 0);
+
+        assertEquals(0, index.getRecordCount());
+        assertNull(index.get("anything"));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsWrongMagic() throws IOException {
+        byte[] bytes = build(products());
+        bytes[0] = 'X';
+
+        LookupIndex.open(write(bytes), 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsUnknownVersion() throws IOException {
+        byte[] bytes = build(products());
+        bytes[7] = 2;
+
+        LookupIndex.open(write(bytes), 0);
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectsOffsetTableBeyondTheFile() throws IOException {
+        byte[] bytes = build(products());
+        bytes[8] = 0x7F;
+
+        LookupIndex.open(write(bytes), 0);
+    }
+
+    @Test
+    public void truncatedFileFailsTheLookupInsteadOfReadingOutOfBounds() throws IOException {
+        Map<String, String> records = new TreeMap<>();
+        records.put("a", "1");
+        records.put("b", "2");
+        records.put("c", "a value that will be cut off");
+        byte[] full = build(records);
+        byte[] truncated = new byte[full.length - 5];
+        System.arraycopy(full, 0, truncated, 0, truncated.length);
+
+        LookupIndex index = LookupIndex.open(write(truncated), 4);
+
+        // The middle record is intact, the last value is not
+        assertEquals("2", index.get("b"));
+        try {
+            index.get("c");
+            fail("Expected the truncated record to be reported");
+        } catch (IOException expected) {
+            // Corrupt records must not be cached as misses
+        }
+        try {
+            index.get("c");
+            fail("Expected the truncated record to be reported again");
+        } catch (IOException expected) {
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package gr.connectit.datawedge.plugin;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import android.os.Looper;
+
+import com.getcapacitor.JSObject;
+import com.getcapacitor.PluginCall;
+
+import org.json.JSONObject;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.robolectric.RobolectricTestRunner;
+import org.robolectric.shadow.api.Shadow;
+import org.robolectric.shadows.ShadowLooper;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives load generator runs through the plugin's scan handler over the direct transport
+ */
+@RunWith(RobolectricTestRunner.class)
+public class ScanLoadGeneratorTest {
+
+    private static final long STEP_MS = 10;
+
+    /**
+     * Call that records how it settled instead of answering the bridge
+     */
+    static class RecordingCall extends PluginCall {
+        JSObject resolved;
+        String rejected;
+
+        RecordingCall(JSObject options) {
+            super(null, "DataWedge", "test", "test", options);
+        }
+
+        @Override
+        public void resolve(JSObject data) {
+            resolved = data;
+        }
+
+        @Override
+        public void reject(String msg, String code, Exception ex, JSObject data) {
+            rejected = msg;
+        }
+    }
+
+    private DataWedgePlugin plugin;
+
+    @Before
+    public void setUp() {
+        plugin = new DataWedgePlugin();
+    }
+
+    @After
+    public void tearDown() throws InterruptedException {
+        plugin.stopScanLoad(new RecordingCall(new JSObject()));
+        ShadowLooper.idleMainLooper();
+        // So the next test cannot pick up a generator thread that is still quitting
+        for (Looper looper : ShadowLooper.getAllLoopers()) {
+            if ("ScanLoadGenerator".equals(looper.getThread().getName())) {
+                looper.getThread().join(1000);
+            }
+        }
+    }
+
+    private static JSObject directRun(int count, double rate) {
+        JSObject options = new JSObject();
+        options.put("transport", "direct");
+        options.put("count", count);
+        options.put("rate", rate);
+        options.put("seed", 42);
+        return options;
+    }
+
+    private static ShadowLooper generatorLooper() {
+        for (Looper looper : ShadowLooper.getAllLoopers()) {
+            Thread thread = looper.getThread();
+            if ("ScanLoadGenerator".equals(thread.getName()) && thread.isAlive()) {
+                return Shadow.extract(looper);
+            }
+        }
+        throw new AssertionError("Scan load generator thread is not running");
+    }
+
+    /**
+     * Advance time step by step: the generator sends what is due, then the main thread handles it
+     */
+    private static void runUntilSettled(RecordingCall call, int maxSteps) {
+        ShadowLooper looper = generatorLooper();
+        for (int i = 0; i < maxSteps && call.resolved == null; i++) {
+            looper.idleFor(STEP_MS, TimeUnit.MILLISECONDS);
+            ShadowLooper.idleMainLooper();
+        }
+    }
+
+    @Test
+    public void directRunReportsThroughputAndLatencyPercentiles() {
+        RecordingCall call = new RecordingCall(directRun(20, 100));
+
+        plugin.startScanLoad(call);
+        // 20 scans 10 ms apart, then the one second grace period
+        runUntilSettled(call, 200);
+
+        JSObject report = call.resolved;
+        assertNotNull(report);
+        assertFalse(report.optBoolean("running"));
+        assertEquals("direct", report.optString("transport"));
+        assertEquals(20, report.optLong("planned"));
+        assertEquals(20, report.optLong("sent"));
+        assertEquals(20, report.optLong("delivered"));
+        assertEquals(0, report.optLong("dropped"));
+        assertEquals(100.0, report.optDouble("achievedRate"), 0.5);
+
+        for (String histogram : new String[] { "deliveryLatency", "handledLatency" }) {
+            JSONObject latency = report.optJSONObject(histogram);
+            assertEquals(histogram, 20, latency.optLong("count"));
+            double p50 = latency.optDouble("p50Ms");
+            double p90 = latency.optDouble("p90Ms");
+            double p99 = latency.optDouble("p99Ms");
+            assertTrue(histogram, p50 <= p90 && p90 <= p99);
+            // Every scan is handled within the step it was sent in
+            assertTrue(histogram, p99 <= STEP_MS);
+        }
+    }
+
+    @Test
+    public void stoppingEarlyCountsUnhandledScansAsDropped() {
+        RecordingCall call = new RecordingCall(directRun(50, 100));
+        plugin.startScanLoad(call);
+
+        // Scans due in the first 100 ms are sent, but the main thread never gets to them
+        generatorLooper().idleFor(100, TimeUnit.MILLISECONDS);
+        RecordingCall stop = new RecordingCall(new JSObject());
+        plugin.stopScanLoad(stop);
+
+        JSObject report = call.resolved;
+        assertNotNull(report);
+        assertEquals(11, report.optLong("sent"));
+        assertEquals(0, report.optLong("delivered"));
+        assertEquals(11, report.optLong("dropped"));
+        assertEquals(0, report.optJSONObject("deliveryLatency").optLong("count"));
+        assertEquals(11, stop.resolved.optLong("dropped"));
+    }
+
+    @Test
+    public void syntheticScansStayOutOfScanAnalytics() {
+        JSObject tracing = new JSObject();
+        tracing.put("enabled", true);
+        plugin.configureLatencyTracing(new RecordingCall(tracing));
+        RecordingCall call = new RecordingCall(directRun(10, 100));
+
+        plugin.startScanLoad(call);
+        runUntilSettled(call, 200);
+
+        assertEquals(10, call.resolved.optLong("delivered"));
+        RecordingCall stats = new RecordingCall(new JSObject());
+        plugin.getScanStats(stats);
+        assertEquals(0, stats.resolved.optLong("totalScans"));
+        RecordingCall latency = new RecordingCall(new JSObject());
+        plugin.getLatencyStats(latency);
+        assertEquals(0, latency.resolved.optJSONObject("stages").optJSONObject("total").optLong("count"));
+    }
+
+    @Test
+    public void broadcastTransportNeedsTheScanReceiver() {
+        JSObject options = directRun(10, 100);
+        options.put("transport", "broadcast");
+        RecordingCall call = new RecordingCall(options);
+
+        plugin.startScanLoad(call);
+
+        assertNull(call.resolved);
+        assertEquals("Call registerScanListener() before generating broadcast scan load", call.rejected);
+    }
+}
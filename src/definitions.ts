@@ -31,36 +31,75 @@ export enum ScannerStatus {
   ERROR = "ERROR"
 }
 
+export interface GetConfigOptions {
+  profileName: string;
+  configType?: string;
+  /** Only return these top-level keys of the config (e.g. 'PROFILE_ENABLED', 'PLUGIN_CONFIG') */
+  fields?: string[];
+  /** Only request and return these plugins (e.g. 'BARCODE', 'INTENT') */
+  plugins?: string[];
+  /**
+   * 'object' (default) resolves the config as a nested object.
+   * 'json' resolves `{ profileName, json }` with the config serialized into one JSON string.
+   * The string is escaped again by the bridge (every quote grows by a byte) and must be
+   * `JSON.parse`d, but no per-key object tree is built natively. Worth it for large profiles.
+   */
+  format?: 'object' | 'json';
+}
+
+export interface CachedQueryOptions {
+  /** Bypass the in-memory scanner state and query DataWedge */
+  forceRefresh?: boolean;
+}
+
+export interface ScannerState {
+  state: ScannerStatus | 'UNKNOWN';
+  /** Raw status string as reported by DataWedge */
+  status?: string;
+  activeProfile?: string;
+  /** Epoch ms when the current state was entered */
+  stateSince: number;
+  statusUpdatedAt: number;
+  profileUpdatedAt: number;
+  statusSource?: 'notification' | 'query';
+  profileSource?: 'notification' | 'query';
+  transitions: number;
+  /** True while SCANNER_STATUS notifications keep the status current */
+  statusLive: boolean;
+  /** True while PROFILE_SWITCH notifications keep the active profile current */
+  profileLive: boolean;
+}
+
 export interface DataWedgeAppConfig {
   packageName: string;
   activityList?: string[];
 }
 
-export interface CloneProfileOptions {
+export interface CloneProfileOptions extends AwaitResultOptions {
   sourceProfileName: string;
   destinationProfileName: string;
 }
 
-export interface CreateProfileOptions {
+export interface CreateProfileOptions extends AwaitResultOptions {
   profileName: string;
   profileEnabled?: boolean;
 }
 
-export interface DeleteProfileOptions {
+export interface DeleteProfileOptions extends AwaitResultOptions {
   profileName: string;
 }
 
-export interface ImportConfigOptions {
+export interface ImportConfigOptions extends AwaitResultOptions {
   configFile: string;
   importMode?: 'OVERWRITE' | 'MERGE';
 }
 
-export interface RenameProfileOptions {
+export interface RenameProfileOptions extends AwaitResultOptions {
   currentProfileName: string;
   newProfileName: string;
 }
 
-export interface SetConfigOptions {
+export interface SetConfigOptions extends AwaitResultOptions {
   profileName: string;
   profileEnabled?: boolean;
   configMode?: 'UPDATE' | 'CREATE_IF_NOT_EXIST' | 'OVERWRITE';
@@ -97,6 +136,153 @@ export interface SwitchScannerParamsOptions {
   params?: any;
 }
 
+export interface CommandCoalescingOptions {
+  /** Debounce window in milliseconds. 0 disables coalescing (default). */
+  debounceMs: number;
+}
+
+export interface ProfileSetEntry {
+  profileName: string;
+  /** Profile config in the same shape as setConfig's config. Omit for a scanner-params-only variant. */
+  config?: any;
+  /** Params for SWITCH_SCANNER_PARAMS, used for params-only entries or when SWITCH_TO_PROFILE is unavailable */
+  scannerParams?: any;
+}
+
+export interface ProvisionProfileSetOptions {
+  setName: string;
+  profiles: ProfileSetEntry[];
+  /** Rewrite every profile even if its fingerprint is unchanged */
+  force?: boolean;
+}
+
+export interface ProvisionProfileSetResult {
+  setName: string;
+  written: string[];
+  unchanged: string[];
+  failed: string[];
+  durationMs: number;
+}
+
+export interface SwitchProfileSetResult {
+  profileName: string;
+  /** NONE when the profile was already active */
+  method: 'SWITCH_TO_PROFILE' | 'SWITCH_SCANNER_PARAMS' | 'NONE';
+  /** Time from sending the switch to DataWedge acknowledging it */
+  latencyMs: number;
+}
+
+export interface ProfileSetStats {
+  setName: string;
+  profiles: string[];
+  activeProfile?: string;
+  provisioning: boolean;
+  switches: number;
+  switchLatency: LatencyStageStats;
+  /** Switch latency split by the command used */
+  switchLatencyByMethod: {
+    SWITCH_TO_PROFILE: LatencyStageStats;
+    SWITCH_SCANNER_PARAMS: LatencyStageStats;
+  };
+}
+
+export interface CommandCoalescingStats {
+  debounceMs: number;
+  submitted: number;
+  coalesced: number;
+  pending: number;
+}
+
+export interface AwaitResultOptions {
+  /**
+   * Resolve only once DataWedge reports SUCCESS or FAILURE for the command
+   * (SEND_RESULT / COMMAND_IDENTIFIER) instead of as soon as it is sent.
+   * Rejects with code TIMEOUT if no result arrives within timeoutMs.
+   */
+  awaitResult?: boolean;
+  /**
+   * How long awaitResult waits for the result (default 10000). Independent of the queue's
+   * ackTimeoutMs, which only limits how long a command holds its pipelining slot.
+   */
+  timeoutMs?: number;
+}
+
+export interface DataWedgeCommandResult {
+  result: 'SUCCESS' | 'FAILURE' | string;
+  command?: string;
+  commandIdentifier?: string;
+  /** RESULT_INFO bundle, e.g. { RESULT_CODE: 'PROFILE_NOT_FOUND' } */
+  resultInfo?: any;
+  /** Per-plugin results for setConfig (SEND_RESULT=COMPLETE_RESULT) */
+  resultList?: any[];
+}
+
+export interface RuntimeCommandResult extends Partial<DataWedgeCommandResult> {
+  /** True when the command was superseded by a newer one of the same kind and never sent */
+  coalesced?: boolean;
+}
+
+export interface DeviceSnapshotOptions {
+  /** How long to wait for the slowest query before resolving with partial results (default 3000) */
+  timeoutMs?: number;
+}
+
+export interface DeviceSnapshot {
+  versionInfo?: DataWedgeVersionInfo;
+  datawedgeStatus?: { isEnabled: boolean };
+  activeProfile?: string;
+  scannerStatus?: ScannerStatus | string;
+  scanners?: DataWedgeScanner[];
+  profiles?: string[];
+  /** Milliseconds from the request until each field answered */
+  timings: { [field: string]: number };
+  /** Fields that did not answer before timeoutMs */
+  missing: string[];
+  /** Fields whose reply could not be decoded */
+  errors?: { [field: string]: string };
+  complete: boolean;
+  durationMs: number;
+}
+
+export interface ExportAllProfilesOptions {
+  /** Output file. Relative paths are resolved against the app's files directory. */
+  path: string;
+  /** Overall deadline; profiles that have not answered by then are listed as missing (default 15000) */
+  timeoutMs?: number;
+}
+
+export interface ExportAllProfilesResult {
+  /** Absolute path of the written file */
+  path: string;
+  profileCount: number;
+  exported: number;
+  missing: string[];
+  bytes: number;
+  durationMs: number;
+}
+
+export interface CommandQueueOptions {
+  /** Maximum state-changing commands awaiting acknowledgement at once (default 2) */
+  maxInFlight?: number;
+  /** How long to wait for a SEND_RESULT acknowledgement before moving on (default 1500) */
+  ackTimeoutMs?: number;
+}
+
+export interface CommandQueueStats {
+  maxInFlight: number;
+  ackTimeoutMs: number;
+  queuedHigh: number;
+  queuedNormal: number;
+  inFlight: number;
+  /** Past ackTimeoutMs but still waiting for their result (awaitResult with a longer timeoutMs) */
+  awaitingResult: number;
+  dispatched: number;
+  acknowledged: number;
+  failed: number;
+  timedOut: number;
+  averageQueueWaitMs: number;
+}
+
 export interface ScanResult {
   data: string;
   labelType: string;
@@ -104,18 +290,441 @@ export interface ScanResult {
   timestamp: number;
 }
 
+export interface ScanLatency {
+  /** DataWedge dispatch to broadcast receipt, only when DataWedge reports its dispatch time */
+  dispatchMs?: number;
+  /** Handler start to just before the event is emitted */
+  buildMs: number;
+  /** SystemClock.elapsedRealtimeNanos() at broadcast receipt */
+  receivedAtNanos: number;
+}
+
+export interface ScanEvent {
+  data: string;
+  labelType: string;
+  timestamp: number;
+  /** Present when latency tracing is enabled with includeInEvents */
+  latency?: ScanLatency;
+  /** Present when GS1 parsing is enabled and the scan is GS1 */
+  gs1?: Gs1Result;
+  /** Present when a lookup index is loaded and contains the scanned data */
+  record?: any;
+  /** Name of the scan channel the scan arrived on; absent on scanReceived */
+  channel?: string;
+  /** Set on scans injected by startScanLoad */
+  synthetic?: boolean;
+}
+
+export interface ScanChannelOptions {
+  /** Unique channel name */
+  name: string;
+  /** Intent action the channel's scans are sent with */
+  action: string;
+  /** Optional extra intent category; only scans carrying it are routed to this channel */
+  category?: string;
+  /** Event name, default 'scanReceived:<name>' */
+  event?: string;
+  /** Event name for multi-barcode captures on this channel, default 'multiBarcodeReceived:<name>' */
+  multiBarcodeEvent?: string;
+}
+
+export interface ScanChannel {
+  name: string;
+  action: string;
+  category?: string;
+  event: string;
+  multiBarcodeEvent: string;
+  received: number;
+  /** Emitted to JS listeners */
+  delivered: number;
+  /** Not emitted because the event had no listeners (still counted, stored and offered to scanOnce) */
+  skipped: number;
+}
+
+export interface ScanFileOptions {
+  /** Directory for the segment files, absolute or relative to the app's files directory, default 'scans' */
+  directory?: string;
+  /** Segment file name prefix, default 'scans' */
+  baseName?: string;
+  /** Default 'ndjson' */
+  format?: 'ndjson' | 'csv';
+  /** Rotate once a segment reaches this size, default 8 MB, 0 to disable */
+  maxBytes?: number;
+  /** Rotate once a segment has been open this long, even while idle, default 0 (disabled) */
+  maxAgeMs?: number;
+  /** Gzip segments once they are closed, default false */
+  gzip?: boolean;
+  /** Keep emitting scanReceived and multiBarcodeReceived events while writing, default true */
+  emitEvents?: boolean;
+}
+
+export interface ScanFileStats {
+  directory: string;
+  baseName: string;
+  format: 'ndjson' | 'csv';
+  scansQueued: number;
+  scansWritten: number;
+  bytesWritten: number;
+  segments: number;
+  lastError?: string;
+}
+
+export interface ScanFileSegment {
+  name: string;
+  path: string;
+  bytes: number;
+  modified: number;
+  compressed: boolean;
+}
+
+export interface LoadLookupIndexOptions {
+  /** Index file, absolute or relative to the app's files directory */
+  path: string;
+  /** Number of recent lookups (hits and misses) to cache, default 1024 */
+  cacheSize?: number;
+}
+
+export interface LookupIndexStats {
+  loaded: boolean;
+  path?: string;
+  records?: number;
+  bytes?: number;
+  lookups?: number;
+  hits?: number;
+  cacheHits?: number;
+  /** Lookups that hit a corrupt record, e.g. in a truncated file */
+  errors?: number;
+  averageLookupUs?: number;
+}
+
+export interface LoadLookupIndexResult extends LookupIndexStats {
+  loadMs: number;
+}
+
+export interface LookupResult {
+  found: boolean;
+  /** Parsed object if the stored value is a JSON object, otherwise the raw string */
+  record?: any;
+}
+
+export interface LatencyTracingOptions {
+  /** Default true */
+  enabled?: boolean;
+  /** Attach the per-stage breakdown to each scanReceived event, default false */
+  includeInEvents?: boolean;
+}
+
+export interface LatencyStageStats {
+  count: number;
+  minMs: number;
+  maxMs: number;
+  meanMs: number;
+  /** Percentiles are the upper bound of the power-of-two bucket they fall in */
+  p50Ms: number;
+  p90Ms: number;
+  p99Ms: number;
+  /** Non-empty histogram buckets */
+  buckets: { upperMs: number; count: number }[];
+}
+
+export interface LatencyStats {
+  enabled: boolean;
+  includeInEvents: boolean;
+  stages: {
+    dispatch: LatencyStageStats;
+    build: LatencyStageStats;
+    /** Time spent handing the event to the bridge */
+    notify: LatencyStageStats;
+    total: LatencyStageStats;
+  };
+}
+
+export interface ScanRateWindow {
+  scans: number;
+  perMinute: number;
+}
+
+export interface ScanStats {
+  totalScans: number;
+  /** When the stats were last reset */
+  startedAt: number;
+  firstScanAt?: number;
+  lastScanAt?: number;
+  rates: {
+    last10s: ScanRateWindow;
+    last60s: ScanRateWindow;
+    last900s: ScanRateWindow;
+    last3600s: ScanRateWindow;
+  };
+  /** Busiest second within the last hour */
+  peakPerSecond: number;
+  /** In order of first appearance */
+  symbologies: { labelType: string; count: number; share: number }[];
+  /** Time between consecutive scans */
+  gaps: LatencyStageStats & {
+    idleThresholdMs: number;
+    /** Gaps at least idleThresholdMs long */
+    idlePeriods: number;
+    idleMs: number;
+  };
+}
+
+export type ScanDeliveryMode = 'broadcast' | 'activity';
+
+export interface ScanDeliveryModeOptions extends AwaitResultOptions {
+  profileName: string;
+  /** 'activity' delivers scans with startActivity to the running activity (onNewIntent) */
+  mode: ScanDeliveryMode;
+  /** Send the profile's scans to this named scan channel instead of scanReceived */
+  channel?: string;
+}
+
+export interface ScanDeliveryTransportStats {
+  scans: number;
+  /** DataWedge dispatch to receipt; only scans carrying data_dispatch_time are counted */
+  dispatch: LatencyStageStats;
+}
+
+export interface ScanDeliveryStats {
+  /** Mode last set with setScanDeliveryMode */
+  mode: ScanDeliveryMode;
+  broadcast: ScanDeliveryTransportStats;
+  activity: ScanDeliveryTransportStats;
+}
+
+export interface ScanLoadOptions {
+  /** Scans per second, default 30 */
+  rate?: number;
+  /** Default 10000; ignored when count is given */
+  durationMs?: number;
+  /** Number of scans to send, default rate * durationMs */
+  count?: number;
+  /** Payload length range, default 8-20 characters */
+  minLength?: number;
+  maxLength?: number;
+  /** Weighted symbology mix, default EAN13 3 : CODE128 2 : QRCODE 1 */
+  symbologies?: { labelType: string; weight?: number }[];
+  /**
+   * 'broadcast' (default) sends real broadcasts to the registered scan receiver;
+   * 'direct' calls the scan handler on the main thread, e.g. under Robolectric
+   */
+  transport?: 'broadcast' | 'direct';
+  /** Random seed for reproducible runs */
+  seed?: number;
+}
+
+export interface ScanLoadReport {
+  running: boolean;
+  transport?: 'broadcast' | 'direct';
+  targetRate?: number;
+  planned?: number;
+  sent?: number;
+  delivered?: number;
+  /** Sent but never received; only counted once the run has finished */
+  dropped?: number;
+  durationMs?: number;
+  /** Send rate actually achieved */
+  achievedRate?: number;
+  /** Send to arrival in the scan handler */
+  deliveryLatency?: LatencyStageStats;
+  /** Send to scanReceived having been emitted */
+  handledLatency?: LatencyStageStats;
+}
+
+export interface BroadcastRecordingStats {
+  path: string;
+  events: number;
+  bytes: number;
+  durationMs: number;
+  lastError?: string;
+}
+
+export interface ReplayOptions {
+  /** Trace file, absolute or relative to the app's files directory */
+  path: string;
+  /** 1 replays on the recorded schedule, 2 twice as fast, 0 as fast as possible. Default 1 */
+  speed?: number;
+}
+
+export interface ReplayReport {
+  running: boolean;
+  speed: number;
+  events: number;
+  dispatched: number;
+  /** Events whose receiver is not registered */
+  skipped: number;
+  traceDurationMs: number;
+  durationMs: number;
+  eventsPerSecond: number;
+  /** Largest delay behind the recorded schedule, when speed > 0 */
+  maxLagMs?: number;
+  /** Time spent in the plugin's receiver per broadcast */
+  handling: {
+    all: LatencyStageStats;
+    scan: LatencyStageStats;
+    result: LatencyStageStats;
+    notification: LatencyStageStats;
+  };
+}
+
+export interface BroadcastHubChannelStats {
+  /** Whether the channel's receiver is currently registered */
+  registered: boolean;
+  /** Plugin instance listeners on this channel */
+  subscribers: number;
+  broadcasts: number;
+  /** Broadcasts times subscribers they were handed to */
+  deliveries: number;
+}
+
+export interface Gs1Element {
+  ai: string;
+  title: string;
+  value: string;
+  /** YYYY-MM-DD for date AIs */
+  date?: string;
+  /** Value with the implied decimal point applied, for measure and amount AIs */
+  decimal?: number;
+  /** ISO 4217 numeric currency code for 391n / 393n */
+  currency?: string;
+  /** Only present (false) when the value failed validation */
+  valid?: boolean;
+  error?: string;
+}
+
+export interface Gs1Result {
+  /** AIM symbology identifier if present, e.g. ]C1 or ]d2 */
+  symbologyId?: string;
+  elements: Gs1Element[];
+  /** AI to value map for quick lookup */
+  ais: { [ai: string]: string };
+  valid: boolean;
+  error?: string;
+}
+
+export interface MultiBarcodeItem {
+  data: string;
+  labelType: string;
+  /** Present when GS1 parsing is enabled and the barcode is GS1 */
+  gs1?: Gs1Result;
+  /** Raw decode bytes per segment, base64 encoded */
+  decodeData?: string[];
+}
+
+export interface MultiBarcodeEvent {
+  barcodes: MultiBarcodeItem[];
+  count: number;
+  decodeMode?: string;
+  timestamp: number;
+}
+
+export interface RfidStreamOptions {
+  /** How often to emit a batch of changed tags, default 500 */
+  intervalMs?: number;
+  /** Maximum tags per batch; the rest follow in the next batch. Default 500 */
+  maxBatchSize?: number;
+}
+
+export interface RfidTag {
+  epc: string;
+  /** Total reads of this tag since the stream started */
+  count: number;
+  /** Reads since the previous batch */
+  newReads: number;
+  /** Epoch ms */
+  firstSeen: number;
+  lastSeen: number;
+  peakRssi?: number;
+  /** First time this tag appears in a batch */
+  isNew: boolean;
+}
+
+export interface RfidTagBatch {
+  /** Tags read since the previous batch */
+  tags: RfidTag[];
+  batch: number;
+  batchReads: number;
+  uniqueTags: number;
+  totalReads: number;
+  /** Changed tags held back by maxBatchSize */
+  pending: number;
+}
+
+export interface RfidStreamStats {
+  running: boolean;
+  intervalMs?: number;
+  uniqueTags?: number;
+  totalReads?: number;
+  batches?: number;
+  pending?: number;
+  durationMs?: number;
+}
+
+export interface ScanOnceOptions {
+  /** How long to wait for a decode before stopping the scanner, default 5000 */
+  timeoutMs?: number;
+}
+
+export interface ScanOnceResult {
+  data: string;
+  labelType: string;
+  timestamp: number;
+  /** Time from sending the soft trigger to receiving the decoded scan */
+  latencyMs: number;
+  gs1?: Gs1Result;
+  /** Every barcode of a multi-barcode capture; data and labelType are those of the first */
+  barcodes?: MultiBarcodeItem[];
+}
+
 export interface RegisterForNotificationOptions {
   notificationType: 'SCANNER_STATUS' | 'PROFILE_SWITCH' | 'CONFIGURATION_UPDATE' | 'WORKFLOW_STATUS';
   profileName?: string;
 }
 
+export interface NotificationSubscriptionResult {
+  /** Subscribers left for this notification type and profile, across all WebViews of the app */
+  refCount: number;
+  /** Whether a REGISTER/UNREGISTER intent was actually sent to DataWedge (once per type) */
+  sent: boolean;
+}
+
+export interface NotificationSubscription {
+  notificationType: string;
+  profileName?: string;
+  refCount: number;
+}
+
 export interface NotificationEvent {
   notificationType: string;
   profileName?: string;
   status?: string;
+  previousProfile?: string;
+  workflowName?: string;
   data?: any;
 }
 
+export interface NotificationCoalescingOptions {
+  /** Emit at most the latest notification per type every windowMs. 0 (default) disables coalescing. */
+  windowMs?: number;
+  /** Notification types to coalesce, default all */
+  types?: string[];
+  /**
+   * Drop a notification identical to the last one emitted for its type less than windowMs ago.
+   * Default true when windowMs is set, false otherwise.
+   */
+  dropDuplicates?: boolean;
+}
+
+export interface NotificationCoalescingStats {
+  windowMs: number;
+  dropDuplicates: boolean;
+  received: number;
+  emitted: number;
+  coalesced: number;
+  duplicates: number;
+  pending: number;
+}
+
 export interface DataWedgePlugin {
   /**
    * Send an intent to DataWedge API
@@ -140,8 +749,12 @@ export interface DataWedgePlugin {
     packageCheck: any; 
     officialApiReceiversFound?: number; 
     officialApiReceiversError?: string;
+    /** DataWedge package that outgoing intents are addressed to, if one was found */
+    resolvedPackage?: string;
     versionApiReceiversFound?: number;
     versionApiReceiversError?: string;
+    /** Process-wide receivers shared by all plugin instances, keyed by scan/result/notification/package */
+    broadcastHub: Record<string, BroadcastHubChannelStats>;
   }>;
 
   /**
@@ -165,10 +778,11 @@ export interface DataWedgePlugin {
   enumerateScanners(): Promise<{ scanners: DataWedgeScanner[] }>;
 
   /**
-   * Get the currently active profile name
+   * Get the currently active profile name. Answered from memory while
+   * registered for PROFILE_SWITCH notifications, unless forceRefresh is set.
    * @requires DataWedge 6.5+
    */
-  getActiveProfile(): Promise<{ profileName: string }>;
+  getActiveProfile(options?: CachedQueryOptions): Promise<{ profileName: string; cached?: boolean; updatedAt?: number }>;
 
   /**
    * Get list of all DataWedge profiles
@@ -177,10 +791,16 @@ export interface DataWedgePlugin {
   getProfilesList(): Promise<{ profiles: string[] }>;
 
   /**
-   * Get current scanner status
+   * Get current scanner status. Answered from memory while registered for
+   * SCANNER_STATUS notifications, unless forceRefresh is set.
    * @requires DataWedge 6.3+
    */
-  getScannerStatus(): Promise<{ status: ScannerStatus }>;
+  getScannerStatus(options?: CachedQueryOptions): Promise<{ status: ScannerStatus; cached?: boolean; updatedAt?: number }>;
+
+  /**
+   * Get the in-memory scanner state machine (state, active profile, timestamps)
+   */
+  getScannerState(): Promise<ScannerState>;
 
   /**
    * Get DataWedge enabled/disabled status
@@ -195,10 +815,12 @@ export interface DataWedgePlugin {
   getAssociatedApps(options: { profileName: string }): Promise<{ apps: DataWedgeAppConfig[] }>;
 
   /**
-   * Get configuration for specified profile
+   * Get configuration for specified profile.
+   * With `format: 'json'` resolves `{ profileName, json }` instead of the config object;
+   * see `GetConfigOptions.format` for the trade-off.
    * @requires DataWedge 6.5+
    */
-  getConfig(options: { profileName: string; configType?: string }): Promise<any>;
+  getConfig(options: GetConfigOptions): Promise<any>;
 
   /**
    * Get list of apps/activities blocked from using DataWedge
@@ -212,37 +834,51 @@ export interface DataWedgePlugin {
    */
   getIgnoreDisabledProfiles(): Promise<{ ignoreDisabledProfiles: boolean }>;
 
+  /**
+   * Issue version, DataWedge status, active profile, scanner status, scanner
+   * enumeration and profiles list queries at once and resolve with all answers
+   * that arrive before the timeout
+   */
+  getDeviceSnapshot(options?: DeviceSnapshotOptions): Promise<DeviceSnapshot>;
+
+  /**
+   * Fetch every profile's configuration concurrently and stream it to a JSON file.
+   * Only the path and summary stats cross the bridge.
+   * @requires DataWedge 6.6+
+   */
+  exportAllProfiles(options: ExportAllProfilesOptions): Promise<ExportAllProfilesResult>;
+
   // Configuration Management Methods
 
   /**
    * Clone an existing DataWedge profile
    * @requires DataWedge 6.5+
    */
-  cloneProfile(options: CloneProfileOptions): Promise<void>;
+  cloneProfile(options: CloneProfileOptions): Promise<DataWedgeCommandResult | void>;
 
   /**
    * Create a new DataWedge profile
    * @requires DataWedge 6.4+
    */
-  createProfile(options: CreateProfileOptions): Promise<void>;
+  createProfile(options: CreateProfileOptions): Promise<DataWedgeCommandResult | void>;
 
   /**
    * Delete an existing DataWedge profile
    * @requires DataWedge 6.6+
    */
-  deleteProfile(options: DeleteProfileOptions): Promise<void>;
+  deleteProfile(options: DeleteProfileOptions): Promise<DataWedgeCommandResult | void>;
 
   /**
    * Import configuration from file
    * @requires DataWedge 6.7+
    */
-  importConfig(options: ImportConfigOptions): Promise<void>;
+  importConfig(options: ImportConfigOptions): Promise<DataWedgeCommandResult | void>;
 
   /**
    * Rename an existing DataWedge profile
    * @requires DataWedge 6.6+
    */
-  renameProfile(options: RenameProfileOptions): Promise<void>;
+  renameProfile(options: RenameProfileOptions): Promise<DataWedgeCommandResult | void>;
 
   /**
    * Restore DataWedge to factory defaults
@@ -254,7 +890,7 @@ export interface DataWedgePlugin {
    * Set configuration for a DataWedge profile
    * @requires DataWedge 6.5+
    */
-  setConfig(options: SetConfigOptions): Promise<void>;
+  setConfig(options: SetConfigOptions): Promise<DataWedgeCommandResult | void>;
 
   /**
    * Set list of disabled apps
@@ -330,12 +966,88 @@ export interface DataWedgePlugin {
    */
   softRfidTrigger(): Promise<ScanResult>;
 
+  /**
+   * Parse GS1 scans natively and attach the AIs to scanReceived / multiBarcodeReceived events
+   */
+  configureGs1Parsing(options: { enabled: boolean }): Promise<{ enabled: boolean }>;
+
+  /**
+   * Parse a GS1 element string (GS separated, optional AIM symbology identifier)
+   */
+  parseGs1(options: { data: string }): Promise<Gs1Result>;
+
+  /**
+   * Append every scan natively to rotating NDJSON or CSV files
+   */
+  startScanFile(options?: ScanFileOptions): Promise<ScanFileStats>;
+
+  /**
+   * Write out queued scans, close (and optionally gzip) the current segment and stop
+   */
+  stopScanFile(): Promise<ScanFileStats>;
+
+  /**
+   * Flush buffered scans to disk without closing the segment
+   */
+  flushScanFile(): Promise<ScanFileStats>;
+
+  /**
+   * List the segment files of a base name, oldest first
+   */
+  listScanFiles(options?: { directory?: string; baseName?: string }): Promise<{ segments: ScanFileSegment[]; active: boolean }>;
+
+  /**
+   * Memory-map a prebuilt lookup index and attach the matching record to each scanReceived event.
+   * Replaces any previously loaded index once the new one is ready.
+   */
+  loadLookupIndex(options: LoadLookupIndexOptions): Promise<LoadLookupIndexResult>;
+
+  /**
+   * Stop enriching scans and release the lookup index
+   */
+  unloadLookupIndex(): Promise<void>;
+
+  /**
+   * Look up a key in the loaded index
+   */
+  lookup(options: { key: string }): Promise<LookupResult>;
+
+  /**
+   * Get lookup index counters
+   */
+  getLookupIndexStats(): Promise<LookupIndexStats>;
+
+  /**
+   * Aggregate RFID reads by EPC and emit periodic rfidTagsReceived batches instead of
+   * one scanReceived event per read
+   * @requires DataWedge 7.0+
+   */
+  startRfidStream(options?: RfidStreamOptions): Promise<RfidStreamStats>;
+
+  /**
+   * Stop RFID streaming after emitting the final batch
+   */
+  stopRfidStream(): Promise<RfidStreamStats>;
+
+  /**
+   * Get RFID streaming counters
+   */
+  getRfidStreamStats(): Promise<RfidStreamStats>;
+
   /**
    * Trigger barcode scanning programmatically
    * @requires DataWedge 6.0+
    */
   softScanTrigger(): Promise<ScanResult>;
 
+  /**
+   * Start a soft scan and resolve with the first scan received after the trigger.
+   * Stops scanning and rejects with code TIMEOUT if nothing is decoded in time.
+   * Scans are still delivered to scanReceived listeners as well.
+   * @requires DataWedge 6.0+
+   */
+  scanOnce(options?: ScanOnceOptions): Promise<ScanOnceResult>;
+
   /**
    * Switch to a specific scanner
    * @requires DataWedge 6.3+
@@ -346,39 +1058,208 @@ export interface DataWedgePlugin {
    * Temporarily update scanner parameters
    * @requires DataWedge 6.3+
    */
-  switchScannerParams(options: SwitchScannerParamsOptions): Promise<void>;
+  switchScannerParams(options: SwitchScannerParamsOptions): Promise<RuntimeCommandResult>;
 
   /**
    * Switch to specified profile
    * @requires DataWedge 6.8+
    */
-  switchToProfile(options: { profileName: string }): Promise<void>;
+  switchToProfile(options: { profileName: string } & AwaitResultOptions): Promise<RuntimeCommandResult>;
+
+  /**
+   * Debounce switchToProfile/switchScannerParams bursts so only the final
+   * command of each kind is sent. A profile switch supersedes pending params.
+   */
+  configureCommandCoalescing(options: CommandCoalescingOptions): Promise<CommandCoalescingStats>;
+
+  /**
+   * Get counters for the runtime command coalescing stage
+   */
+  getCommandCoalescingStats(): Promise<CommandCoalescingStats>;
+
+  /**
+   * Provision a named set of per-screen profiles. Profiles whose definition is unchanged
+   * since the last successful provisioning are not written again.
+   * @requires DataWedge 6.5+
+   */
+  provisionProfileSet(options: ProvisionProfileSetOptions): Promise<ProvisionProfileSetResult>;
+
+  /**
+   * Switch to a profile of a provisioned set, using SWITCH_TO_PROFILE (DataWedge 6.8+)
+   * or SWITCH_SCANNER_PARAMS for params-only entries and older versions
+   */
+  switchProfileSet(options: { setName: string; profileName: string }): Promise<SwitchProfileSetResult>;
+
+  /**
+   * Get the switch count and switch-to-ready latency of a profile set
+   */
+  getProfileSetStats(options: { setName: string }): Promise<ProfileSetStats>;
+
+  /**
+   * Tune the outbound command queue that serializes every DataWedge API intent. The queue is
+   * shared by every WebView of the app and by native callers, so this applies process-wide.
+   */
+  configureCommandQueue(options: CommandQueueOptions): Promise<CommandQueueStats>;
+
+  /**
+   * Get counters for the outbound command queue, across every WebView and native caller of the app
+   */
+  getCommandQueueStats(): Promise<CommandQueueStats>;
+
+  /**
+   * Enable per-stage scan latency tracing
+   */
+  configureLatencyTracing(options: LatencyTracingOptions): Promise<LatencyStats>;
+
+  /**
+   * Get the aggregated scan latency histograms
+   */
+  getLatencyStats(): Promise<LatencyStats>;
+
+  /**
+   * Clear the scan latency histograms
+   */
+  resetLatencyStats(): Promise<void>;
+
+  /**
+   * Inject synthetic scans through the scan pipeline at a fixed rate for stress testing.
+   * Resolves with the report when the run completes. Synthetic scans are emitted as
+   * scanReceived events like real ones.
+   */
+  startScanLoad(options?: ScanLoadOptions): Promise<ScanLoadReport>;
+
+  /**
+   * Stop a scan load run early
+   */
+  stopScanLoad(): Promise<ScanLoadReport>;
+
+  /**
+   * Progress of the current scan load run
+   */
+  getScanLoadStats(): Promise<ScanLoadReport>;
+
+  /**
+   * Record every scan, result and notification broadcast to an NDJSON trace
+   */
+  startBroadcastRecording(options?: { path?: string }): Promise<BroadcastRecordingStats>;
+
+  /**
+   * Finish writing the broadcast trace
+   */
+  stopBroadcastRecording(): Promise<BroadcastRecordingStats>;
+
+  /**
+   * Feed a recorded trace back through the plugin's receivers and measure handling cost.
+   * Resolves with the report when the replay completes.
+   */
+  replayBroadcasts(options: ReplayOptions): Promise<ReplayReport>;
+
+  /**
+   * Stop a replay early
+   */
+  stopBroadcastReplay(): Promise<ReplayReport>;
+
+  /**
+   * Get scan rates, symbology mix and gaps between scans since the last reset
+   */
+  getScanStats(): Promise<ScanStats>;
+
+  /**
+   * Start a new scan stats session, e.g. when the operator changes
+   */
+  resetScanStats(options?: { idleThresholdMs?: number }): Promise<void>;
+
+  /**
+   * Configure the profile's INTENT output for broadcast or activity (startActivity) delivery
+   * and start listening for scans
+   * @requires DataWedge 6.5+
+   */
+  setScanDeliveryMode(options: ScanDeliveryModeOptions): Promise<DataWedgeCommandResult | void>;
+
+  /**
+   * Route scans sent with another intent action (or category) to their own event.
+   * Scans on a channel whose event has no listeners are dropped before they are decoded.
+   */
+  addScanChannel(options: ScanChannelOptions): Promise<ScanChannel>;
+
+  /**
+   * Remove a scan channel and stop receiving its action
+   */
+  removeScanChannel(options: { name: string }): Promise<ScanChannel>;
+
+  /**
+   * List scan channels with their delivery counters
+   */
+  getScanChannels(): Promise<{ channels: ScanChannel[] }>;
+
+  /**
+   * Get scan counts and dispatch latency per delivery transport
+   */
+  getScanDeliveryStats(): Promise<ScanDeliveryStats>;
+
+  /**
+   * Clear the delivery transport stats
+   */
+  resetScanDeliveryStats(): Promise<void>;
 
   // Notification Management Methods
 
   /**
-   * Register for DataWedge status change notifications
+   * Register for DataWedge status change notifications.
+   * Reference counted per type and profile; DataWedge is only told on the type's first registration.
    * @requires DataWedge 6.4+
    */
-  registerForNotification(options: RegisterForNotificationOptions): Promise<void>;
+  registerForNotification(options: RegisterForNotificationOptions): Promise<NotificationSubscriptionResult>;
 
   /**
-   * Unregister from DataWedge notifications
+   * Unregister from DataWedge notifications.
+   * DataWedge is only told once the last registration for the type, across all profiles, is released.
    * @requires DataWedge 6.4+
    */
-  unRegisterForNotification(options: RegisterForNotificationOptions): Promise<void>;
+  unRegisterForNotification(options: RegisterForNotificationOptions): Promise<NotificationSubscriptionResult>;
+
+  /**
+   * List active notification subscriptions and their reference counts, across all WebViews of the app
+   */
+  getNotificationSubscriptions(): Promise<{ subscriptions: NotificationSubscription[] }>;
 
   /**
    * Register for scan intent notifications
    */
   registerScanListener(): Promise<void>;
 
+  /**
+   * Throttle notificationReceived events per notification type
+   */
+  configureNotificationCoalescing(options: NotificationCoalescingOptions): Promise<NotificationCoalescingStats>;
+
+  /**
+   * Get notification coalescing counters
+   */
+  getNotificationCoalescingStats(): Promise<NotificationCoalescingStats>;
+
   /**
    * Add a listener for scan events
    */
   addListener(
     eventName: 'scanReceived',
-    listenerFunc: (event: { data: string; labelType: string; timestamp: number }) => void,
+    listenerFunc: (event: ScanEvent) => void,
+  ): Promise<any>;
+
+  /**
+   * Add a listener for multi-barcode (NG SimulScan) captures, one event per capture
+   */
+  addListener(
+    eventName: 'multiBarcodeReceived',
+    listenerFunc: (event: MultiBarcodeEvent) => void,
+  ): Promise<any>;
+
+  /**
+   * Add a listener for RFID tag batches while RFID streaming is active
+   */
+  addListener(
+    eventName: 'rfidTagsReceived',
+    listenerFunc: (event: RfidTagBatch) => void,
   ): Promise<any>;
 
   /**
@@ -389,6 +1270,23 @@ export interface DataWedgePlugin {
     listenerFunc: (event: NotificationEvent) => void,
   ): Promise<any>;
 
+  /**
+   * Add a listener for multi-barcode captures on a named scan channel (see addScanChannel)
+   */
+  addListener(
+    eventName: `multiBarcodeReceived:${string}`,
+    listenerFunc: (event: MultiBarcodeEvent) => void,
+  ): Promise<any>;
+
+  /**
+   * Add a listener for scans on a named scan channel (see addScanChannel). Kept last so the
+   * specific event names above resolve to their own overloads.
+   */
+  addListener(
+    eventName: string,
+    listenerFunc: (event: ScanEvent) => void,
+  ): Promise<any>;
+
   /**
    * Remove all listeners
    */